@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.benchmarks;
+
+import java.net.URI;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.jms.meta.JmsConnectionId;
+import org.apache.qpid.jms.meta.JmsConnectionInfo;
+import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsConsumerInfo;
+import org.apache.qpid.jms.meta.JmsSessionInfo;
+import org.apache.qpid.jms.provider.amqp.AmqpConnection;
+import org.apache.qpid.jms.provider.amqp.AmqpConsumer;
+import org.apache.qpid.jms.provider.amqp.AmqpProvider;
+import org.apache.qpid.jms.provider.amqp.AmqpSession;
+import org.apache.qpid.jms.provider.amqp.message.AmqpCodec;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsMessageFacade;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsTextMessageFacade;
+import org.apache.qpid.jms.provider.amqp.message.AmqpReadableBuffer;
+import org.apache.qpid.jms.util.FifoMessageQueue;
+import org.apache.qpid.proton.engine.Connection;
+import org.apache.qpid.proton.engine.Session;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Measures the cost of encoding an outbound message and decoding an inbound
+ * message with the AMQP codec, independent of any connection activity.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AmqpCodecBenchmark {
+
+    @Param({ "16", "1024", "65536" })
+    private int payloadSize;
+
+    @Param({ "0", "8" })
+    private int propertyCount;
+
+    private AmqpConsumer consumer;
+    private AmqpJmsTextMessageFacade outbound;
+    private ByteBuf encoded;
+
+    @Setup
+    public void setUp() throws Exception {
+        URI uri = new URI(LoopbackConnectionFactory.LOOPBACK_URI);
+        AmqpProvider provider = new AmqpProvider(uri, new LoopbackTransport(uri, new LoopbackPeer(null)));
+
+        JmsConnectionInfo connectionInfo = new JmsConnectionInfo(new JmsConnectionId("ID:benchmark:1"));
+        AmqpConnection connection = new AmqpConnection(provider, connectionInfo, Connection.Factory.create());
+
+        Session protonSession = Connection.Factory.create().session();
+        AmqpSession session = new AmqpSession(connection, new JmsSessionInfo(connectionInfo, 1), protonSession);
+
+        JmsConsumerId consumerId = new JmsConsumerId("ID:benchmark:1", 1, 1);
+        consumer = new AmqpConsumer(session, new JmsConsumerInfo(consumerId, new FifoMessageQueue(1)), protonSession.receiver("benchmark"));
+
+        char[] text = new char[payloadSize];
+        Arrays.fill(text, 'a');
+
+        outbound = new AmqpJmsTextMessageFacade();
+        outbound.initialize(connection);
+        outbound.setText(new String(text));
+        for (int i = 0; i < propertyCount; ++i) {
+            outbound.setApplicationProperty("property-" + i, i);
+        }
+
+        encoded = AmqpCodec.encodeMessage(outbound);
+    }
+
+    @TearDown
+    public void tearDown() {
+        encoded.release();
+    }
+
+    @Benchmark
+    public ByteBuf encodeMessage() {
+        ByteBuf result = AmqpCodec.encodeMessage(outbound);
+        result.release();
+        return result;
+    }
+
+    @Benchmark
+    public AmqpJmsMessageFacade decodeMessage() throws Exception {
+        return AmqpCodec.decodeMessage(consumer, new AmqpReadableBuffer(encoded.duplicate()));
+    }
+}
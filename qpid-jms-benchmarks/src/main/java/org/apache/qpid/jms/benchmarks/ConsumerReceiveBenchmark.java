@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.benchmarks;
+
+import java.util.Arrays;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import javax.jms.Connection;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.Session;
+
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the client receive path, from inbound transfer frames through the
+ * AMQP provider and prefetch buffer to the application, for both synchronous
+ * receive calls and asynchronous message listeners.
+ *
+ * The in-process peer sends a new message for every unit of credit granted so
+ * the consumer never runs out of messages.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsumerReceiveBenchmark {
+
+    private static final long RECEIVE_TIMEOUT = 5000;
+
+    @State(Scope.Thread)
+    public static class ConsumerState {
+
+        @Param({ "16", "1024", "65536" })
+        int payloadSize;
+
+        @Param({ "100", "1000" })
+        int prefetch;
+
+        Connection connection;
+        Session session;
+
+        @Setup
+        public void setUp() throws Exception {
+            String uri = LoopbackConnectionFactory.LOOPBACK_URI + "?jms.prefetchPolicy.all=" + prefetch;
+            connection = new LoopbackConnectionFactory(uri, encodeMessage(payloadSize)).createConnection();
+            session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+        }
+
+        @TearDown
+        public void tearDown() throws Exception {
+            connection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReceiveState extends ConsumerState {
+
+        MessageConsumer consumer;
+
+        @Override
+        @Setup
+        public void setUp() throws Exception {
+            super.setUp();
+            consumer = session.createConsumer(session.createQueue("benchmark"));
+            connection.start();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ListenerState extends ConsumerState implements MessageListener {
+
+        final Semaphore received = new Semaphore(0);
+
+        @Override
+        @Setup
+        public void setUp() throws Exception {
+            super.setUp();
+            session.createConsumer(session.createQueue("benchmark")).setMessageListener(this);
+            connection.start();
+        }
+
+        @Override
+        public void onMessage(Message message) {
+            received.release();
+        }
+    }
+
+    @Benchmark
+    public Message receive(ReceiveState state) throws Exception {
+        Message message = state.consumer.receive(RECEIVE_TIMEOUT);
+        if (message == null) {
+            throw new IllegalStateException("No message received from the loopback peer");
+        }
+
+        return message;
+    }
+
+    @Benchmark
+    public void listener(ListenerState state) throws Exception {
+        if (!state.received.tryAcquire(RECEIVE_TIMEOUT, TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("No message delivered from the loopback peer");
+        }
+    }
+
+    private static byte[] encodeMessage(int payloadSize) {
+        char[] text = new char[payloadSize];
+        Arrays.fill(text, 'a');
+
+        org.apache.qpid.proton.message.Message message = org.apache.qpid.proton.message.Message.Factory.create();
+        message.setDurable(true);
+        message.setBody(new AmqpValue(new String(text)));
+
+        byte[] buffer = new byte[payloadSize + 1024];
+        int length = message.encode(buffer, 0, buffer.length);
+
+        return Arrays.copyOf(buffer, length);
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.benchmarks;
+
+import java.net.URI;
+import java.util.Map;
+
+import org.apache.qpid.jms.JmsConnectionFactory;
+import org.apache.qpid.jms.provider.Provider;
+import org.apache.qpid.jms.provider.amqp.AmqpProvider;
+import org.apache.qpid.jms.util.PropertyUtil;
+
+/**
+ * Connection factory whose connections talk to an in-process {@link LoopbackPeer}
+ * instead of a remote peer.  Any amqp.* options on the URI are applied to the
+ * provider the same way the AMQP provider factory would.
+ */
+public class LoopbackConnectionFactory extends JmsConnectionFactory {
+
+    public static final String LOOPBACK_URI = "amqp://loopback:5672";
+
+    private final byte[] messagePayload;
+
+    /**
+     * Creates a factory whose peer only consumes what the client sends.
+     */
+    public LoopbackConnectionFactory() {
+        this(LOOPBACK_URI, null);
+    }
+
+    /**
+     * Creates a factory whose peer streams the given payload to every consumer.
+     *
+     * @param remoteURI
+     *        the URI used to configure the connection and provider.
+     * @param messagePayload
+     *        the encoded AMQP message sent to consumers, or null to send nothing.
+     */
+    public LoopbackConnectionFactory(String remoteURI, byte[] messagePayload) {
+        super(remoteURI);
+        this.messagePayload = messagePayload;
+    }
+
+    @Override
+    protected Provider createProvider(URI remoteURI) throws Exception {
+        Map<String, String> map = PropertyUtil.parseQuery(remoteURI);
+        Map<String, String> providerOptions = PropertyUtil.filterProperties(map, "amqp.");
+
+        LoopbackTransport transport = new LoopbackTransport(remoteURI, new LoopbackPeer(messagePayload));
+        AmqpProvider provider = new AmqpProvider(remoteURI, transport);
+        provider.setSaslLayer(false);
+
+        Map<String, String> unused = PropertyUtil.setProperties(provider, providerOptions);
+        if (!unused.isEmpty()) {
+            throw new IllegalArgumentException("Unknown loopback provider options: " + unused);
+        }
+
+        return provider;
+    }
+}
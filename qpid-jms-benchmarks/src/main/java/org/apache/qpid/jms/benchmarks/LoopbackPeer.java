@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.benchmarks;
+
+import java.nio.ByteBuffer;
+
+import org.apache.qpid.proton.amqp.messaging.Accepted;
+import org.apache.qpid.proton.engine.Collector;
+import org.apache.qpid.proton.engine.Connection;
+import org.apache.qpid.proton.engine.Delivery;
+import org.apache.qpid.proton.engine.EndpointState;
+import org.apache.qpid.proton.engine.Event;
+import org.apache.qpid.proton.engine.Link;
+import org.apache.qpid.proton.engine.Receiver;
+import org.apache.qpid.proton.engine.Sender;
+import org.apache.qpid.proton.engine.Session;
+import org.apache.qpid.proton.engine.Transport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
+/**
+ * Minimal in-process AMQP peer built on a server side proton engine.
+ *
+ * The peer accepts every connection, session and link that the client opens, grants
+ * credit to client producers and accepts everything they send, and when a message
+ * payload is configured it streams that message to every client consumer for as
+ * long as the consumer grants credit.
+ *
+ * The peer is not thread safe, it is driven from the thread that writes into the
+ * owning {@link LoopbackTransport} which is always the client provider thread.
+ */
+public class LoopbackPeer {
+
+    public static final int DEFAULT_CREDIT = 1000;
+
+    private final Transport protonTransport = Transport.Factory.create();
+    private final Connection protonConnection = Connection.Factory.create();
+    private final Collector protonCollector = Collector.Factory.create();
+
+    private final byte[] messagePayload;
+    private int credit = DEFAULT_CREDIT;
+    private long deliveryTag;
+
+    /**
+     * Create a new peer.
+     *
+     * @param messagePayload
+     *        the encoded message streamed to consumers, or null if consumers receive nothing.
+     */
+    public LoopbackPeer(byte[] messagePayload) {
+        this.messagePayload = messagePayload;
+
+        protonConnection.collect(protonCollector);
+        protonTransport.bind(protonConnection);
+    }
+
+    /**
+     * Consumes the bytes written by the client and returns the response bytes.
+     *
+     * @param input
+     *        the bytes written by the client.
+     *
+     * @return a buffer holding the bytes the peer wants to send back, or null if none.
+     */
+    public ByteBuf process(ByteBuf input) {
+        while (input.isReadable()) {
+            ByteBuffer buffer = protonTransport.tail();
+            int chunkSize = Math.min(buffer.remaining(), input.readableBytes());
+            buffer.limit(buffer.position() + chunkSize);
+            input.readBytes(buffer);
+            protonTransport.process();
+        }
+
+        processEvents();
+
+        int pending = protonTransport.pending();
+        if (pending <= 0) {
+            return null;
+        }
+
+        ByteBuf output = Unpooled.buffer(pending);
+        while (pending > 0) {
+            ByteBuffer head = protonTransport.head();
+            int chunkSize = Math.min(head.remaining(), pending);
+            head.limit(head.position() + chunkSize);
+            output.writeBytes(head);
+            protonTransport.pop(chunkSize);
+            pending = protonTransport.pending();
+        }
+
+        return output;
+    }
+
+    public int getCredit() {
+        return credit;
+    }
+
+    /**
+     * Sets the credit granted to each producer link the client opens.
+     *
+     * @param credit
+     *        the credit window for client producers.
+     */
+    public void setCredit(int credit) {
+        this.credit = credit;
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private void processEvents() {
+        Event event = null;
+        while ((event = protonCollector.peek()) != null) {
+            switch (event.getType()) {
+                case CONNECTION_REMOTE_OPEN:
+                    protonConnection.setContainer("loopback-peer");
+                    protonConnection.open();
+                    break;
+                case CONNECTION_REMOTE_CLOSE:
+                    protonConnection.close();
+                    break;
+                case SESSION_REMOTE_OPEN:
+                    openSession(event.getSession());
+                    break;
+                case SESSION_REMOTE_CLOSE:
+                    event.getSession().close();
+                    break;
+                case LINK_REMOTE_OPEN:
+                    openLink(event.getLink());
+                    break;
+                case LINK_REMOTE_DETACH:
+                    event.getLink().detach();
+                    break;
+                case LINK_REMOTE_CLOSE:
+                    event.getLink().close();
+                    break;
+                case LINK_FLOW:
+                    if (event.getLink() instanceof Sender) {
+                        streamMessages((Sender) event.getLink());
+                    }
+                    break;
+                case DELIVERY:
+                    processDelivery(event.getDelivery());
+                    break;
+                default:
+                    break;
+            }
+
+            protonCollector.pop();
+        }
+    }
+
+    private void openSession(Session session) {
+        if (session.getLocalState() == EndpointState.UNINITIALIZED) {
+            session.open();
+        }
+    }
+
+    private void openLink(Link link) {
+        if (link.getLocalState() != EndpointState.UNINITIALIZED) {
+            return;
+        }
+
+        link.setSource(link.getRemoteSource());
+        link.setTarget(link.getRemoteTarget());
+        link.open();
+
+        if (link instanceof Receiver) {
+            ((Receiver) link).flow(credit);
+        } else {
+            streamMessages((Sender) link);
+        }
+    }
+
+    private void streamMessages(Sender sender) {
+        if (messagePayload == null || sender.getLocalState() != EndpointState.ACTIVE) {
+            return;
+        }
+
+        while (sender.getCredit() > 0) {
+            sender.delivery(nextTag());
+            sender.send(messagePayload, 0, messagePayload.length);
+            sender.advance();
+        }
+
+        if (sender.getDrain()) {
+            sender.drained();
+        }
+    }
+
+    private void processDelivery(Delivery delivery) {
+        Link link = delivery.getLink();
+
+        if (link instanceof Receiver) {
+            if (!delivery.isReadable() || delivery.isPartial()) {
+                return;
+            }
+
+            Receiver receiver = (Receiver) link;
+            receiver.recv();
+            receiver.advance();
+
+            if (!delivery.remotelySettled()) {
+                delivery.disposition(Accepted.getInstance());
+            }
+            delivery.settle();
+
+            receiver.flow(1);
+        } else if (delivery.remotelySettled()) {
+            delivery.settle();
+        }
+    }
+
+    private byte[] nextTag() {
+        long tag = deliveryTag++;
+        return new byte[] { (byte) (tag >>> 24), (byte) (tag >>> 16), (byte) (tag >>> 8), (byte) tag };
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.benchmarks;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.Principal;
+
+import javax.net.ssl.SSLContext;
+
+import org.apache.qpid.jms.transports.Transport;
+import org.apache.qpid.jms.transports.TransportListener;
+import org.apache.qpid.jms.transports.TransportOptions;
+import org.apache.qpid.jms.transports.netty.NettyTcpTransport;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.util.ReferenceCountUtil;
+
+/**
+ * Transport that hands every write directly to an in-process {@link LoopbackPeer}
+ * so that benchmarks measure the client stack without any network or broker cost.
+ */
+public class LoopbackTransport implements Transport {
+
+    private final URI remoteLocation;
+    private final LoopbackPeer peer;
+    private final TransportOptions options = new TransportOptions();
+    private final ByteBuf pending = Unpooled.buffer();
+
+    private TransportListener listener;
+    private volatile boolean connected;
+    private int maxFrameSize = NettyTcpTransport.DEFAULT_MAX_FRAME_SIZE;
+
+    public LoopbackTransport(URI remoteLocation, LoopbackPeer peer) {
+        this.remoteLocation = remoteLocation;
+        this.peer = peer;
+    }
+
+    @Override
+    public void connect(SSLContext sslContextOverride) throws IOException {
+        if (listener == null) {
+            throw new IllegalStateException("A transport listener must be set before connection attempts.");
+        }
+
+        connected = true;
+    }
+
+    @Override
+    public boolean isConnected() {
+        return connected;
+    }
+
+    @Override
+    public boolean isSecure() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        connected = false;
+    }
+
+    @Override
+    public ByteBuf allocateSendBuffer(int size) throws IOException {
+        checkConnected();
+        return Unpooled.buffer(size, size);
+    }
+
+    @Override
+    public void send(ByteBuf output) throws IOException {
+        write(output);
+        flush();
+    }
+
+    @Override
+    public void write(ByteBuf output) throws IOException {
+        checkConnected();
+
+        try {
+            pending.writeBytes(output);
+        } finally {
+            ReferenceCountUtil.release(output);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkConnected();
+
+        ByteBuf response = peer.process(pending);
+        pending.clear();
+
+        if (response != null) {
+            try {
+                // The listener retains the buffer until it has been processed.
+                listener.onData(response);
+            } finally {
+                ReferenceCountUtil.release(response);
+            }
+        }
+    }
+
+    @Override
+    public TransportListener getTransportListener() {
+        return listener;
+    }
+
+    @Override
+    public void setTransportListener(TransportListener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public TransportOptions getTransportOptions() {
+        return options;
+    }
+
+    @Override
+    public URI getRemoteLocation() {
+        return remoteLocation;
+    }
+
+    @Override
+    public Principal getLocalPrincipal() {
+        return null;
+    }
+
+    @Override
+    public void setMaxFrameSize(int maxFrameSize) {
+        this.maxFrameSize = maxFrameSize;
+    }
+
+    @Override
+    public int getMaxFrameSize() {
+        return maxFrameSize;
+    }
+
+    private void checkConnected() throws IOException {
+        if (!connected) {
+            throw new IOException("Cannot send to a non-connected transport.");
+        }
+    }
+}
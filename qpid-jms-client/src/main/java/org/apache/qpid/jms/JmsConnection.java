@@ -18,6 +18,8 @@ package org.apache.qpid.jms;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -79,12 +81,14 @@ import org.apache.qpid.jms.provider.Provider;
 import org.apache.qpid.jms.provider.ProviderClosedException;
 import org.apache.qpid.jms.provider.ProviderConstants.ACK_TYPE;
 import org.apache.qpid.jms.provider.ProviderFuture;
+import org.apache.qpid.jms.provider.ProviderFutureFactory;
 import org.apache.qpid.jms.provider.ProviderListener;
 import org.apache.qpid.jms.provider.ProviderSynchronization;
 import org.apache.qpid.jms.util.FifoMessageQueue;
 import org.apache.qpid.jms.util.MessageQueue;
 import org.apache.qpid.jms.util.PriorityMessageQueue;
 import org.apache.qpid.jms.util.QpidJMSThreadFactory;
+import org.apache.qpid.jms.util.SpscMessageQueue;
 import org.apache.qpid.jms.util.ThreadPoolUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -213,7 +217,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
                 }
 
                 if (isConnected() && !isFailed()) {
-                    ProviderFuture request = new ProviderFuture();
+                    ProviderFuture request = getProviderFutureFactory().createFuture();
                     requests.put(request, request);
                     try {
                         provider.destroy(connectionInfo, request);
@@ -465,6 +469,8 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
 
         if (isLocalMessagePriority()) {
             messageQueue = new PriorityMessageQueue();
+        } else if (isUseLockFreeMessageQueue()) {
+            messageQueue = new SpscMessageQueue(configuredPrefetch);
         } else {
             messageQueue = new FifoMessageQueue(configuredPrefetch);
         }
@@ -683,7 +689,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.create(resource, request);
@@ -704,7 +710,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.start(resource, request);
@@ -725,7 +731,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.stop(resource, request);
@@ -746,7 +752,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.destroy(resource, request);
@@ -767,7 +773,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.send(envelope, request);
@@ -788,7 +794,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             provider.acknowledge(envelope, ackType, request);
             request.sync();
         } catch (Exception ioe) {
@@ -796,6 +802,22 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    void acknowledge(List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType) throws JMSException {
+        acknowledge(envelopes, ackType, null);
+    }
+
+    void acknowledge(List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType, ProviderSynchronization synchronization) throws JMSException {
+        checkClosedOrFailed();
+
+        try {
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
+            provider.acknowledge(envelopes, ackType, request);
+            request.sync();
+        } catch (Exception ioe) {
+            throw JmsExceptionSupport.create(ioe);
+        }
+    }
+
     void acknowledge(JmsSessionId sessionId, ACK_TYPE ackType) throws JMSException {
         acknowledge(sessionId, ackType, null);
     }
@@ -804,7 +826,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             provider.acknowledge(sessionId, ackType, request);
             request.sync();
         } catch (Exception ioe) {
@@ -820,7 +842,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.unsubscribe(name, request);
@@ -833,6 +855,23 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    void warmUp(JmsProducerId producerId, List<JmsDestination> destinations) throws JMSException {
+        checkClosedOrFailed();
+
+        try {
+            ProviderFuture request = getProviderFutureFactory().createFuture();
+            requests.put(request, request);
+            try {
+                provider.warmUp(producerId, destinations, request);
+                request.sync();
+            } finally {
+                requests.remove(request);
+            }
+        } catch (Exception ioe) {
+            throw JmsExceptionSupport.create(ioe);
+        }
+    }
+
     void commit(JmsTransactionInfo transactionInfo, JmsTransactionInfo nextTransactionId) throws JMSException {
         commit(transactionInfo, nextTransactionId, null);
     }
@@ -841,7 +880,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.commit(transactionInfo, nextTransactionId, request);
@@ -862,7 +901,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.rollback(transactionInfo, nextTransactionId, request);
@@ -883,7 +922,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.recover(sessionId, request);
@@ -904,7 +943,7 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         checkClosedOrFailed();
 
         try {
-            ProviderFuture request = new ProviderFuture(synchronization);
+            ProviderFuture request = getProviderFutureFactory().createFuture(synchronization);
             requests.put(request, request);
             try {
                 provider.pull(consumerId, timeout, request);
@@ -1026,6 +1065,14 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         connectionInfo.setDeserializationPolicy(deserializationPolicy);
     }
 
+    public ProviderFutureFactory getProviderFutureFactory() {
+        return connectionInfo.getProviderFutureFactory();
+    }
+
+    public void setProviderFutureFactory(ProviderFutureFactory providerFutureFactory) {
+        connectionInfo.setProviderFutureFactory(providerFutureFactory);
+    }
+
     public boolean isReceiveLocalOnly() {
         return connectionInfo.isReceiveLocalOnly();
     }
@@ -1050,6 +1097,46 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         this.connectionInfo.setLocalMessagePriority(localMessagePriority);
     }
 
+    public boolean isUseLockFreeMessageQueue() {
+        return connectionInfo.isUseLockFreeMessageQueue();
+    }
+
+    public void setUseLockFreeMessageQueue(boolean useLockFreeMessageQueue) {
+        this.connectionInfo.setUseLockFreeMessageQueue(useLockFreeMessageQueue);
+    }
+
+    public boolean isPipelinedRecovery() {
+        return connectionInfo.isPipelinedRecovery();
+    }
+
+    public void setPipelinedRecovery(boolean pipelinedRecovery) {
+        this.connectionInfo.setPipelinedRecovery(pipelinedRecovery);
+    }
+
+    public boolean isConnectionConsumerBatching() {
+        return connectionInfo.isConnectionConsumerBatching();
+    }
+
+    public void setConnectionConsumerBatching(boolean connectionConsumerBatching) {
+        this.connectionInfo.setConnectionConsumerBatching(connectionConsumerBatching);
+    }
+
+    public int getConnectionConsumerDispatchThreads() {
+        return connectionInfo.getConnectionConsumerDispatchThreads();
+    }
+
+    public void setConnectionConsumerDispatchThreads(int connectionConsumerDispatchThreads) {
+        this.connectionInfo.setConnectionConsumerDispatchThreads(connectionConsumerDispatchThreads);
+    }
+
+    public boolean isCopyMessageOnAsyncSend() {
+        return connectionInfo.isCopyMessageOnAsyncSend();
+    }
+
+    public void setCopyMessageOnAsyncSend(boolean copyMessageOnAsyncSend) {
+        this.connectionInfo.setCopyMessageOnAsyncSend(copyMessageOnAsyncSend);
+    }
+
     public long getCloseTimeout() {
         return connectionInfo.getCloseTimeout();
     }
@@ -1255,6 +1342,11 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         provider.create(connectionInfo, request);
         request.sync();
 
+        if (isPipelinedRecovery()) {
+            recoverResourcesPipelined(provider);
+            return;
+        }
+
         for (JmsTemporaryDestination tempDestination : tempDestinations.values()) {
             request = new ProviderFuture();
             provider.create(tempDestination, request);
@@ -1275,6 +1367,70 @@ public class JmsConnection implements AutoCloseable, Connection, TopicConnection
         }
     }
 
+    /*
+     * Recovers the connection level resources and the Sessions by sending all the requests
+     * without waiting on each response, then does the same for all the MessageProducer and
+     * MessageConsumer instances once their Sessions are known to the remote again.
+     */
+    private void recoverResourcesPipelined(Provider provider) throws Exception {
+        Map<JmsResource, ProviderFuture> requests = new LinkedHashMap<>();
+
+        for (JmsTemporaryDestination tempDestination : tempDestinations.values()) {
+            ProviderFuture request = new ProviderFuture();
+            provider.create(tempDestination, request);
+            requests.put(tempDestination, request);
+        }
+
+        for (JmsConnectionConsumer connectionConsumer : connectionConsumers.values()) {
+            JmsConsumerInfo consumerInfo = connectionConsumer.getConsumerInfo();
+            if (consumerInfo.isOpen()) {
+                ProviderFuture request = new ProviderFuture();
+                provider.create(consumerInfo, request);
+                requests.put(consumerInfo, request);
+            }
+        }
+
+        for (JmsSession session : sessions.values()) {
+            JmsSessionInfo sessionInfo = session.getSessionInfo();
+            if (sessionInfo.isOpen()) {
+                ProviderFuture request = new ProviderFuture();
+                provider.create(sessionInfo, request);
+                requests.put(sessionInfo, request);
+            }
+        }
+
+        awaitRecoveryRequests(requests);
+
+        for (JmsSession session : sessions.values()) {
+            session.onConnectionRecovery(provider, requests);
+        }
+
+        awaitRecoveryRequests(requests);
+    }
+
+    private void awaitRecoveryRequests(Map<JmsResource, ProviderFuture> requests) throws Exception {
+        Exception failure = null;
+
+        for (Map.Entry<JmsResource, ProviderFuture> entry : requests.entrySet()) {
+            try {
+                entry.getValue().sync();
+            } catch (Exception ex) {
+                LOG.warn("Connection {} failed to recover resource {}: {}", connectionInfo.getId(), entry.getKey(), ex.getMessage());
+                if (failure == null) {
+                    failure = ex;
+                } else {
+                    failure.addSuppressed(ex);
+                }
+            }
+        }
+
+        requests.clear();
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     @Override
     public void onConnectionRecovered(Provider provider) throws Exception {
         LOG.debug("Connection {} is finalizing recovery.", connectionInfo.getId());
@@ -18,6 +18,7 @@ package org.apache.qpid.jms;
 
 import static org.apache.qpid.jms.message.JmsMessageSupport.lookupAckTypeForDisposition;
 
+import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadFactory;
@@ -49,6 +50,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * JMS Connection Consumer implementation.
+ *
+ * Messages are handed to ServerSessions from one or more dispatcher threads, each of which
+ * obtains a ServerSession from the pool outside of the dispatch lock so that several can
+ * wait on the pool at once, and then loads it with either a single message or a batch of
+ * up to maxMessages under the lock so the messages of any one ServerSession stay in order.
  */
 public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDispatcher {
 
@@ -67,13 +73,15 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
     private final AtomicBoolean closed = new AtomicBoolean(false);
     private final AtomicReference<Throwable> failureCause = new AtomicReference<>();
     private final ScheduledThreadPoolExecutor dispatcher;
+    private final int messagesPerSession;
 
     public JmsConnectionConsumer(JmsConnection connection, JmsConsumerInfo consumerInfo, MessageQueue messageQueue, ServerSessionPool sessionPool) throws JMSException {
         this.connection = connection;
         this.consumerInfo = consumerInfo;
         this.sessionPool = sessionPool;
         this.messageQueue = messageQueue;
-        this.dispatcher = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        this.messagesPerSession = connection.isConnectionConsumerBatching() ? Math.max(1, consumerInfo.getMaxMessages()) : 1;
+        this.dispatcher = new ScheduledThreadPoolExecutor(Math.max(1, connection.getConnectionConsumerDispatchThreads()), new ThreadFactory() {
 
             @Override
             public Thread newThread(Runnable runner) {
@@ -162,14 +170,17 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
                 connection.removeConnectionConsumer(consumerInfo);
                 stop(true);
                 dispatcher.shutdown();
-                try {
-                    dispatcher.awaitTermination(connection.getCloseTimeout(), TimeUnit.MILLISECONDS);
-                } catch (InterruptedException e) {
-                    LOG.trace("ConnectionConsumer shutdown of dispatcher was interupted");
-                }
             } finally {
                 dispatchLock.unlock();
             }
+
+            // Dispatchers take the dispatch lock after leaving the pool, so it must not be
+            // held while waiting on them or one failing its ServerSession would never finish.
+            try {
+                dispatcher.awaitTermination(connection.getCloseTimeout(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                LOG.trace("ConnectionConsumer shutdown of dispatcher was interupted");
+            }
         }
     }
 
@@ -178,7 +189,16 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
         try {
             if (!messageQueue.isRunning()) {
                 this.messageQueue.start();
-                this.dispatcher.execute(new BoundedMessageDeliverTask(messageQueue.size()));
+
+                // Give each dispatcher thread a share of any backlog queued while stopped.
+                int backlog = messageQueue.size();
+                int threads = dispatcher.getCorePoolSize();
+                for (int i = 0; i < threads; ++i) {
+                    int share = backlog / threads + (i < backlog % threads ? 1 : 0);
+                    if (share > 0) {
+                        this.dispatcher.execute(new BoundedMessageDeliverTask(share));
+                    }
+                }
             }
         } finally {
             stateLock.unlock();
@@ -248,8 +268,6 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
 
     private boolean deliverNextPending() {
         if (messageQueue.isRunning() && !messageQueue.isEmpty()) {
-            dispatchLock.lock();
-
             try {
                 ServerSession serverSession = getServerSessionPool().getServerSession();
                 if (serverSession == null) {
@@ -261,20 +279,27 @@ public class JmsConnectionConsumer implements ConnectionConsumer, JmsMessageDisp
 
                 Session session = serverSession.getSession();
 
-                JmsInboundMessageDispatch envelope = messageQueue.dequeueNoWait();
-
-                if (session instanceof JmsSession) {
-                    ((JmsSession) session).enqueueInSession(new DeliveryTask(envelope));
-                } else {
-                    LOG.warn("ServerSession provided an unknown JMS Session type to this ConnectionConsumer: {}", session);
+                dispatchLock.lock();
+                try {
+                    // The queue may have been drained by another dispatcher or closed while
+                    // waiting on the pool, the session is still started so it is returned.
+                    if (session instanceof JmsSession) {
+                        List<JmsInboundMessageDispatch> envelopes = messageQueue.dequeueNoWait(messagesPerSession);
+                        for (JmsInboundMessageDispatch envelope : envelopes) {
+                            ((JmsSession) session).enqueueInSession(new DeliveryTask(envelope));
+                        }
+                    } else {
+                        messageQueue.dequeueNoWait();
+                        LOG.warn("ServerSession provided an unknown JMS Session type to this ConnectionConsumer: {}", session);
+                    }
+                } finally {
+                    dispatchLock.unlock();
                 }
 
                 serverSession.start();
             } catch (JMSException e) {
                 connection.onAsyncException(e);
                 stop(true);
-            } finally {
-                dispatchLock.unlock();
             }
         }
 
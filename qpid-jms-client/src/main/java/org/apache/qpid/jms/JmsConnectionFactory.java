@@ -49,6 +49,7 @@ import org.apache.qpid.jms.policy.JmsPresettlePolicy;
 import org.apache.qpid.jms.policy.JmsRedeliveryPolicy;
 import org.apache.qpid.jms.provider.Provider;
 import org.apache.qpid.jms.provider.ProviderFactory;
+import org.apache.qpid.jms.provider.ProviderFutureFactory;
 import org.apache.qpid.jms.util.IdGenerator;
 import org.apache.qpid.jms.util.PropertyUtil;
 import org.apache.qpid.jms.util.URISupport;
@@ -79,6 +80,11 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
     private boolean forceSyncSend;
     private boolean forceAsyncAcks;
     private boolean localMessagePriority;
+    private boolean useLockFreeMessageQueue;
+    private boolean pipelinedRecovery;
+    private boolean connectionConsumerBatching;
+    private int connectionConsumerDispatchThreads = JmsConnectionInfo.DEFAULT_CONNECTION_CONSUMER_DISPATCH_THREADS;
+    private boolean copyMessageOnAsyncSend = true;
     private boolean localMessageExpiry = true;
     private boolean receiveLocalOnly;
     private boolean receiveNoWaitLocalOnly;
@@ -103,6 +109,7 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
     private JmsPresettlePolicy presettlePolicy = new JmsDefaultPresettlePolicy();
     private JmsMessageIDPolicy messageIDPolicy = new JmsDefaultMessageIDPolicy();
     private JmsDeserializationPolicy deserializationPolicy = new JmsDefaultDeserializationPolicy();
+    private ProviderFutureFactory providerFutureFactory = new ProviderFutureFactory();
 
     private SSLContext sslContext;
 
@@ -263,6 +270,7 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
             connectionInfo.setPresettlePolicy(presettlePolicy.copy());
             connectionInfo.setRedeliveryPolicy(redeliveryPolicy.copy());
             connectionInfo.setDeserializationPolicy(deserializationPolicy.copy());
+            connectionInfo.setProviderFutureFactory(providerFutureFactory.copy());
             connectionInfo.setSslContextOverride(sslContext);
 
             // Set properties to make additional configuration changes
@@ -488,6 +496,106 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
         this.localMessagePriority = localMessagePriority;
     }
 
+    /**
+     * @return the useLockFreeMessageQueue configuration option.
+     */
+    public boolean isUseLockFreeMessageQueue() {
+        return useLockFreeMessageQueue;
+    }
+
+    /**
+     * Enables the use of a lock free single producer / single consumer queue to hold the
+     * prefetched messages of MessageConsumer instances, which avoids monitor contention
+     * between the connection thread and the thread consuming the messages.  This option
+     * has no effect when local message priority is enabled.
+     *
+     * @param useLockFreeMessageQueue
+     *        true if consumers should use the lock free prefetch queue.
+     */
+    public void setUseLockFreeMessageQueue(boolean useLockFreeMessageQueue) {
+        this.useLockFreeMessageQueue = useLockFreeMessageQueue;
+    }
+
+    /**
+     * @return the pipelinedRecovery configuration option.
+     */
+    public boolean isPipelinedRecovery() {
+        return pipelinedRecovery;
+    }
+
+    /**
+     * Enables pipelined recovery of a Connection's resources after a failover reconnect.
+     * When enabled all Session begin requests are sent without waiting on each response,
+     * followed by all MessageProducer and MessageConsumer attach requests, so the time
+     * needed to recover no longer grows with the round trip time of each resource.
+     *
+     * @param pipelinedRecovery
+     *        true if resources should be recovered in a pipeline.
+     */
+    public void setPipelinedRecovery(boolean pipelinedRecovery) {
+        this.pipelinedRecovery = pipelinedRecovery;
+    }
+
+    /**
+     * @return the connectionConsumerBatching configuration option.
+     */
+    public boolean isConnectionConsumerBatching() {
+        return connectionConsumerBatching;
+    }
+
+    /**
+     * Enables loading each ServerSession obtained by a ConnectionConsumer with up to the
+     * maxMessages value given when the ConnectionConsumer was created, instead of handing
+     * a single message to each ServerSession.
+     *
+     * @param connectionConsumerBatching
+     *        true if ServerSessions should be loaded with up to maxMessages messages.
+     */
+    public void setConnectionConsumerBatching(boolean connectionConsumerBatching) {
+        this.connectionConsumerBatching = connectionConsumerBatching;
+    }
+
+    /**
+     * @return the number of threads each ConnectionConsumer uses to dispatch messages.
+     */
+    public int getConnectionConsumerDispatchThreads() {
+        return connectionConsumerDispatchThreads;
+    }
+
+    /**
+     * Sets the number of threads each ConnectionConsumer uses to obtain ServerSessions from
+     * its ServerSessionPool and hand them messages.  Using more than one thread allows an
+     * application server pool to be filled concurrently, messages handed to any one
+     * ServerSession are still delivered in the order they were received.
+     *
+     * @param connectionConsumerDispatchThreads
+     *        the number of dispatcher threads per ConnectionConsumer, values below one are treated as one.
+     */
+    public void setConnectionConsumerDispatchThreads(int connectionConsumerDispatchThreads) {
+        this.connectionConsumerDispatchThreads = connectionConsumerDispatchThreads;
+    }
+
+    /**
+     * @return true if a copy of the message is kept while an asynchronous send completes.
+     */
+    public boolean isCopyMessageOnAsyncSend() {
+        return copyMessageOnAsyncSend;
+    }
+
+    /**
+     * Controls whether an asynchronous send keeps a copy of the sent message until the send
+     * completes so that the application can reuse the message as soon as send returns.  When
+     * disabled the send completes using only the already encoded form of the message along
+     * with its message ID, which avoids copying the message body on each send.  Sends that
+     * require a CompletionListener always retain the original message.
+     *
+     * @param copyMessageOnAsyncSend
+     *        true if asynchronous sends should keep a copy of the sent message.
+     */
+    public void setCopyMessageOnAsyncSend(boolean copyMessageOnAsyncSend) {
+        this.copyMessageOnAsyncSend = copyMessageOnAsyncSend;
+    }
+
     /**
      * Returns the prefix applied to Queues that are created by the client.
      *
@@ -681,6 +789,27 @@ public class JmsConnectionFactory extends JNDIStorable implements ConnectionFact
         this.deserializationPolicy = deserializationPolicy;
     }
 
+    /**
+     * @return the providerFutureFactory that is currently configured.
+     */
+    public ProviderFutureFactory getProviderFutureFactory() {
+        return providerFutureFactory;
+    }
+
+    /**
+     * Sets the ProviderFutureFactory that new connections use to create the futures their
+     * synchronous operations wait on, which determines the wait strategy of those operations.
+     *
+     * @param providerFutureFactory
+     *      the providerFutureFactory that will be applied to new connections.
+     */
+    public void setProviderFutureFactory(ProviderFutureFactory providerFutureFactory) {
+        if (providerFutureFactory == null) {
+            providerFutureFactory = new ProviderFutureFactory();
+        }
+        this.providerFutureFactory = providerFutureFactory;
+    }
+
     /**
      * @return the currently configured client ID prefix for auto-generated client IDs.
      */
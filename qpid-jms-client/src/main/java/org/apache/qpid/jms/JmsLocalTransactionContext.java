@@ -17,6 +17,7 @@
 package org.apache.qpid.jms;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
@@ -111,6 +112,40 @@ public class JmsLocalTransactionContext implements JmsTransactionContext {
         }
     }
 
+    @Override
+    public void acknowledge(JmsConnection connection, final List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType) throws JMSException {
+        // Consumed or delivered messages fall into a transaction otherwise just pass it in.
+        if (ackType == ACK_TYPE.ACCEPTED || ackType == ACK_TYPE.DELIVERED) {
+            lock.readLock().lock();
+            try {
+                connection.acknowledge(envelopes, ackType, new ProviderSynchronization() {
+
+                    @Override
+                    public void onPendingSuccess() {
+                        LOG.trace("TX:{} has performed a batch acknowledge.", getTransactionId());
+                        addParticipants();
+                    }
+
+                    @Override
+                    public void onPendingFailure(Throwable cause) {
+                        LOG.trace("TX:{} has failed a batch acknowledge.", getTransactionId());
+                        addParticipants();
+                    }
+
+                    private void addParticipants() {
+                        for (JmsInboundMessageDispatch envelope : envelopes) {
+                            participants.put(envelope.getConsumerId(), envelope.getConsumerId());
+                        }
+                    }
+                });
+            } finally {
+                lock.readLock().unlock();
+            }
+        } else {
+            connection.acknowledge(envelopes, ackType);
+        }
+    }
+
     @Override
     public boolean isInDoubt() {
         return transactionInfo != null ? transactionInfo.isInDoubt() : false;
@@ -18,6 +18,10 @@ package org.apache.qpid.jms;
 
 import static org.apache.qpid.jms.message.JmsMessageSupport.lookupAckTypeForDisposition;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -37,6 +41,7 @@ import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.meta.JmsConsumerId;
 import org.apache.qpid.jms.meta.JmsConsumerInfo;
+import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsResource.ResourceState;
 import org.apache.qpid.jms.policy.JmsDeserializationPolicy;
 import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
@@ -47,6 +52,7 @@ import org.apache.qpid.jms.provider.ProviderFuture;
 import org.apache.qpid.jms.util.FifoMessageQueue;
 import org.apache.qpid.jms.util.MessageQueue;
 import org.apache.qpid.jms.util.PriorityMessageQueue;
+import org.apache.qpid.jms.util.SpscMessageQueue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -94,6 +100,8 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
 
         if (connection.isLocalMessagePriority()) {
             this.messageQueue = new PriorityMessageQueue();
+        } else if (connection.isUseLockFreeMessageQueue()) {
+            this.messageQueue = new SpscMessageQueue(configuredPrefetch);
         } else {
             this.messageQueue = new FifoMessageQueue(configuredPrefetch);
         }
@@ -257,6 +265,68 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         return messageBody;
     }
 
+    /**
+     * Receives up to the given number of messages in a single call, waiting for the first
+     * message to arrive in the same manner as {@link #receive(long)} and then returning it
+     * along with any further messages that are already prefetched, up to the given maximum.
+     * The prefetched messages are removed from the local queue in a single operation and
+     * the whole batch is acknowledged with one request to the provider.
+     *
+     * @param maxMessages
+     *      The maximum number of messages to return, must be greater than zero.
+     * @param timeout
+     *      The time to wait for the first message, zero means wait indefinitely.
+     *
+     * @return a List of received messages which is empty if the timeout elapses or the
+     *         consumer is closed concurrently.
+     *
+     * @throws JMSException if an error occurs while receiving the messages.
+     */
+    public List<Message> receiveBatch(int maxMessages, long timeout) throws JMSException {
+        checkClosed();
+        checkMessageListener();
+
+        if (maxMessages <= 0) {
+            throw new IllegalArgumentException("Maximum batch size must be greater than zero");
+        }
+
+        // Configure for infinite wait when timeout is zero (JMS Spec)
+        if (timeout == 0) {
+            timeout = -1;
+        }
+
+        JmsInboundMessageDispatch envelope = dequeue(timeout, connection.isReceiveLocalOnly());
+        if (envelope == null) {
+            return Collections.emptyList();
+        }
+
+        List<JmsInboundMessageDispatch> envelopes = new ArrayList<JmsInboundMessageDispatch>(maxMessages);
+        envelopes.add(envelope);
+
+        if (maxMessages > 1) {
+            for (JmsInboundMessageDispatch prefetched : messageQueue.dequeueNoWait(maxMessages - 1)) {
+                if (consumeExpiredMessage(prefetched)) {
+                    LOG.trace("{} filtered expired message: {}", getConsumerId(), prefetched);
+                    doAckExpired(prefetched);
+                } else if (session.redeliveryExceeded(prefetched)) {
+                    LOG.debug("{} filtered message with excessive redelivery count: {}", getConsumerId(), prefetched);
+                    applyRedeliveryPolicyOutcome(prefetched);
+                } else {
+                    envelopes.add(prefetched);
+                }
+            }
+        }
+
+        ackFromReceive(envelopes);
+
+        List<Message> messages = new ArrayList<Message>(envelopes.size());
+        for (JmsInboundMessageDispatch received : envelopes) {
+            messages.add(copy(received));
+        }
+
+        return messages;
+    }
+
     /**
      * Used to get an enqueued message from the unconsumedMessages list. The
      * amount of time this method blocks is based on the timeout value.
@@ -404,6 +474,28 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         return envelope;
     }
 
+    private void ackFromReceive(final List<JmsInboundMessageDispatch> envelopes) throws JMSException {
+        if (envelopes.size() == 1) {
+            ackFromReceive(envelopes.get(0));
+            return;
+        }
+
+        // All messages in the batch share the consumer's acknowledgement mode.
+        final ACK_TYPE ackType;
+        if (envelopes.get(0).getMessage().getAcknowledgeCallback() != null) {
+            ackType = ACK_TYPE.DELIVERED;
+        } else {
+            ackType = ACK_TYPE.ACCEPTED;
+        }
+
+        try {
+            session.acknowledge(envelopes, ackType);
+        } catch (JMSException ex) {
+            session.onException(ex);
+            throw ex;
+        }
+    }
+
     private JmsInboundMessageDispatch doAckConsumed(final JmsInboundMessageDispatch envelope) throws JMSException {
         try {
             session.acknowledge(envelope, ACK_TYPE.ACCEPTED);
@@ -656,6 +748,14 @@ public class JmsMessageConsumer implements AutoCloseable, MessageConsumer, JmsMe
         }
     }
 
+    protected void onConnectionRecovery(Provider provider, Map<JmsResource, ProviderFuture> requests) throws Exception {
+        if (consumerInfo.isOpen()) {
+            ProviderFuture request = new ProviderFuture();
+            provider.create(consumerInfo, request);
+            requests.put(consumerInfo, request);
+        }
+    }
+
     protected void onConnectionRecovered(Provider provider) throws Exception {
         if (consumerInfo.isOpen()) {
             ProviderFuture request = new ProviderFuture();
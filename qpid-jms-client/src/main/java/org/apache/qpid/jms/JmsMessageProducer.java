@@ -16,6 +16,9 @@
  */
 package org.apache.qpid.jms;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -31,8 +34,10 @@ import javax.jms.MessageProducer;
 
 import org.apache.qpid.jms.exceptions.JmsConnectionFailedException;
 import org.apache.qpid.jms.message.JmsMessageIDBuilder;
+import org.apache.qpid.jms.message.JmsMessageTransformation;
 import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsProducerInfo;
+import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsResource.ResourceState;
 import org.apache.qpid.jms.provider.Provider;
 import org.apache.qpid.jms.provider.ProviderFuture;
@@ -236,6 +241,33 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
         sendMessage(destination, message, deliveryMode, priority, timeToLive, listener);
     }
 
+    /**
+     * Opens the underlying links of an anonymous producer to the given destinations ahead
+     * of the first send to each of them.  This only has an effect when the connection is
+     * emulating anonymous producers with a cache of per destination links, otherwise the
+     * call returns without doing anything.
+     *
+     * @param destinations
+     *        the destinations that this producer is expected to send to.
+     *
+     * @throws JMSException if the producer is closed or the links could not be opened.
+     */
+    public void warmUp(Destination... destinations) throws JMSException {
+        checkClosed();
+
+        if (!anonymousProducer) {
+            throw new UnsupportedOperationException("Using this method is not supported on producers created with an explicit Destination.");
+        }
+
+        List<JmsDestination> targets = new ArrayList<>(destinations.length);
+        for (Destination destination : destinations) {
+            checkDestinationNotInvalid(destination);
+            targets.add(JmsMessageTransformation.transformDestination(connection, destination));
+        }
+
+        connection.warmUp(getProducerId(), targets);
+    }
+
     private void checkDestinationNotInvalid(Destination destination) throws InvalidDestinationException {
         if (destination == null) {
             throw new InvalidDestinationException("Destination must not be null");
@@ -362,6 +394,14 @@ public class JmsMessageProducer implements AutoCloseable, MessageProducer {
         }
     }
 
+    protected void onConnectionRecovery(Provider provider, Map<JmsResource, ProviderFuture> requests) throws Exception {
+        if (producerInfo.isOpen()) {
+            ProviderFuture request = new ProviderFuture();
+            provider.create(producerInfo, request);
+            requests.put(producerInfo, request);
+        }
+    }
+
     protected void onConnectionRecovered(Provider provider) throws Exception {
     }
 
@@ -16,6 +16,8 @@
  */
 package org.apache.qpid.jms;
 
+import java.util.List;
+
 import javax.jms.JMSException;
 
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
@@ -41,6 +43,11 @@ public class JmsNoTxTransactionContext implements JmsTransactionContext {
         connection.acknowledge(envelope, ackType);
     }
 
+    @Override
+    public void acknowledge(JmsConnection connection, List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType) throws JMSException {
+        connection.acknowledge(envelopes, ackType);
+    }
+
     @Override
     public boolean isInDoubt() {
         return false;
@@ -19,13 +19,14 @@ package org.apache.qpid.jms;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Deque;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
@@ -81,6 +82,7 @@ import org.apache.qpid.jms.meta.JmsConsumerId;
 import org.apache.qpid.jms.meta.JmsConsumerInfo;
 import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsProducerInfo;
+import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsResource.ResourceState;
 import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsSessionInfo;
@@ -116,7 +118,7 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
     private final Map<JmsConsumerId, JmsMessageConsumer> consumers = new ConcurrentHashMap<JmsConsumerId, JmsMessageConsumer>();
     private MessageListener messageListener;
 
-    private final java.util.Queue<Consumer<JmsSession>> sessionQueue = new ArrayDeque<>();
+    private final java.util.Queue<Consumer<JmsSession>> sessionQueue = new ConcurrentLinkedQueue<>();
 
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicBoolean started = new AtomicBoolean();
@@ -871,7 +873,7 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
 
             JmsOutboundMessageDispatch envelope = new JmsOutboundMessageDispatch();
             envelope.setMessage(outbound);
-            envelope.setPayload(outbound.getFacade().encodeMessage());
+            envelope.setPayload(outbound.getFacade().encodeMessage(producer.getProducerId()));
             envelope.setProducerId(producer.getProducerId());
             envelope.setDestination(destination);
             envelope.setSendAsync(listener == null ? !sync : true);
@@ -885,7 +887,13 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
             }
 
             if (envelope.isSendAsync() && !envelope.isCompletionRequired() && !envelope.isPresettle()) {
-                envelope.setMessage(outbound.copy());
+                if (connection.isCopyMessageOnAsyncSend()) {
+                    envelope.setMessage(outbound.copy());
+                } else {
+                    // The encoded payload is all that is needed to send the message or
+                    // to resend it after failover so no copy of the message is kept.
+                    envelope.detachMessage();
+                }
                 outbound.onSendComplete();
             }
 
@@ -909,6 +917,8 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
                 }
 
                 throw jmsEx;
+            } finally {
+                envelope.releasePayload();
             }
         } finally {
             sendLock.unlock();
@@ -939,6 +949,10 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         return envelope;
     }
 
+    void acknowledge(List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType) throws JMSException {
+        transactionContext.acknowledge(connection, envelopes, ackType);
+    }
+
     /**
      * Acknowledge all previously delivered messages in this Session as consumed.  This
      * method is usually only called when the Session is in the CLIENT_ACKNOWLEDGE mode.
@@ -1354,6 +1368,31 @@ public class JmsSession implements AutoCloseable, Session, QueueSession, TopicSe
         }
     }
 
+    /**
+     * Recovers the producers and consumers of this session without waiting on the outcome
+     * of each request, the Session itself must already have been recovered.
+     *
+     * @param provider
+     *      the provider that is being used to recover the session resources.
+     * @param requests
+     *      map that holds the pending requests of each resource being recovered.
+     *
+     * @throws Exception if an error occurs while issuing the requests.
+     */
+    protected void onConnectionRecovery(Provider provider, Map<JmsResource, ProviderFuture> requests) throws Exception {
+        if (sessionInfo.isOpen()) {
+            transactionContext.onConnectionRecovery(provider);
+
+            for (JmsMessageProducer producer : producers.values()) {
+                producer.onConnectionRecovery(provider, requests);
+            }
+
+            for (JmsMessageConsumer consumer : consumers.values()) {
+                consumer.onConnectionRecovery(provider, requests);
+            }
+        }
+    }
+
     protected void onConnectionRecovered(Provider provider) throws Exception {
         for (JmsMessageProducer producer : producers.values()) {
             producer.onConnectionRecovered(provider);
@@ -16,6 +16,8 @@
  */
 package org.apache.qpid.jms;
 
+import java.util.List;
+
 import javax.jms.JMSException;
 
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
@@ -46,6 +48,21 @@ public interface JmsTransactionContext {
      */
     void acknowledge(JmsConnection connection, JmsInboundMessageDispatch envelope, ACK_TYPE ackType) throws JMSException;
 
+    /**
+     * Allows the context to intercept the acknowledgement of a batch of messages and perform
+     * any additional logic prior to the acknowledge being forwarded onto the connection.
+     *
+     * @param connection
+     *        the connection that the acknowledge will be forwarded to.
+     * @param envelopes
+     *        the envelopes that contain the messages to be acknowledged.
+     * @param ackType
+     *        the acknowledgement type being requested.
+     *
+     * @throws JMSException if an error occurs while performing the acknowledge.
+     */
+    void acknowledge(JmsConnection connection, List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType) throws JMSException;
+
     /**
      * Allows the context to intercept and perform any additional logic
      * prior to a message being sent on to the connection and subsequently
@@ -16,9 +16,13 @@
  */
 package org.apache.qpid.jms.message;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.meta.JmsProducerId;
 
+import io.netty.util.ReferenceCountUtil;
+
 /**
  * Envelope that wraps the objects involved in a Message send operation.
  */
@@ -32,6 +36,9 @@ public class JmsOutboundMessageDispatch {
     private boolean completionRequired;
     private long dispatchId;
     private Object payload;
+    private final AtomicInteger payloadReferences = new AtomicInteger(1);
+    private Object messageId;
+    private boolean deliveryTimeTransmitted;
 
     private transient String stringView;
 
@@ -44,9 +51,24 @@ public class JmsOutboundMessageDispatch {
     }
 
     public Object getMessageId() {
-        return message.getFacade().getProviderMessageIdObject();
+        if (message != null) {
+            return message.getFacade().getProviderMessageIdObject();
+        } else {
+            return messageId;
+        }
+    }
+
+    public boolean isDeliveryTimeTransmitted() {
+        if (message != null) {
+            return message.getFacade().isDeliveryTimeTransmitted();
+        } else {
+            return deliveryTimeTransmitted;
+        }
     }
 
+    /**
+     * @return the message being sent, or null if it was detached from this envelope.
+     */
     public JmsMessage getMessage() {
         return message;
     }
@@ -55,6 +77,19 @@ public class JmsOutboundMessageDispatch {
         this.message = message;
     }
 
+    /**
+     * Drops the reference to the message being sent once the encoded payload is all that is
+     * needed to complete the send, keeping the values that are still read from the message
+     * while the send completes.
+     */
+    public void detachMessage() {
+        if (message != null) {
+            messageId = message.getFacade().getProviderMessageIdObject();
+            deliveryTimeTransmitted = message.getFacade().isDeliveryTimeTransmitted();
+            message = null;
+        }
+    }
+
     public Object getPayload() {
         return payload;
     }
@@ -63,6 +98,37 @@ public class JmsOutboundMessageDispatch {
         this.payload = payload;
     }
 
+    /**
+     * Takes a reference to the payload on behalf of a provider that needs it after the send
+     * call returns.  The references are counted by the envelope and the payload itself is only
+     * released once, when the last of them is released, so a reference can never be taken on
+     * a payload that has already been returned to a pool and handed out again.
+     *
+     * @return true if a reference was taken, false if the payload was already released.
+     */
+    public boolean retainPayload() {
+        int references;
+        do {
+            references = payloadReferences.get();
+            if (references <= 0) {
+                return false;
+            }
+        } while (!payloadReferences.compareAndSet(references, references + 1));
+
+        return true;
+    }
+
+    /**
+     * Releases a reference to the payload, the sender holds one from the time the envelope
+     * is created until the send call returns and each successful {@link #retainPayload()}
+     * must be matched by a call to this method.
+     */
+    public void releasePayload() {
+        if (payloadReferences.decrementAndGet() == 0) {
+            ReferenceCountUtil.release(payload);
+        }
+    }
+
     public JmsProducerId getProducerId() {
         return producerId;
     }
@@ -114,7 +180,7 @@ public class JmsOutboundMessageDispatch {
             value.append(getDispatchId());
             value.append(", MessageID = ");
             try {
-                value.append(message.getJMSMessageID());
+                value.append(message != null ? message.getJMSMessageID() : messageId);
             } catch (Throwable e) {
                 value.append("<unknown>");
             }
@@ -21,6 +21,7 @@ import java.util.Set;
 import javax.jms.JMSException;
 
 import org.apache.qpid.jms.JmsDestination;
+import org.apache.qpid.jms.meta.JmsProducerId;
 
 /**
  * The Message Facade interface defines the required mapping between a Provider's
@@ -459,6 +460,17 @@ public interface JmsMessageFacade {
      */
     Object encodeMessage();
 
+    /**
+     * Encodes the protocol level Message instance for transmission by the given producer,
+     * allowing the provider to apply any encoding state it keeps for that producer.
+     *
+     * @param producerId
+     *      the id of the producer that is sending the message.
+     *
+     * @return an Object that represents the encoded form of the message for the target provider.
+     */
+    Object encodeMessage(JmsProducerId producerId);
+
     /**
      * Returns whether the delivery time is being transmitted, i.e. incorporates an actual delivery delay.
      *
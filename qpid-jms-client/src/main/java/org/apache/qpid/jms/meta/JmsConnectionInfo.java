@@ -31,6 +31,7 @@ import org.apache.qpid.jms.policy.JmsMessageIDPolicy;
 import org.apache.qpid.jms.policy.JmsPrefetchPolicy;
 import org.apache.qpid.jms.policy.JmsPresettlePolicy;
 import org.apache.qpid.jms.policy.JmsRedeliveryPolicy;
+import org.apache.qpid.jms.provider.ProviderFutureFactory;
 
 /**
  * Meta object that contains the JmsConnection identification and configuration
@@ -43,6 +44,7 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     public static final long DEFAULT_CLOSE_TIMEOUT = 60000;
     public static final long DEFAULT_SEND_TIMEOUT = INFINITE;
     public static final long DEFAULT_REQUEST_TIMEOUT = INFINITE;
+    public static final int DEFAULT_CONNECTION_CONSUMER_DISPATCH_THREADS = 1;
 
     private final JmsConnectionId connectionId;
 
@@ -59,6 +61,11 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     private boolean receiveLocalOnly;
     private boolean receiveNoWaitLocalOnly;
     private boolean localMessagePriority;
+    private boolean useLockFreeMessageQueue;
+    private boolean pipelinedRecovery;
+    private boolean connectionConsumerBatching;
+    private int connectionConsumerDispatchThreads = DEFAULT_CONNECTION_CONSUMER_DISPATCH_THREADS;
+    private boolean copyMessageOnAsyncSend = true;
     private boolean localMessageExpiry;
     private boolean populateJMSXUserID;
     private boolean useDaemonThread;
@@ -75,6 +82,7 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
     private JmsPresettlePolicy presettlePolicy;
     private JmsMessageIDPolicy messageIDPolicy;
     private JmsDeserializationPolicy deserializationPolicy;
+    private ProviderFutureFactory providerFutureFactory;
 
     private volatile byte[] encodedUserId;
     private SSLContext sslContextOverride;
@@ -109,11 +117,17 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         copy.connectTimeout = connectTimeout;
         copy.validatePropertyNames = validatePropertyNames;
         copy.useDaemonThread = useDaemonThread;
+        copy.useLockFreeMessageQueue = useLockFreeMessageQueue;
+        copy.pipelinedRecovery = pipelinedRecovery;
+        copy.connectionConsumerBatching = connectionConsumerBatching;
+        copy.connectionConsumerDispatchThreads = connectionConsumerDispatchThreads;
+        copy.copyMessageOnAsyncSend = copyMessageOnAsyncSend;
         copy.messageIDPolicy = getMessageIDPolicy().copy();
         copy.prefetchPolicy = getPrefetchPolicy().copy();
         copy.redeliveryPolicy = getRedeliveryPolicy().copy();
         copy.presettlePolicy = getPresettlePolicy().copy();
         copy.deserializationPolicy = getDeserializationPolicy().copy();
+        copy.providerFutureFactory = getProviderFutureFactory().copy();
     }
 
     public boolean isForceAsyncSend() {
@@ -246,6 +260,46 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         this.localMessagePriority = localMessagePriority;
     }
 
+    public boolean isUseLockFreeMessageQueue() {
+        return useLockFreeMessageQueue;
+    }
+
+    public void setUseLockFreeMessageQueue(boolean useLockFreeMessageQueue) {
+        this.useLockFreeMessageQueue = useLockFreeMessageQueue;
+    }
+
+    public boolean isPipelinedRecovery() {
+        return pipelinedRecovery;
+    }
+
+    public void setPipelinedRecovery(boolean pipelinedRecovery) {
+        this.pipelinedRecovery = pipelinedRecovery;
+    }
+
+    public boolean isConnectionConsumerBatching() {
+        return connectionConsumerBatching;
+    }
+
+    public void setConnectionConsumerBatching(boolean connectionConsumerBatching) {
+        this.connectionConsumerBatching = connectionConsumerBatching;
+    }
+
+    public int getConnectionConsumerDispatchThreads() {
+        return connectionConsumerDispatchThreads;
+    }
+
+    public void setConnectionConsumerDispatchThreads(int connectionConsumerDispatchThreads) {
+        this.connectionConsumerDispatchThreads = connectionConsumerDispatchThreads;
+    }
+
+    public boolean isCopyMessageOnAsyncSend() {
+        return copyMessageOnAsyncSend;
+    }
+
+    public void setCopyMessageOnAsyncSend(boolean copyMessageOnAsyncSend) {
+        this.copyMessageOnAsyncSend = copyMessageOnAsyncSend;
+    }
+
     public boolean isForceAsyncAcks() {
         return forceAsyncAcks;
     }
@@ -363,6 +417,17 @@ public final class JmsConnectionInfo extends JmsAbstractResource implements Comp
         this.deserializationPolicy = deserializationPolicy;
     }
 
+    public ProviderFutureFactory getProviderFutureFactory() {
+        if (providerFutureFactory == null) {
+            providerFutureFactory = new ProviderFutureFactory();
+        }
+        return providerFutureFactory;
+    }
+
+    public void setProviderFutureFactory(ProviderFutureFactory providerFutureFactory) {
+        this.providerFutureFactory = providerFutureFactory;
+    }
+
     public boolean isUseDaemonThread() {
         return useDaemonThread;
     }
@@ -0,0 +1,62 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provider Future that spins and then yields for a bounded number of checks before
+ * falling back to parking the waiting thread until the operation completes.
+ */
+public class BalancedProviderFuture extends ProviderFuture {
+
+    private static final int SPIN_COUNT = 100;
+    private static final int YIELD_COUNT = 100;
+
+    public BalancedProviderFuture() {
+        this(null);
+    }
+
+    public BalancedProviderFuture(ProviderSynchronization synchronization) {
+        super(synchronization);
+    }
+
+    @Override
+    public boolean sync(long amount, TimeUnit unit) throws IOException {
+        long deadline = System.nanoTime() + unit.toNanos(amount);
+
+        spinThenYield();
+
+        return super.sync(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void sync() throws IOException {
+        spinThenYield();
+
+        super.sync();
+    }
+
+    private void spinThenYield() {
+        for (int i = 0; i < SPIN_COUNT + YIELD_COUNT && !isComplete(); ++i) {
+            if (i >= SPIN_COUNT) {
+                Thread.yield();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.jms.util.IOExceptionSupport;
+
+/**
+ * Provider Future that busy spins the waiting thread for a bounded time, trading the
+ * CPU time of the waiting thread for the lowest wake up latency, before falling back
+ * to parking the thread until the operation completes.
+ */
+public class BusySpinProviderFuture extends ProviderFuture {
+
+    private static final long SPIN_TIMEOUT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    public BusySpinProviderFuture() {
+        this(null);
+    }
+
+    public BusySpinProviderFuture(ProviderSynchronization synchronization) {
+        super(synchronization);
+    }
+
+    @Override
+    public boolean sync(long amount, TimeUnit unit) throws IOException {
+        long deadline = System.nanoTime() + unit.toNanos(amount);
+
+        spin(Math.min(unit.toNanos(amount), SPIN_TIMEOUT_NANOS));
+
+        return super.sync(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void sync() throws IOException {
+        spin(SPIN_TIMEOUT_NANOS);
+
+        super.sync();
+    }
+
+    private void spin(long timeout) throws IOException {
+        long deadline = System.nanoTime() + timeout;
+
+        while (!isComplete() && System.nanoTime() - deadline < 0) {
+            if (Thread.interrupted()) {
+                throw IOExceptionSupport.create(new InterruptedException());
+            }
+        }
+    }
+}
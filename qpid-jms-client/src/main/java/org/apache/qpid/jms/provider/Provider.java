@@ -22,11 +22,13 @@ import java.util.List;
 
 import javax.jms.JMSException;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessageFactory;
 import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
 import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsTransactionInfo;
@@ -236,6 +238,26 @@ public interface Provider {
     void acknowledge(JmsInboundMessageDispatch envelope, ACK_TYPE ackType, AsyncResult request)
         throws IOException, JMSException;
 
+    /**
+     * Called to acknowledge a batch of JmsMessages that were dispatched to the same consumer,
+     * the acknowledgement of each message follows the same rules as for a single message.
+     *
+     * The provider should perform the acknowledgements as a single unit of work such that the
+     * resulting protocol level updates can be written together.
+     *
+     * @param envelopes
+     *        The message dispatch envelopes containing the Message delivery information.
+     * @param ackType
+     *        The type of acknowledgement being done.
+     * @param request
+     *        The request object that should be signaled when this operation completes.
+     *
+     * @throws IOException if an error occurs or the Provider is already closed.
+     * @throws JMSException if an error occurs due to JMS violation such as unmatched ack.
+     */
+    void acknowledge(List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType, AsyncResult request)
+        throws IOException, JMSException;
+
     /**
      * Called to commit an open transaction, and start a new one if a new transaction info
      * object is provided.
@@ -330,6 +352,23 @@ public interface Provider {
      */
     void pull(JmsConsumerId consumerId, long timeout, AsyncResult request) throws IOException;
 
+    /**
+     * Prepares an anonymous producer for sends to the given set of destinations, allowing
+     * a Provider that emulates anonymous producers using per destination links to open
+     * those links before they are first used.  Providers without such work to do should
+     * complete the request immediately.
+     *
+     * @param producerId
+     *        the ID of the anonymous producer that will be sending to the destinations.
+     * @param destinations
+     *        the destinations that messages are expected to be sent to.
+     * @param request
+     *        The request object that should be signaled when this operation completes.
+     *
+     * @throws IOException if an error occurs or the Provider is already closed.
+     */
+    void warmUp(JmsProducerId producerId, List<JmsDestination> destinations, AsyncResult request) throws IOException;
+
     /**
      * Gets the Provider specific Message factory for use in the JMS layer when a Session
      * is asked to create a Message type.  The Provider should implement it's own internal
@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+/**
+ * Factory for the ProviderFuture instances that a connection uses to wait on the
+ * completion of its synchronous operations.
+ *
+ * The wait strategy controls how the calling thread waits:
+ * <ul>
+ *  <li>blocking: parks the thread until the operation completes (default)</li>
+ *  <li>balanced: spins, then yields, then parks the thread</li>
+ *  <li>busy-spin: spins the thread for a bounded time, then parks the thread</li>
+ * </ul>
+ */
+public class ProviderFutureFactory {
+
+    public static final String BLOCKING = "blocking";
+    public static final String BALANCED = "balanced";
+    public static final String BUSY_SPIN = "busy-spin";
+
+    private String waitStrategy = BLOCKING;
+
+    public ProviderFutureFactory() {
+    }
+
+    public ProviderFutureFactory(ProviderFutureFactory source) {
+        this.waitStrategy = source.waitStrategy;
+    }
+
+    public ProviderFutureFactory copy() {
+        return new ProviderFutureFactory(this);
+    }
+
+    /**
+     * Creates a new ProviderFuture using the configured wait strategy.
+     *
+     * @return a new ProviderFuture instance.
+     */
+    public ProviderFuture createFuture() {
+        return createFuture(null);
+    }
+
+    /**
+     * Creates a new ProviderFuture using the configured wait strategy.
+     *
+     * @param synchronization
+     *        the synchronization to notify on completion, or null if none.
+     *
+     * @return a new ProviderFuture instance.
+     */
+    public ProviderFuture createFuture(ProviderSynchronization synchronization) {
+        switch (waitStrategy) {
+            case BALANCED:
+                return new BalancedProviderFuture(synchronization);
+            case BUSY_SPIN:
+                return new BusySpinProviderFuture(synchronization);
+            default:
+                return new ProviderFuture(synchronization);
+        }
+    }
+
+    /**
+     * @return the name of the configured wait strategy.
+     */
+    public String getWaitStrategy() {
+        return waitStrategy;
+    }
+
+    /**
+     * Sets the strategy used to wait on synchronous operations, one of
+     * {@value #BLOCKING}, {@value #BALANCED} or {@value #BUSY_SPIN}.
+     *
+     * @param waitStrategy
+     *        the name of the wait strategy to use.
+     */
+    public void setWaitStrategy(String waitStrategy) {
+        if (!BLOCKING.equals(waitStrategy) && !BALANCED.equals(waitStrategy) && !BUSY_SPIN.equals(waitStrategy)) {
+            throw new IllegalArgumentException("Unknown wait strategy: " + waitStrategy);
+        }
+
+        this.waitStrategy = waitStrategy;
+    }
+}
@@ -22,11 +22,13 @@ import java.util.List;
 
 import javax.jms.JMSException;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessageFactory;
 import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
 import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsTransactionInfo;
@@ -115,6 +117,11 @@ public class ProviderWrapper<E extends Provider> implements Provider, ProviderLi
         next.acknowledge(envelope, ackType, request);
     }
 
+    @Override
+    public void acknowledge(List<JmsInboundMessageDispatch> envelopes, ACK_TYPE ackType, AsyncResult request) throws IOException, JMSException {
+        next.acknowledge(envelopes, ackType, request);
+    }
+
     @Override
     public void commit(JmsTransactionInfo transactionInfo, JmsTransactionInfo nextTransactionInfo, AsyncResult request) throws IOException, JMSException, UnsupportedOperationException {
         next.commit(transactionInfo, nextTransactionInfo, request);
@@ -140,6 +147,11 @@ public class ProviderWrapper<E extends Provider> implements Provider, ProviderLi
         next.pull(consumerId, timeout, request);
     }
 
+    @Override
+    public void warmUp(JmsProducerId producerId, List<JmsDestination> destinations, AsyncResult request) throws IOException {
+        next.warmUp(producerId, destinations, request);
+    }
+
     @Override
     public JmsMessageFactory getMessageFactory() {
         return next.getMessageFactory();
@@ -17,6 +17,10 @@
 package org.apache.qpid.jms.provider.amqp;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import javax.jms.JMSException;
@@ -28,6 +32,7 @@ import org.apache.qpid.jms.meta.JmsProducerInfo;
 import org.apache.qpid.jms.provider.AsyncResult;
 import org.apache.qpid.jms.provider.WrappedAsyncResult;
 import org.apache.qpid.jms.provider.amqp.builders.AmqpProducerBuilder;
+import org.apache.qpid.jms.util.FrequencySketch;
 import org.apache.qpid.jms.util.IdGenerator;
 import org.apache.qpid.jms.util.LRUCache;
 import org.apache.qpid.proton.engine.EndpointState;
@@ -38,7 +43,10 @@ import org.slf4j.LoggerFactory;
  * Handles the case of anonymous JMS MessageProducers.
  *
  * In order to simulate the anonymous producer we must create a sender for each message
- * send attempt and close it following a successful send.
+ * send attempt and close it following a successful send.  When the producer cache is
+ * enabled the senders of frequently used destinations are kept open instead, sends to a
+ * cached sender are dispatched as for any fixed producer and sends that arrive while its
+ * link is still being attached are held and sent in order once the attach completes.
  */
 public class AmqpAnonymousFallbackProducer extends AmqpProducer {
 
@@ -46,6 +54,7 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
     private static final IdGenerator producerIdGenerator = new IdGenerator();
 
     private final AnonymousProducerCache producerCache;
+    private final Map<JmsDestination, AnonymousOpenRequest> opening = new HashMap<>();
     private final String producerIdKey = producerIdGenerator.generateId();
     private long producerIdCount;
 
@@ -61,8 +70,7 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
         super(session, info);
 
         if (connection.isAnonymousProducerCache()) {
-            producerCache = new AnonymousProducerCache(10);
-            producerCache.setMaxCacheSize(connection.getAnonymousProducerCacheSize());
+            producerCache = new AnonymousProducerCache(connection.getAnonymousProducerCacheSize());
         } else {
             producerCache = null;
         }
@@ -72,39 +80,83 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
     public void send(JmsOutboundMessageDispatch envelope, AsyncResult request) throws IOException, JMSException {
         LOG.trace("Started send chain for anonymous producer: {}", getProducerId());
 
+        JmsDestination destination = envelope.getDestination();
+
+        if (producerCache != null) {
+            producerCache.recordAccess(destination);
+
+            AmqpProducer producer = lookupCachedProducer(destination);
+            if (producer != null) {
+                AnonymousOpenRequest pending = opening.get(destination);
+                if (pending != null) {
+                    pending.hold(envelope, request);
+                } else {
+                    producer.send(envelope, request);
+                }
+                return;
+            }
+
+            // Destinations seen less often than the one that would be evicted are sent
+            // using a short lived producer so that they don't displace busier ones.
+            if (producerCache.admit(destination)) {
+                AnonymousOpenRequest open = openCachedProducer(destination, null);
+                open.hold(envelope, request);
+                getParent().getProvider().pumpToProtonTransport(request);
+                return;
+            }
+        }
+
         // Force sends marked as asynchronous to be sent synchronous so that the temporary
         // producer instance can handle failures and perform necessary completion work on
         // the send.
         envelope.setSendAsync(false);
 
-        AmqpProducer producer = null;
-        if (connection.isAnonymousProducerCache()) {
-            producer = producerCache.get(envelope.getDestination());
-        }
-
-        if (producer == null) {
-            // Create a new ProducerInfo for the short lived producer that's created to perform the
-            // send to the given AMQP target.
-            JmsProducerInfo info = new JmsProducerInfo(getNextProducerId());
-            info.setDestination(envelope.getDestination());
-            info.setPresettle(this.getResourceInfo().isPresettle());
-
-            // We open a Fixed Producer instance with the target destination.  Once it opens
-            // it will trigger the open event which will in turn trigger the send event.
-            // If caching is disabled the created producer will be closed immediately after
-            // the entire send chain has finished and the delivery has been acknowledged.
-            AmqpProducerBuilder builder = new AmqpProducerBuilder(session, info);
-            builder.buildResource(new AnonymousSendRequest(request, builder, envelope));
-
-            if (connection.isAnonymousProducerCache()) {
-                // Cache it in hopes of not needing to create large numbers of producers.
-                producerCache.put(envelope.getDestination(), builder.getResource());
-            }
+        // Create a new ProducerInfo for the short lived producer that's created to perform the
+        // send to the given AMQP target.
+        JmsProducerInfo info = createProducerInfo(destination);
 
-            getParent().getProvider().pumpToProtonTransport(request);
-        } else {
-            producer.send(envelope, request);
+        // We open a Fixed Producer instance with the target destination.  Once it opens
+        // it will trigger the open event which will in turn trigger the send event.
+        // The created producer will be closed immediately after the entire send chain
+        // has finished and the delivery has been acknowledged.
+        AmqpProducerBuilder builder = new AmqpProducerBuilder(session, info);
+        builder.buildResource(new AnonymousSendRequest(request, builder, envelope));
+
+        getParent().getProvider().pumpToProtonTransport(request);
+    }
+
+    /**
+     * Opens cached senders for the given destinations ahead of any sends to them.  The
+     * destinations are admitted to the cache regardless of how often they have been used
+     * and the request completes once every sender has been attached.
+     *
+     * @param destinations
+     *        the destinations that messages are expected to be sent to.
+     * @param request
+     *        the request that is signaled once all the senders are open.
+     */
+    @Override
+    public void warmUp(Collection<JmsDestination> destinations, AsyncResult request) {
+        if (producerCache == null || destinations.isEmpty()) {
+            request.onSuccess();
+            return;
         }
+
+        WarmUpRequest warmUp = new WarmUpRequest(request, destinations.size());
+        for (JmsDestination destination : destinations) {
+            producerCache.recordAccess(destination);
+
+            AnonymousOpenRequest pending = opening.get(destination);
+            if (pending != null) {
+                pending.notifyOnOpen(warmUp);
+            } else if (lookupCachedProducer(destination) != null) {
+                warmUp.onSuccess();
+            } else {
+                openCachedProducer(destination, warmUp);
+            }
+        }
+
+        getParent().getProvider().pumpToProtonTransport(request);
     }
 
     @Override
@@ -139,6 +191,38 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
         return new JmsProducerId(producerIdKey, -1, producerIdCount++);
     }
 
+    private JmsProducerInfo createProducerInfo(JmsDestination destination) {
+        JmsProducerInfo info = new JmsProducerInfo(getNextProducerId());
+        info.setDestination(destination);
+        info.setPresettle(this.getResourceInfo().isPresettle());
+        return info;
+    }
+
+    private AmqpProducer lookupCachedProducer(JmsDestination destination) {
+        AmqpProducer producer = producerCache.get(destination);
+        if (producer != null && (producer.isClosed() || producer.getRemoteState() == EndpointState.CLOSED)) {
+            LOG.trace("Producer: {} in producer cache was closed, it will be replaced", producer);
+            producerCache.remove(destination);
+            producer = null;
+        }
+
+        return producer;
+    }
+
+    private AnonymousOpenRequest openCachedProducer(JmsDestination destination, AsyncResult onOpen) {
+        AmqpProducerBuilder builder = new AmqpProducerBuilder(session, createProducerInfo(destination));
+        AnonymousOpenRequest open = new AnonymousOpenRequest(destination, builder);
+        if (onOpen != null) {
+            open.notifyOnOpen(onOpen);
+        }
+
+        opening.put(destination, open);
+        builder.buildResource(open);
+        producerCache.put(destination, builder.getResource());
+
+        return open;
+    }
+
     //----- AsyncResult objects used to complete the sends -------------------//
 
     private abstract class AnonymousRequest extends WrappedAsyncResult {
@@ -203,22 +287,16 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
         @Override
         public void onFailure(Throwable result) {
             LOG.trace("Send phase of anonymous send failed: {} ", getProducerId());
-            if (!connection.isAnonymousProducerCache()) {
-                AnonymousCloseRequest close = new AnonymousCloseRequest(this);
-                producer.close(close);
-            }
+            AnonymousCloseRequest close = new AnonymousCloseRequest(this);
+            producer.close(close);
             super.onFailure(result);
         }
 
         @Override
         public void onSuccess() {
             LOG.trace("Send phase of anonymous send complete: {} ", getProducerId());
-            if (!connection.isAnonymousProducerCache()) {
-                AnonymousCloseRequest close = new AnonymousCloseRequest(this);
-                producer.close(close);
-            } else {
-                super.onSuccess();
-            }
+            AnonymousCloseRequest close = new AnonymousCloseRequest(this);
+            producer.close(close);
         }
 
         @Override
@@ -273,18 +351,165 @@ public class AmqpAnonymousFallbackProducer extends AmqpProducer {
         }
     }
 
+    private final class AnonymousOpenRequest implements AsyncResult {
+
+        private final JmsDestination destination;
+        private final AmqpProducerBuilder builder;
+        private final List<JmsOutboundMessageDispatch> heldEnvelopes = new ArrayList<>();
+        private final List<AsyncResult> heldRequests = new ArrayList<>();
+        private final List<AsyncResult> openWatchers = new ArrayList<>();
+        private boolean complete;
+        private boolean evicted;
+
+        public AnonymousOpenRequest(JmsDestination destination, AmqpProducerBuilder builder) {
+            this.destination = destination;
+            this.builder = builder;
+        }
+
+        public void hold(JmsOutboundMessageDispatch envelope, AsyncResult request) {
+            LOG.trace("Holding send to {} until the cached producer is opened", destination);
+            heldEnvelopes.add(envelope);
+            heldRequests.add(request);
+        }
+
+        public void notifyOnOpen(AsyncResult watcher) {
+            openWatchers.add(watcher);
+        }
+
+        public AmqpProducer getProducer() {
+            return builder.getResource();
+        }
+
+        public void evicted() {
+            evicted = true;
+        }
+
+        @Override
+        public void onSuccess() {
+            LOG.trace("Open of cached anonymous producer for {} complete: {}", destination, getProducerId());
+            complete = true;
+            opening.remove(destination, this);
+
+            AmqpProducer producer = getProducer();
+            for (int i = 0; i < heldEnvelopes.size(); ++i) {
+                AsyncResult request = heldRequests.get(i);
+                try {
+                    producer.send(heldEnvelopes.get(i), request);
+                } catch (Exception e) {
+                    request.onFailure(e);
+                }
+            }
+
+            for (AsyncResult watcher : openWatchers) {
+                watcher.onSuccess();
+            }
+
+            // Evicted while the attach was in flight, any held sends will complete first.
+            if (evicted) {
+                producer.close(new CloseRequest(producer));
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable result) {
+            LOG.debug("Open of cached anonymous producer for {} failed: {}", destination, getProducerId());
+            complete = true;
+            opening.remove(destination, this);
+
+            if (producerCache.get(destination) == getProducer()) {
+                producerCache.remove(destination);
+            }
+
+            for (AsyncResult request : heldRequests) {
+                request.onFailure(result);
+            }
+
+            for (AsyncResult watcher : openWatchers) {
+                watcher.onFailure(result);
+            }
+        }
+
+        @Override
+        public boolean isComplete() {
+            return complete;
+        }
+    }
+
+    private final class WarmUpRequest extends WrappedAsyncResult {
+
+        private int remaining;
+        private Throwable failure;
+
+        public WarmUpRequest(AsyncResult request, int expected) {
+            super(request);
+            this.remaining = expected;
+        }
+
+        @Override
+        public void onSuccess() {
+            signal();
+        }
+
+        @Override
+        public void onFailure(Throwable result) {
+            if (failure == null) {
+                failure = result;
+            }
+            signal();
+        }
+
+        private void signal() {
+            if (--remaining == 0) {
+                if (failure != null) {
+                    super.onFailure(failure);
+                } else {
+                    super.onSuccess();
+                }
+            }
+        }
+    }
+
     private final class AnonymousProducerCache extends LRUCache<JmsDestination, AmqpProducer> {
 
         private static final long serialVersionUID = 1L;
 
+        private final transient FrequencySketch sketch;
+
         public AnonymousProducerCache(int cacheSize) {
             super(cacheSize);
+            this.sketch = new FrequencySketch(cacheSize);
+        }
+
+        public void recordAccess(JmsDestination destination) {
+            sketch.increment(destination);
+        }
+
+        /**
+         * Decides if a producer for the given destination should be cached, which is always
+         * the case while there is space and otherwise only when the destination has been
+         * used more often than the least recently used destination it would evict.
+         */
+        public boolean admit(JmsDestination destination) {
+            if (size() < getMaxCacheSize()) {
+                return true;
+            } else if (isEmpty()) {
+                return false;
+            }
+
+            JmsDestination victim = keySet().iterator().next();
+            return sketch.frequency(destination) > sketch.frequency(victim);
         }
 
         @Override
         protected void onCacheEviction(Map.Entry<JmsDestination, AmqpProducer> cached) {
             LOG.trace("Producer: {} evicted from producer cache", cached.getValue());
-            cached.getValue().close(new CloseRequest(cached.getValue()));
+
+            AnonymousOpenRequest pending = opening.get(cached.getKey());
+            if (pending != null && pending.getProducer() == cached.getValue()) {
+                pending.evicted();
+            } else {
+                cached.getValue().close(new CloseRequest(cached.getValue()));
+            }
         }
     }
 }
@@ -55,8 +55,8 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
     private AmqpConnectionSession connectionSession;
 
     private boolean objectMessageUsesAmqpTypes = false;
-    private boolean anonymousProducerCache = false;
-    private int anonymousProducerCacheSize = 10;
+    private boolean anonymousProducerCache;
+    private int anonymousProducerCacheSize;
 
     public AmqpConnection(AmqpProvider provider, JmsConnectionInfo info, Connection protonConnection) {
         super(info, protonConnection, provider);
@@ -64,6 +64,8 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
         this.provider = provider;
         this.remoteURI = provider.getRemoteURI();
         this.amqpMessageFactory = new AmqpJmsMessageFactory(this);
+        this.anonymousProducerCache = provider.isAnonymousFallbackCache();
+        this.anonymousProducerCacheSize = provider.getAnonymousFallbackCacheSize();
 
         // Create connection properties initialized with defaults from the JmsConnectionInfo
         this.properties = new AmqpConnectionProperties(info, provider);
@@ -136,6 +138,22 @@ public class AmqpConnection extends AmqpAbstractResource<JmsConnectionInfo, Conn
         }
     }
 
+    /**
+     * Releases the encoded messages held by sends that were still in flight when the
+     * provider was closed.
+     */
+    public void releaseHeldPayloads() {
+        for (AmqpSession session : sessions.values()) {
+            session.releaseHeldPayloads();
+        }
+    }
+
+    public void updateCreditWindows() {
+        for (AmqpSession session : sessions.values()) {
+            session.updateCreditWindows();
+        }
+    }
+
     public URI getRemoteURI() {
         return remoteURI;
     }
@@ -42,6 +42,7 @@ import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.messaging.Accepted;
 import org.apache.qpid.proton.amqp.messaging.Released;
 import org.apache.qpid.proton.amqp.transport.DeliveryState;
+import org.apache.qpid.proton.codec.ReadableBuffer;
 import org.apache.qpid.proton.engine.Delivery;
 import org.apache.qpid.proton.engine.Receiver;
 import org.slf4j.Logger;
@@ -61,10 +62,21 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     protected long deliveredCount;
     protected boolean deferredClose;
 
+    private final AmqpCreditWindow creditWindow;
+    private long prefetchedBytes;
+    private long averageMessageSize;
+
     public AmqpConsumer(AmqpSession session, JmsConsumerInfo info, Receiver receiver) {
         super(info, receiver, session);
 
         this.session = session;
+
+        AmqpProvider provider = session.getProvider();
+        if (provider.isAdaptivePrefetch()) {
+            this.creditWindow = new AmqpCreditWindow(provider.getAdaptivePrefetchMinimum());
+        } else {
+            this.creditWindow = null;
+        }
     }
 
     @Override
@@ -263,12 +275,20 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             deliveredCount++;
             envelope.setDelivered(true);
             delivery.setDefaultDeliveryState(MODIFIED_FAILED);
+            releasePrefetchedBytes(envelope);
+            if (creditWindow != null) {
+                creditWindow.onConsumed(System.nanoTime());
+            }
             sendFlowIfNeeded();
             return;
         } else if (ackType.equals(ACK_TYPE.ACCEPTED)) {
             // A Consumer may not always send a DELIVERED ack so we need to
             // check to ensure we don't add too much credit to the link.
             if (!envelope.isDelivered()) {
+                releasePrefetchedBytes(envelope);
+                if (creditWindow != null) {
+                    creditWindow.onConsumed(System.nanoTime());
+                }
                 sendFlowIfNeeded();
             }
             LOG.debug("Accepted Ack of message: {}", envelope);
@@ -309,6 +329,8 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
 
         if (envelope.isDelivered()) {
             deliveredCount--;
+        } else if (!ackType.equals(ACK_TYPE.ACCEPTED)) {
+            releasePrefetchedBytes(envelope);
         }
 
         tryCompleteDeferredClose();
@@ -317,7 +339,10 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     /**
      * We only send more credits as the credit window dwindles to a certain point and
      * then we open the window back up to full prefetch size.  If this is a pull consumer
-     * or we are stopping then we never send credit here.
+     * or we are stopping then we never send credit here.  When adaptive prefetch is in
+     * use the window is sized from the consumption rate and round trip time and only
+     * capped by the prefetch size, credit granted well beyond a window that has since
+     * shrunk is revoked rather than left for the remote to fill.
      */
     private void sendFlowIfNeeded() {
         int prefetchSize = getResourceInfo().getPrefetchSize();
@@ -329,7 +354,23 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             return;
         }
 
+        long now = 0;
         int currentCredit = getEndpoint().getCredit();
+        if (creditWindow != null) {
+            now = System.nanoTime();
+            prefetchSize = creditWindow.getWindow(prefetchSize, now);
+
+            int excessCredit = creditWindow.getExcessCredit(currentCredit, prefetchSize);
+            if (excessCredit > 0 && !getEndpoint().getDrain()) {
+                // Flowing negative credit sends the lowered link credit to the remote,
+                // deliveries already in flight can still arrive and leave it below zero
+                // which a later top up accounts for.
+                LOG.trace("Consumer {} revoking excess credit: {}", getConsumerId(), excessCredit);
+                getEndpoint().flow(-excessCredit);
+                return;
+            }
+        }
+
         if (currentCredit <= prefetchSize * 0.5) {
             int prefetchedMessageCount = getResourceInfo().getPrefetchedMessageCount();
 
@@ -337,12 +378,96 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             if (potentialPrefetch <= prefetchSize * 0.7) {
                 int additionalCredit = prefetchSize - currentCredit - prefetchedMessageCount;
 
+                if (session.getProvider().isPrefetchBudgeted()) {
+                    additionalCredit = limitCreditToPrefetchBudget(currentCredit, additionalCredit);
+                    if (additionalCredit <= 0) {
+                        return;
+                    }
+                }
+
+                if (creditWindow != null) {
+                    creditWindow.onCreditGranted(now, potentialPrefetch == 0);
+                }
+
                 LOG.trace("Consumer {} granting additional credit: {}", getConsumerId(), additionalCredit);
                 getEndpoint().flow(additionalCredit);
             }
         }
     }
 
+    /**
+     * Called when prefetch memory budget has been released elsewhere on the connection so
+     * that a consumer which withheld credit can grant it again.
+     */
+    void grantCreditIfNeeded() {
+        if (!isClosed()) {
+            sendFlowIfNeeded();
+        }
+    }
+
+    /**
+     * Called periodically when adaptive prefetch is in use, the window of a consumer is
+     * otherwise only re-evaluated as it consumes so a stalled consumer would keep its credit.
+     */
+    void updateCreditWindow() {
+        if (creditWindow != null && !isClosed()) {
+            sendFlowIfNeeded();
+        }
+    }
+
+    /*
+     * Reduces the credit to be granted so that the messages it could bring in, based on the
+     * average size of those received so far, fit within the remaining prefetch budgets of
+     * this consumer and of the connection.  Until a message has been received the size is
+     * unknown so a single credit is granted to sample it.  A consumer with nothing buffered
+     * is always allowed one message unless the connection budget is used up, in which case
+     * it waits for other consumers to release some of it.
+     */
+    private int limitCreditToPrefetchBudget(int currentCredit, int additionalCredit) {
+        AmqpProvider provider = session.getProvider();
+
+        if (averageMessageSize == 0) {
+            return currentCredit == 0 ? 1 : 0;
+        }
+
+        long available = Long.MAX_VALUE;
+        if (provider.getMaxPrefetchBytes() > 0) {
+            available = provider.getMaxPrefetchBytes() - prefetchedBytes;
+        }
+        if (provider.getMaxConnectionPrefetchBytes() > 0) {
+            available = Math.min(available, provider.getMaxConnectionPrefetchBytes() - provider.getPrefetchedBytes());
+        }
+        available -= currentCredit * averageMessageSize;
+
+        int credit = (int) Math.min(additionalCredit, Math.max(0, available / averageMessageSize));
+        if (credit == 0 && currentCredit == 0) {
+            if (provider.isConnectionPrefetchBudgetExhausted()) {
+                LOG.trace("Consumer {} withholding credit until connection prefetch budget is released", getConsumerId());
+                provider.awaitPrefetchBudget(this);
+            } else if (prefetchedBytes == 0) {
+                credit = 1;
+            }
+        }
+
+        return credit;
+    }
+
+    private void addPrefetchedBytes(JmsInboundMessageDispatch envelope) {
+        int messageSize = envelope.getMessageSize();
+        if (messageSize > 0) {
+            prefetchedBytes += messageSize;
+            session.getProvider().updatePrefetchedBytes(messageSize);
+        }
+    }
+
+    private void releasePrefetchedBytes(JmsInboundMessageDispatch envelope) {
+        int messageSize = envelope.getMessageSize();
+        if (messageSize > 0) {
+            prefetchedBytes -= messageSize;
+            session.getProvider().updatePrefetchedBytes(-messageSize);
+        }
+    }
+
     private void sendFlowForNoPrefetchListener() {
         int currentCredit = getEndpoint().getCredit();
         if (currentCredit < 1) {
@@ -378,6 +503,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
                     envelope.getMessage().getFacade().getRedeliveryCount() + 1);
                 envelope.setEnqueueFirst(true);
                 envelope.setDelivered(false);
+                addPrefetchedBytes(envelope);
 
                 redispatchList.add(envelope);
             }
@@ -477,9 +603,25 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
     private boolean processDelivery(Delivery incoming) throws Exception {
         incoming.setDefaultDeliveryState(Released.getInstance());
 
+        if (creditWindow != null) {
+            creditWindow.onDelivery(System.nanoTime());
+        }
+
         JmsMessage message = null;
+        int messageSize = 0;
         try {
-            message = AmqpCodec.decodeMessage(this, getEndpoint().recv()).asJmsMessage();
+            ReadableBuffer payload = getEndpoint().recv();
+            if (session.getProvider().isPrefetchBudgeted()) {
+                messageSize = payload.remaining();
+                if (averageMessageSize == 0) {
+                    averageMessageSize = messageSize;
+                } else {
+                    averageMessageSize += (messageSize - averageMessageSize) / 8;
+                }
+                averageMessageSize = Math.max(1, averageMessageSize);
+            }
+
+            message = AmqpCodec.decodeMessage(this, payload, session.getProvider().isLazyDecode()).asJmsMessage();
         } catch (Exception e) {
             LOG.warn("Error on transform: {}", e.getMessage());
             // TODO - We could signal provider error but not sure we want to fail
@@ -503,10 +645,13 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             // Store link to delivery in the hint for use in acknowledge requests.
             envelope.setProviderHint(incoming);
             envelope.setMessageId(message.getFacade().getProviderMessageIdObject());
+            envelope.setMessageSize(messageSize);
 
             // Store reference to envelope in delivery context for recovery
             incoming.setContext(envelope);
 
+            addPrefetchedBytes(envelope);
+
             deliver(envelope);
 
             return true;
@@ -600,6 +745,13 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
 
         subTracker.consumerRemoved(consumerInfo);
 
+        // Any messages still buffered no longer count against the connection budget.
+        if (prefetchedBytes != 0) {
+            provider.updatePrefetchedBytes(-prefetchedBytes);
+            prefetchedBytes = 0;
+        }
+        provider.cancelAwaitPrefetchBudget(this);
+
         // When closed we need to release any pending tasks to avoid blocking
 
         if (stopRequest != null) {
@@ -655,6 +807,7 @@ public class AmqpConsumer extends AmqpAbstractResource<JmsConsumerInfo, Receiver
             if (!envelope.isDelivered()) {
                 current.disposition(Released.getInstance());
                 current.settle();
+                releasePrefetchedBytes(envelope);
             }
         }
     }
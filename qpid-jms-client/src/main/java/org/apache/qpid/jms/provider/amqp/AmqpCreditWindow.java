@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp;
+
+/**
+ * Sizes the credit window of a consumer from the rate at which it consumes messages and
+ * the round trip time needed for newly granted credit to produce a delivery.
+ *
+ * The window is sized to hold the messages the consumer would consume during two round
+ * trips, so that a fast consumer is given a deep pipeline while a slow or stalled one
+ * only holds a few messages that other consumers of the same queue could otherwise be
+ * processing.  The round trip time is the smallest delay seen between credit granted to
+ * a starved link and the delivery that followed, since longer delays mostly reflect time
+ * spent waiting for messages to arrive at the remote.
+ *
+ * All methods are expected to be called from the provider thread.
+ */
+class AmqpCreditWindow {
+
+    private static final double SMOOTHING = 0.2;
+    private static final int ROUND_TRIPS_BUFFERED = 2;
+    private static final int EXCESS_CREDIT_FACTOR = 2;
+
+    private final int minimum;
+
+    private double consumeInterval = -1;
+    private long roundTripTime = -1;
+    private long lastConsumed;
+    private long creditRequested;
+
+    /**
+     * @param minimum
+     *      the floor for the window size, the consumer's prefetch is always the ceiling.
+     */
+    public AmqpCreditWindow(int minimum) {
+        this.minimum = Math.max(1, minimum);
+    }
+
+    /**
+     * Records that a message was consumed by the application.
+     *
+     * @param now
+     *      the current value of {@link System#nanoTime()}.
+     */
+    public void onConsumed(long now) {
+        if (lastConsumed != 0) {
+            long interval = Math.max(1, now - lastConsumed);
+            if (consumeInterval < 0) {
+                consumeInterval = interval;
+            } else {
+                consumeInterval += SMOOTHING * (interval - consumeInterval);
+            }
+        }
+
+        lastConsumed = now;
+    }
+
+    /**
+     * Records that credit was granted to the link.
+     *
+     * @param now
+     *      the current value of {@link System#nanoTime()}.
+     * @param starved
+     *      true if the link had no credit and no prefetched messages when granted credit.
+     */
+    public void onCreditGranted(long now, boolean starved) {
+        if (starved && creditRequested == 0) {
+            creditRequested = now;
+        }
+    }
+
+    /**
+     * Records that a delivery arrived on the link.
+     *
+     * @param now
+     *      the current value of {@link System#nanoTime()}.
+     */
+    public void onDelivery(long now) {
+        if (creditRequested != 0) {
+            long sample = Math.max(1, now - creditRequested);
+            if (roundTripTime < 0 || sample < roundTripTime) {
+                roundTripTime = sample;
+            }
+
+            creditRequested = 0;
+        }
+    }
+
+    /**
+     * Computes the current credit window for the consumer.
+     *
+     * @param maximum
+     *      the configured prefetch of the consumer which caps the window.
+     * @param now
+     *      the current value of {@link System#nanoTime()}.
+     *
+     * @return the number of messages that may be outstanding on the link.
+     */
+    public int getWindow(int maximum, long now) {
+        if (maximum <= minimum) {
+            return maximum;
+        }
+
+        if (consumeInterval < 0 || roundTripTime < 0) {
+            return minimum;
+        }
+
+        // A consumer that has not consumed for longer than its average interval is
+        // treated as consuming at that slower rate so that stalled consumers shrink.
+        double interval = Math.max(consumeInterval, now - lastConsumed);
+        double window = Math.ceil(ROUND_TRIPS_BUFFERED * roundTripTime / interval);
+
+        return (int) Math.max(minimum, Math.min(maximum, window));
+    }
+
+    /**
+     * Computes how much of the credit already granted to the link should be revoked once
+     * the window has shrunk well below it, topping up less only helps after the credit
+     * that is already outstanding has been used.  Once the window is at its minimum, as
+     * it is for a stalled consumer, all credit beyond it is revoked.
+     *
+     * @param credit
+     *      the credit currently granted to the link.
+     * @param window
+     *      the current credit window, as returned from {@link #getWindow(int, long)}.
+     *
+     * @return the amount of credit to revoke, or zero if the outstanding credit is kept.
+     */
+    public int getExcessCredit(int credit, int window) {
+        if (credit > window * EXCESS_CREDIT_FACTOR || (window <= minimum && credit > window)) {
+            return credit - window;
+        }
+
+        return 0;
+    }
+}
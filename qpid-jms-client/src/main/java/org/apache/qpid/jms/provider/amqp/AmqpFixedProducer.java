@@ -17,8 +17,10 @@
 package org.apache.qpid.jms.provider.amqp;
 
 import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Deque;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -63,6 +65,7 @@ public class AmqpFixedProducer extends AmqpProducer {
     private final AmqpTransferTagGenerator tagGenerator = new AmqpTransferTagGenerator(true);
     private final Map<Object, InFlightSend> sent = new LinkedHashMap<Object, InFlightSend>();
     private final Map<Object, InFlightSend> blocked = new LinkedHashMap<Object, InFlightSend>();
+    private final Deque<InFlightSend> pendingReleases = new ArrayDeque<InFlightSend>();
 
     private AsyncResult sendCompletionWatcher;
 
@@ -90,9 +93,10 @@ public class AmqpFixedProducer extends AmqpProducer {
     public void send(JmsOutboundMessageDispatch envelope, AsyncResult request) throws IOException, JMSException {
         if (isClosed()) {
             request.onFailure(new IllegalStateException("The MessageProducer is closed"));
+            return;
         }
 
-        if (!delayedDeliverySupported && envelope.getMessage().getFacade().isDeliveryTimeTransmitted()) {
+        if (!delayedDeliverySupported && envelope.isDeliveryTimeTransmitted()) {
             // Don't allow sends with delay if the remote has not said it can handle them
             request.onFailure(new JMSException("Remote does not support delayed message delivery"));
         } else if (getEndpoint().getCredit() <= 0) {
@@ -119,9 +123,23 @@ public class AmqpFixedProducer extends AmqpProducer {
             return;
         }
 
+        releaseWrittenPayloads();
+
         LOG.trace("Producer sending message: {}", envelope);
 
         boolean presettle = envelope.isPresettle() || isPresettle();
+
+        InFlightSend send = null;
+        if (request instanceof InFlightSend) {
+            send = (InFlightSend) request;
+        } else {
+            send = new InFlightSend(envelope, request);
+
+            if (!presettle && getSendTimeout() != JmsConnectionInfo.INFINITE) {
+                send.requestTimeout = getParent().getProvider().scheduleRequestTimeout(send, getSendTimeout(), send);
+            }
+        }
+
         Delivery delivery = null;
 
         if (presettle) {
@@ -143,17 +161,6 @@ public class AmqpFixedProducer extends AmqpProducer {
 
         AmqpProvider provider = getParent().getProvider();
 
-        InFlightSend send = null;
-        if (request instanceof InFlightSend) {
-            send = (InFlightSend) request;
-        } else {
-            send = new InFlightSend(envelope, request);
-
-            if (!presettle && getSendTimeout() != JmsConnectionInfo.INFINITE) {
-                send.requestTimeout = getParent().getProvider().scheduleRequestTimeout(send, getSendTimeout(), send);
-            }
-        }
-
         if (presettle) {
             delivery.settle();
         } else {
@@ -182,6 +189,8 @@ public class AmqpFixedProducer extends AmqpProducer {
 
     @Override
     public void processFlowUpdates(AmqpProvider provider) throws IOException {
+        releaseWrittenPayloads();
+
         if (!blocked.isEmpty() && getEndpoint().getCredit() > 0) {
             Iterator<InFlightSend> blockedSends = blocked.values().iterator();
             while (getEndpoint().getCredit() > 0 && blockedSends.hasNext()) {
@@ -306,6 +315,54 @@ public class AmqpFixedProducer extends AmqpProducer {
                 LOG.debug("Caught exception when failing blocked send during remote producer closure: {}", send, e);
             }
         }
+
+        // The link is gone so proton will not write any more of the pending deliveries.
+        while (!pendingReleases.isEmpty()) {
+            releaseEncodedPayload(pendingReleases.poll().getEnvelope());
+        }
+    }
+
+    @Override
+    public void releaseHeldPayloads() {
+        for (InFlightSend send : sent.values()) {
+            send.discardPayload();
+        }
+
+        for (InFlightSend send : blocked.values()) {
+            send.discardPayload();
+        }
+
+        while (!pendingReleases.isEmpty()) {
+            releaseEncodedPayload(pendingReleases.poll().getEnvelope());
+        }
+    }
+
+    //----- Encoded payload management ---------------------------------------//
+
+    /*
+     * Each InFlightSend holds its own reference to the encoded message from the time it is
+     * created until the send completes, the sender holds one until its send call returns so
+     * the payload is returned to the pool once the last of them has finished with it.
+     */
+    private static void retainEncodedPayload(JmsOutboundMessageDispatch envelope) throws JMSException {
+        if (!envelope.retainPayload()) {
+            throw new JMSException("Send was abandoned before the message could be written");
+        }
+    }
+
+    private static void releaseEncodedPayload(JmsOutboundMessageDispatch envelope) {
+        envelope.releasePayload();
+    }
+
+    private void releaseWrittenPayloads() {
+        Iterator<InFlightSend> sends = pendingReleases.iterator();
+        while (sends.hasNext()) {
+            InFlightSend send = sends.next();
+            if (send.getDelivery().pending() == 0) {
+                sends.remove();
+                releaseEncodedPayload(send.getEnvelope());
+            }
+        }
     }
 
     //----- Class used to manage held sends ----------------------------------//
@@ -317,8 +374,11 @@ public class AmqpFixedProducer extends AmqpProducer {
 
         private Delivery delivery;
         private ScheduledFuture<?> requestTimeout;
+        private boolean payloadReleased;
+
+        public InFlightSend(JmsOutboundMessageDispatch envelope, AsyncResult request) throws JMSException {
+            retainEncodedPayload(envelope);
 
-        public InFlightSend(JmsOutboundMessageDispatch envelope, AsyncResult request) {
             this.envelope = envelope;
             this.request = request;
         }
@@ -326,6 +386,7 @@ public class AmqpFixedProducer extends AmqpProducer {
         @Override
         public void onFailure(Throwable cause) {
             handleSendCompletion(false);
+            releasePayload();
 
             if (request.isComplete()) {
                 // Asynchronous sends can still be awaiting a completion in which case we
@@ -343,6 +404,7 @@ public class AmqpFixedProducer extends AmqpProducer {
         @Override
         public void onSuccess() {
             handleSendCompletion(true);
+            releasePayload();
 
             if (!request.isComplete()) {
                 request.onSuccess();
@@ -382,6 +444,29 @@ public class AmqpFixedProducer extends AmqpProducer {
             return request.isComplete();
         }
 
+        private void releasePayload() {
+            if (payloadReleased) {
+                return;
+            }
+
+            payloadReleased = true;
+
+            // Proton reads the payload as it writes transfer frames, if the delivery
+            // has not been fully written yet the release waits until it has been.
+            if (delivery != null && delivery.pending() > 0) {
+                pendingReleases.add(this);
+            } else {
+                releaseEncodedPayload(envelope);
+            }
+        }
+
+        private void discardPayload() {
+            if (!payloadReleased) {
+                payloadReleased = true;
+                releaseEncodedPayload(envelope);
+            }
+        }
+
         private void handleSendCompletion(boolean successful) {
             setRequestTimeout(null);
 
@@ -394,7 +479,9 @@ public class AmqpFixedProducer extends AmqpProducer {
             }
 
             // Put the message back to usable state following send complete
-            envelope.getMessage().onSendComplete();
+            if (envelope.getMessage() != null) {
+                envelope.getMessage().onSendComplete();
+            }
 
             // Signal the watcher that all pending sends have completed if one is registered
             // and both the in-flight sends and blocked sends have completed.
@@ -17,15 +17,24 @@
 package org.apache.qpid.jms.provider.amqp;
 
 import java.io.IOException;
+import java.util.Collection;
 
 import javax.jms.JMSException;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
 import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsProducerInfo;
 import org.apache.qpid.jms.provider.AsyncResult;
+import org.apache.qpid.jms.provider.amqp.message.AmqpCodec;
+import org.apache.qpid.jms.provider.amqp.message.AmqpEncodeSizeEstimate;
+import org.apache.qpid.jms.provider.amqp.message.AmqpJmsMessageFacade;
 import org.apache.qpid.proton.engine.Sender;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+
 /**
  * Base class for Producer instances.
  */
@@ -33,6 +42,7 @@ public abstract class AmqpProducer extends AmqpAbstractResource<JmsProducerInfo,
 
     protected final AmqpSession session;
     protected final AmqpConnection connection;
+    protected final AmqpEncodeSizeEstimate encodeSizeEstimate = new AmqpEncodeSizeEstimate();
     protected boolean presettle;
     protected boolean delayedDeliverySupported;
 
@@ -60,6 +70,45 @@ public abstract class AmqpProducer extends AmqpAbstractResource<JmsProducerInfo,
      */
     public abstract void send(JmsOutboundMessageDispatch envelope, AsyncResult request) throws IOException, JMSException;
 
+    /**
+     * Encodes a message that is about to be sent by this producer, the buffer is sized
+     * from the messages this producer encoded recently and is taken from the pooled
+     * allocator if the provider is configured to pool encode buffers.  This method is
+     * called from the thread that sends the message rather than the provider thread.
+     *
+     * @param message
+     *        The message that is to be encoded.
+     *
+     * @return a buffer containing the encoded form of the message.
+     */
+    public ByteBuf encodeMessage(AmqpJmsMessageFacade message) {
+        if (connection.getProvider().isPooledEncodeBuffers()) {
+            return AmqpCodec.encodeMessage(message, PooledByteBufAllocator.DEFAULT, encodeSizeEstimate);
+        } else {
+            return AmqpCodec.encodeMessage(message, UnpooledByteBufAllocator.DEFAULT, encodeSizeEstimate);
+        }
+    }
+
+    /**
+     * Prepares the producer for sends to the given destinations, only anonymous producers
+     * have any work to do here so by default the request is completed immediately.
+     *
+     * @param destinations
+     *        the destinations that messages are expected to be sent to.
+     * @param request
+     *        The AsyncRequest that will be notified once the producer is prepared.
+     */
+    public void warmUp(Collection<JmsDestination> destinations, AsyncResult request) {
+        request.onSuccess();
+    }
+
+    /**
+     * Releases the encoded messages of any sends this producer still holds without completing
+     * them, called once the provider is closed and the sends can no longer be written.
+     */
+    public void releaseHeldPayloads() {
+    }
+
     /**
      * @return true if this is an anonymous producer or false if fixed to a given destination.
      */
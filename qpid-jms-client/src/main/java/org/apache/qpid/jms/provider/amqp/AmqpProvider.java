@@ -22,10 +22,14 @@ import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -35,8 +39,10 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.JMSException;
 import javax.jms.JMSSecurityRuntimeException;
+import javax.jms.Session;
 import javax.net.ssl.SSLContext;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.JmsTemporaryDestination;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessageFactory;
@@ -111,6 +117,13 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     // NOTE: Limit default channel max to signed short range to deal with
     //       brokers that don't currently handle the unsigned range well.
     private static final int DEFAULT_CHANNEL_MAX = 32767;
+    private static final int DEFAULT_COALESCE_WRITES_MAX_BYTES = 64 * 1024;
+    private static final int DEFAULT_COALESCE_ACKS_MAX_COUNT = 100;
+    private static final int DEFAULT_COALESCE_ACKS_MAX_DELAY = 10;
+    private static final int DEFAULT_SEND_BATCH_MAX_BYTES = 64 * 1024;
+    private static final int DEFAULT_ADAPTIVE_PREFETCH_MINIMUM = 10;
+    private static final int ADAPTIVE_PREFETCH_CHECK_INTERVAL = 100;
+    private static final int DEFAULT_ANONYMOUS_FALLBACK_CACHE_SIZE = 10;
     private static final AtomicInteger PROVIDER_SEQUENCE = new AtomicInteger();
     private static final NoOpAsyncResult NOOP_REQUEST = new NoOpAsyncResult();
 
@@ -131,6 +144,23 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
 
     private boolean allowNonSecureRedirects;
+    private boolean coalesceWrites;
+    private int coalesceWritesMaxBytes = DEFAULT_COALESCE_WRITES_MAX_BYTES;
+    private boolean coalesceAcks;
+    private int coalesceAcksMaxCount = DEFAULT_COALESCE_ACKS_MAX_COUNT;
+    private int coalesceAcksMaxDelay = DEFAULT_COALESCE_ACKS_MAX_DELAY;
+    private int sendBatchLinger;
+    private boolean lazyDecode;
+    private int sendBatchMaxBytes = DEFAULT_SEND_BATCH_MAX_BYTES;
+    private boolean adaptivePrefetch;
+    private int adaptivePrefetchMinimum = DEFAULT_ADAPTIVE_PREFETCH_MINIMUM;
+    private long maxPrefetchBytes;
+    private long maxConnectionPrefetchBytes;
+    private boolean anonymousFallbackCache;
+    private int anonymousFallbackCacheSize = DEFAULT_ANONYMOUS_FALLBACK_CACHE_SIZE;
+    private boolean pooledEncodeBuffers;
+    private long prefetchedBytes;
+    private final Set<AmqpConsumer> consumersAwaitingPrefetchBudget = new LinkedHashSet<>();
 
     private final URI remoteURI;
     private final AtomicBoolean closed = new AtomicBoolean();
@@ -142,6 +172,24 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
 
     private AsyncResult connectionRequest;
     private ScheduledFuture<?> nextIdleTimeoutCheck;
+    private ScheduledFuture<?> creditWindowCheck;
+
+    private final FlushTask flushTask = new FlushTask();
+    private int unflushedBytes;
+    private boolean flushScheduled;
+
+    private final Queue<JmsInboundMessageDispatch> pendingAcks = new ConcurrentLinkedQueue<JmsInboundMessageDispatch>();
+    private final AtomicInteger pendingAckCount = new AtomicInteger();
+    private final AtomicBoolean ackFlushRequested = new AtomicBoolean();
+    private final AckFlushTask ackFlushTask = new AckFlushTask();
+
+    private final Queue<BatchedSend> pendingSends = new ConcurrentLinkedQueue<BatchedSend>();
+    private final AtomicInteger pendingSendBytes = new AtomicInteger();
+    private final AtomicBoolean sendFlushRequested = new AtomicBoolean();
+    private final AtomicBoolean sendLingerScheduled = new AtomicBoolean();
+    private final SendFlushTask sendFlushTask = new SendFlushTask(sendFlushRequested);
+    private final SendFlushTask sendLingerTask = new SendFlushTask(sendLingerScheduled);
+    private boolean sendBatchInProgress;
 
     /**
      * Create a new instance of an AmqpProvider bonded to the given remote URI.
@@ -302,6 +350,8 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         }
 
                         if (connection != null) {
+                            processPendingAcks();
+                            processPendingSends();
                             connection.close(request);
                         } else {
                             // If the SASL authentication occurred but failed then we don't
@@ -327,11 +377,18 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                     } catch (Exception e) {
                         LOG.debug("Caught exception while closing proton connection: {}", e.getMessage());
                     } finally {
+                        failPendingSends(new ProviderClosedException("This Provider is already closed"));
+
                         if (nextIdleTimeoutCheck != null) {
                             LOG.trace("Cancelling scheduled IdleTimeoutCheck");
                             nextIdleTimeoutCheck.cancel(false);
                             nextIdleTimeoutCheck = null;
                         }
+
+                        if (creditWindowCheck != null) {
+                            creditWindowCheck.cancel(false);
+                            creditWindowCheck = null;
+                        }
                     }
                 }
             });
@@ -354,6 +411,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         }
                     }
                 } finally {
+                    releaseHeldPayloads();
                     ThreadPoolUtils.shutdownGraceful(serializer);
                 }
             }
@@ -484,6 +542,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
 
                         @Override
                         public void processConsumerInfo(JmsConsumerInfo consumerInfo) throws Exception {
+                            processPendingAcks();
                             AmqpSession session = connection.getSession(consumerInfo.getParentId());
                             AmqpConsumer consumer = session.getConsumer(consumerInfo);
                             consumer.stop(request);
@@ -507,6 +566,8 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
+                    processPendingAcks();
+                    processPendingSends();
                     resource.visit(new JmsDefaultResourceVisitor() {
 
                         @Override
@@ -603,24 +664,20 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     @Override
     public void send(final JmsOutboundMessageDispatch envelope, final AsyncResult request) throws IOException {
         checkClosed();
+
+        if (sendBatchLinger > 0 && envelope.isSendAsync()) {
+            batchSend(envelope, request);
+            return;
+        }
+
         serializer.execute(new Runnable() {
 
             @Override
             public void run() {
                 try {
                     checkClosed();
-
-                    JmsProducerId producerId = envelope.getProducerId();
-                    AmqpProducer producer = null;
-
-                    if (producerId.getProviderHint() instanceof AmqpFixedProducer) {
-                        producer = (AmqpFixedProducer) producerId.getProviderHint();
-                    } else {
-                        AmqpSession session = connection.getSession(producerId.getParentId());
-                        producer = session.getProducer(producerId);
-                    }
-
-                    producer.send(envelope, request);
+                    processPendingSends();
+                    lookupProducer(envelope.getProducerId()).send(envelope, request);
                 } catch (Throwable t) {
                     request.onFailure(t);
                 }
@@ -637,6 +694,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
+                    processPendingAcks();
                     AmqpSession amqpSession = connection.getSession(sessionId);
                     amqpSession.acknowledge(ackType);
                     pumpToProtonTransport(request);
@@ -651,26 +709,60 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
     @Override
     public void acknowledge(final JmsInboundMessageDispatch envelope, final ACK_TYPE ackType, final AsyncResult request) throws IOException {
         checkClosed();
+
+        if (isCoalescedAck(envelope, ackType)) {
+            coalesceAck(envelope);
+            request.onSuccess();
+            return;
+        }
+
         serializer.execute(new Runnable() {
 
             @Override
             public void run() {
                 try {
                     checkClosed();
+                    processPendingAcks();
 
-                    JmsConsumerId consumerId = envelope.getConsumerId();
-                    AmqpConsumer consumer = null;
+                    AmqpConsumer consumer = lookupConsumer(envelope.getConsumerId());
+                    consumer.acknowledge(envelope, ackType);
 
-                    if (consumerId.getProviderHint() instanceof AmqpConsumer) {
-                        consumer = (AmqpConsumer) consumerId.getProviderHint();
+                    if (consumer.getSession().isAsyncAck()) {
+                        request.onSuccess();
+                        pumpToProtonTransport(request);
                     } else {
-                        AmqpSession session = connection.getSession(consumerId.getParentId());
-                        consumer = session.getConsumer(consumerId);
+                        pumpToProtonTransport(request);
+                        request.onSuccess();
                     }
+                } catch (Throwable t) {
+                    request.onFailure(t);
+                }
+            }
+        });
+    }
 
-                    consumer.acknowledge(envelope, ackType);
+    @Override
+    public void acknowledge(final List<JmsInboundMessageDispatch> envelopes, final ACK_TYPE ackType, final AsyncResult request) throws IOException {
+        checkClosed();
+        serializer.execute(new Runnable() {
 
-                    if (consumer.getSession().isAsyncAck()) {
+            @Override
+            public void run() {
+                try {
+                    checkClosed();
+                    processPendingAcks();
+
+                    AmqpConsumer consumer = null;
+                    for (JmsInboundMessageDispatch envelope : envelopes) {
+                        JmsConsumerId consumerId = envelope.getConsumerId();
+                        if (consumer == null || !consumer.getResourceInfo().getId().equals(consumerId)) {
+                            consumer = lookupConsumer(consumerId);
+                        }
+
+                        consumer.acknowledge(envelope, ackType);
+                    }
+
+                    if (consumer != null && consumer.getSession().isAsyncAck()) {
                         request.onSuccess();
                         pumpToProtonTransport(request);
                     } else {
@@ -693,6 +785,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
+                    processPendingSends();
                     AmqpSession session = connection.getSession(transactionInfo.getSessionId());
                     session.commit(transactionInfo, nextTransactionId, request);
                     pumpToProtonTransport(request);
@@ -712,6 +805,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
+                    processPendingSends();
                     AmqpSession session = connection.getSession(transactionInfo.getSessionId());
                     session.rollback(transactionInfo, nextTransactionId, request);
                     pumpToProtonTransport(request);
@@ -731,6 +825,7 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
+                    processPendingAcks();
                     AmqpSession session = connection.getSession(sessionId);
                     session.recover();
                     pumpToProtonTransport(request);
@@ -769,17 +864,34 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             public void run() {
                 try {
                     checkClosed();
-                    AmqpConsumer consumer = null;
+                    processPendingAcks();
+                    AmqpConsumer consumer = lookupConsumer(consumerId);
+                    consumer.pull(timeout, request);
+                    pumpToProtonTransport(request);
+                } catch (Throwable t) {
+                    request.onFailure(t);
+                }
+            }
+        });
+    }
 
-                    if (consumerId.getProviderHint() instanceof AmqpConsumer) {
-                        consumer = (AmqpConsumer) consumerId.getProviderHint();
-                    } else {
-                        AmqpSession session = connection.getSession(consumerId.getParentId());
-                        consumer = session.getConsumer(consumerId);
+    @Override
+    public void warmUp(final JmsProducerId producerId, final List<JmsDestination> destinations, final AsyncResult request) throws IOException {
+        checkClosed();
+        serializer.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    checkClosed();
+
+                    // The producer may have been closed since the warm up was requested
+                    AmqpProducer producer = lookupProducer(producerId);
+                    if (producer == null || producer.isAwaitingClose() || producer.getLocalState() == EndpointState.CLOSED) {
+                        throw new JMSException("Cannot warm up producer " + producerId + " as it is no longer open");
                     }
 
-                    consumer.pull(timeout, request);
-                    pumpToProtonTransport(request);
+                    producer.warmUp(destinations, request);
                 } catch (Throwable t) {
                     request.onFailure(t);
                 }
@@ -1032,12 +1144,27 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
                         TRACE_BYTES.info("Sending: {}", ByteBufUtil.hexDump(outbound));
                     }
 
-                    transport.send(outbound);
+                    unflushedBytes += outbound.readableBytes();
+                    transport.write(outbound);
                     protonTransport.outputConsumed();
                 } else {
                     done = true;
                 }
             }
+
+            // While a batch of sends is being written the flush waits until the batch is done.
+            boolean flushDeferred = sendBatchInProgress && unflushedBytes < sendBatchMaxBytes;
+
+            if (unflushedBytes > 0 && !flushDeferred) {
+                if (!coalesceWrites || unflushedBytes >= coalesceWritesMaxBytes || serializer.isShutdown()) {
+                    flushTransport();
+                } else if (!flushScheduled) {
+                    // Allow any work already queued on the serializer to add its output
+                    // before the single flush of everything written in the meantime.
+                    flushScheduled = true;
+                    serializer.execute(flushTask);
+                }
+            }
         } catch (IOException e) {
             fireProviderException(e);
             request.onFailure(e);
@@ -1047,6 +1174,169 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         return true;
     }
 
+    private void flushTransport() throws IOException {
+        unflushedBytes = 0;
+        transport.flush();
+    }
+
+    private AmqpProducer lookupProducer(JmsProducerId producerId) {
+        if (producerId.getProviderHint() instanceof AmqpFixedProducer) {
+            return (AmqpFixedProducer) producerId.getProviderHint();
+        } else {
+            AmqpSession session = connection.getSession(producerId.getParentId());
+            return session != null ? session.getProducer(producerId) : null;
+        }
+    }
+
+    private AmqpConsumer lookupConsumer(JmsConsumerId consumerId) {
+        if (consumerId.getProviderHint() instanceof AmqpConsumer) {
+            return (AmqpConsumer) consumerId.getProviderHint();
+        } else {
+            AmqpSession session = connection.getSession(consumerId.getParentId());
+            return session.getConsumer(consumerId);
+        }
+    }
+
+    /*
+     * Only consumed acks from auto and dups ok sessions are coalesced, these are not part
+     * of a transaction and the application never observes their completion.
+     */
+    private boolean isCoalescedAck(JmsInboundMessageDispatch envelope, ACK_TYPE ackType) {
+        if (!coalesceAcks || ackType != ACK_TYPE.ACCEPTED || envelope.getConsumerInfo() == null) {
+            return false;
+        }
+
+        int ackMode = envelope.getConsumerInfo().getAcknowledgementMode();
+        return ackMode == Session.AUTO_ACKNOWLEDGE || ackMode == Session.DUPS_OK_ACKNOWLEDGE;
+    }
+
+    private void coalesceAck(JmsInboundMessageDispatch envelope) {
+        pendingAcks.add(envelope);
+        int pending = pendingAckCount.incrementAndGet();
+
+        // Flush now if the batch is full or the consumer has nothing else prefetched, otherwise
+        // the first ack of a new batch arms a timer that bounds how long acks can be held.
+        if (pending >= coalesceAcksMaxCount || envelope.getConsumerInfo().getPrefetchedMessageCount() == 0) {
+            if (ackFlushRequested.compareAndSet(false, true)) {
+                serializer.execute(ackFlushTask);
+            }
+        } else if (pending == 1) {
+            serializer.schedule(ackFlushTask, coalesceAcksMaxDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /*
+     * Applies any coalesced acks, must be called from the serializer before any work that
+     * could otherwise be observed out of order with the pending acks.
+     */
+    private void processPendingAcks() {
+        JmsInboundMessageDispatch envelope = null;
+        while ((envelope = pendingAcks.poll()) != null) {
+            pendingAckCount.decrementAndGet();
+            try {
+                lookupConsumer(envelope.getConsumerId()).acknowledge(envelope, ACK_TYPE.ACCEPTED);
+            } catch (Throwable t) {
+                LOG.debug("Failed to apply coalesced acknowledge of message {}: {}", envelope, t.getMessage());
+            }
+        }
+    }
+
+    private void batchSend(JmsOutboundMessageDispatch envelope, AsyncResult request) {
+        // Taken while the sender still holds its own reference, as the request may be
+        // completed and the sender's reference released long before the send is written.
+        if (!envelope.retainPayload()) {
+            request.onFailure(new JMSException("Send was abandoned before the message could be written"));
+            return;
+        }
+
+        BatchedSend send = new BatchedSend(envelope, request);
+        pendingSends.add(send);
+        int pending = pendingSendBytes.addAndGet(send.size);
+
+        try {
+            // Once the sends that are not yet written exceed the byte limit the batch is written
+            // now and the caller waits for its own send to be written, otherwise the send is
+            // complete as far as the caller is concerned and a timer bounds how long it lingers.
+            if (pending >= sendBatchMaxBytes) {
+                if (sendFlushRequested.compareAndSet(false, true)) {
+                    serializer.execute(sendFlushTask);
+                }
+            } else {
+                if (sendLingerScheduled.compareAndSet(false, true)) {
+                    serializer.schedule(sendLingerTask, sendBatchLinger, TimeUnit.MILLISECONDS);
+                }
+                request.onSuccess();
+            }
+        } catch (RejectedExecutionException ex) {
+            failPendingSends(new ProviderClosedException("This Provider is already closed"));
+        }
+
+        // A close that raced with this send may already have failed the earlier pending sends
+        if (closed.get()) {
+            failPendingSends(new ProviderClosedException("This Provider is already closed"));
+        }
+    }
+
+    /*
+     * Sends still in flight once the transport is closed will never be completed, the buffers
+     * their messages were encoded into are released from the serializer so that this happens
+     * after any work that was already queued and could still have written them.
+     */
+    private void releaseHeldPayloads() {
+        try {
+            serializer.execute(new Runnable() {
+
+                @Override
+                public void run() {
+                    if (connection != null) {
+                        connection.releaseHeldPayloads();
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            LOG.trace("Serializer shut down before held send payloads could be released");
+        }
+    }
+
+    /*
+     * Writes any batched sends, must be called from the serializer before any work that could
+     * otherwise be observed out of order with the pending sends.  The transport is not flushed
+     * until the caller next pumps the transport unless the batch exceeds the max batch bytes.
+     */
+    private void processPendingSends() {
+        if (pendingSends.isEmpty()) {
+            return;
+        }
+
+        sendBatchInProgress = true;
+        try {
+            BatchedSend send = null;
+            while ((send = pendingSends.poll()) != null) {
+                try {
+                    lookupProducer(send.envelope.getProducerId()).send(send.envelope, send);
+                } catch (Throwable t) {
+                    send.onFailure(t);
+                } finally {
+                    send.releasePayload();
+                }
+            }
+        } finally {
+            sendBatchInProgress = false;
+        }
+    }
+
+    /*
+     * Fails the requests of any batched sends that were not yet written so that callers, or a
+     * failover provider that can replay them, learn that the messages were not sent.
+     */
+    private void failPendingSends(Throwable cause) {
+        BatchedSend send = null;
+        while ((send = pendingSends.poll()) != null) {
+            send.onFailure(cause);
+            send.releasePayload();
+        }
+    }
+
     void fireConnectionEstablished() {
         // The request onSuccess calls this method
         connectionRequest = null;
@@ -1060,6 +1350,13 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             nextIdleTimeoutCheck = serializer.schedule(new IdleTimeoutCheck(), delay, TimeUnit.MILLISECONDS);
         }
 
+        // Consumers only re-evaluate their window as they consume, one that has stalled
+        // needs its window checked from here for the credit it no longer needs to be revoked.
+        if (adaptivePrefetch) {
+            creditWindowCheck = serializer.scheduleWithFixedDelay(new CreditWindowCheck(),
+                ADAPTIVE_PREFETCH_CHECK_INTERVAL, ADAPTIVE_PREFETCH_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+
         ProviderListener listener = this.listener;
         if (listener != null) {
             listener.onConnectionEstablished(remoteURI);
@@ -1079,11 +1376,18 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
             connectionRequest = null;
         }
 
+        failPendingSends(IOExceptionSupport.create(ex));
+
         if (nextIdleTimeoutCheck != null) {
             nextIdleTimeoutCheck.cancel(true);
             nextIdleTimeoutCheck = null;
         }
 
+        if (creditWindowCheck != null) {
+            creditWindowCheck.cancel(false);
+            creditWindowCheck = null;
+        }
+
         ProviderListener listener = this.listener;
         if (listener != null) {
             listener.onConnectionFailure(IOExceptionSupport.create(ex));
@@ -1271,6 +1575,287 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         this.allowNonSecureRedirects = allowNonSecureRedirects;
     }
 
+    public boolean isCoalesceWrites() {
+        return coalesceWrites;
+    }
+
+    /**
+     * Controls whether the output of consecutive units of work is written to the transport
+     * and then flushed once when no further work is queued, instead of being flushed after
+     * each unit of work completes.
+     *
+     * @param coalesceWrites
+     * 		true if the flush of written output should be deferred and coalesced.
+     */
+    public void setCoalesceWrites(boolean coalesceWrites) {
+        this.coalesceWrites = coalesceWrites;
+    }
+
+    public int getCoalesceWritesMaxBytes() {
+        return coalesceWritesMaxBytes;
+    }
+
+    /**
+     * Sets the number of written but unflushed bytes at which the transport is flushed
+     * immediately when write coalescing is enabled.
+     *
+     * @param coalesceWritesMaxBytes
+     * 		the limit of unflushed bytes before a flush is forced.
+     */
+    public void setCoalesceWritesMaxBytes(int coalesceWritesMaxBytes) {
+        this.coalesceWritesMaxBytes = coalesceWritesMaxBytes;
+    }
+
+    public boolean isCoalesceAcks() {
+        return coalesceAcks;
+    }
+
+    /**
+     * Controls whether the consumed acknowledgements of messages received in auto and dups ok
+     * acknowledge sessions are completed immediately and applied in batches, instead of each
+     * acknowledgement being a separate unit of work that is applied before it completes.
+     *
+     * @param coalesceAcks
+     * 		true if the consumed acknowledgements should be coalesced.
+     */
+    public void setCoalesceAcks(boolean coalesceAcks) {
+        this.coalesceAcks = coalesceAcks;
+    }
+
+    public int getCoalesceAcksMaxCount() {
+        return coalesceAcksMaxCount;
+    }
+
+    /**
+     * Sets the number of pending coalesced acknowledgements at which they are applied
+     * immediately.
+     *
+     * @param coalesceAcksMaxCount
+     * 		the limit of pending acknowledgements before they are applied.
+     */
+    public void setCoalesceAcksMaxCount(int coalesceAcksMaxCount) {
+        this.coalesceAcksMaxCount = coalesceAcksMaxCount;
+    }
+
+    public int getCoalesceAcksMaxDelay() {
+        return coalesceAcksMaxDelay;
+    }
+
+    /**
+     * Sets the maximum time in milliseconds that a coalesced acknowledgement is held before
+     * it is applied.
+     *
+     * @param coalesceAcksMaxDelay
+     * 		the maximum time in milliseconds to hold a pending acknowledgement.
+     */
+    public void setCoalesceAcksMaxDelay(int coalesceAcksMaxDelay) {
+        this.coalesceAcksMaxDelay = coalesceAcksMaxDelay;
+    }
+
+    public int getSendBatchLinger() {
+        return sendBatchLinger;
+    }
+
+    /**
+     * Sets the time in milliseconds that an asynchronous send can be held so that it is written
+     * to the transport in a batch with other asynchronous sends, a value of zero disables send
+     * batching.  The linger timer is per connection, it is armed by the first send of a batch
+     * from any of the connection's producers.
+     *
+     * @param sendBatchLinger
+     * 		the maximum time in milliseconds that an asynchronous send is held.
+     */
+    public void setSendBatchLinger(int sendBatchLinger) {
+        this.sendBatchLinger = sendBatchLinger;
+    }
+
+    public int getSendBatchMaxBytes() {
+        return sendBatchMaxBytes;
+    }
+
+    /**
+     * Sets the number of bytes of batched sends not yet written at which the batch is written
+     * and flushed immediately when send batching is enabled.  While the limit is exceeded an
+     * asynchronous send waits for it to be written instead of completing once queued.
+     *
+     * @param sendBatchMaxBytes
+     * 		the limit of unwritten bytes before a batch of sends is written.
+     */
+    public void setSendBatchMaxBytes(int sendBatchMaxBytes) {
+        this.sendBatchMaxBytes = sendBatchMaxBytes;
+    }
+
+    public boolean isLazyDecode() {
+        return lazyDecode;
+    }
+
+    /**
+     * Controls whether the application properties and footer of incoming messages are left
+     * encoded when the message is received and are only decoded when first accessed.
+     *
+     * @param lazyDecode
+     * 		true if those sections of incoming messages should be decoded on first access.
+     */
+    public void setLazyDecode(boolean lazyDecode) {
+        this.lazyDecode = lazyDecode;
+    }
+
+    public boolean isAdaptivePrefetch() {
+        return adaptivePrefetch;
+    }
+
+    /**
+     * Controls whether consumers size their link credit from their measured consumption
+     * rate and the round trip time to the remote instead of always topping credit back up
+     * to the configured prefetch, which then only acts as the upper limit.
+     *
+     * @param adaptivePrefetch
+     * 		true if consumers should adapt their credit window to their consumption rate.
+     */
+    public void setAdaptivePrefetch(boolean adaptivePrefetch) {
+        this.adaptivePrefetch = adaptivePrefetch;
+    }
+
+    public int getAdaptivePrefetchMinimum() {
+        return adaptivePrefetchMinimum;
+    }
+
+    /**
+     * Sets the smallest credit window that a consumer will use when adaptive prefetch
+     * is enabled, unless its configured prefetch is smaller still.
+     *
+     * @param adaptivePrefetchMinimum
+     * 		the minimum number of messages a consumer may request when adapting its credit.
+     */
+    public void setAdaptivePrefetchMinimum(int adaptivePrefetchMinimum) {
+        this.adaptivePrefetchMinimum = adaptivePrefetchMinimum;
+    }
+
+    public long getMaxPrefetchBytes() {
+        return maxPrefetchBytes;
+    }
+
+    /**
+     * Sets the maximum number of bytes of received messages that each consumer may hold
+     * in its prefetch buffer.  Once the limit is reached the consumer withholds link credit
+     * until the application consumes some of the buffered messages.  A value of zero or
+     * less means no limit is applied.
+     *
+     * @param maxPrefetchBytes
+     * 		the prefetch memory budget of each consumer in bytes.
+     */
+    public void setMaxPrefetchBytes(long maxPrefetchBytes) {
+        this.maxPrefetchBytes = maxPrefetchBytes;
+    }
+
+    public long getMaxConnectionPrefetchBytes() {
+        return maxConnectionPrefetchBytes;
+    }
+
+    /**
+     * Sets the maximum number of bytes of received messages that all consumers of this
+     * connection may hold in their prefetch buffers combined.  A value of zero or less
+     * means no limit is applied.
+     *
+     * @param maxConnectionPrefetchBytes
+     * 		the prefetch memory budget of the connection in bytes.
+     */
+    public void setMaxConnectionPrefetchBytes(long maxConnectionPrefetchBytes) {
+        this.maxConnectionPrefetchBytes = maxConnectionPrefetchBytes;
+    }
+
+    public boolean isAnonymousFallbackCache() {
+        return anonymousFallbackCache;
+    }
+
+    /**
+     * Sets whether anonymous producers, when emulated because the remote does not offer
+     * the anonymous relay, keep the links they open to each destination for reuse by
+     * later sends rather than closing them once each send completes.
+     *
+     * @param anonymousFallbackCache
+     * 		true if anonymous producers should cache the links they create.
+     */
+    public void setAnonymousFallbackCache(boolean anonymousFallbackCache) {
+        this.anonymousFallbackCache = anonymousFallbackCache;
+    }
+
+    public int getAnonymousFallbackCacheSize() {
+        return anonymousFallbackCacheSize;
+    }
+
+    /**
+     * Sets the number of destination links each emulated anonymous producer keeps open
+     * when the anonymous fallback cache is enabled.
+     *
+     * @param anonymousFallbackCacheSize
+     * 		the maximum number of links cached by each anonymous producer.
+     */
+    public void setAnonymousFallbackCacheSize(int anonymousFallbackCacheSize) {
+        this.anonymousFallbackCacheSize = anonymousFallbackCacheSize;
+    }
+
+    public boolean isPooledEncodeBuffers() {
+        return pooledEncodeBuffers;
+    }
+
+    /**
+     * Controls whether outgoing messages are encoded into buffers taken from the pooled
+     * allocator, which are returned to the pool once the send has completed or failed.
+     *
+     * @param pooledEncodeBuffers
+     * 		true if outgoing messages should be encoded into pooled buffers.
+     */
+    public void setPooledEncodeBuffers(boolean pooledEncodeBuffers) {
+        this.pooledEncodeBuffers = pooledEncodeBuffers;
+    }
+
+    /**
+     * @return true if either a consumer or connection prefetch memory budget is configured.
+     */
+    public boolean isPrefetchBudgeted() {
+        return maxPrefetchBytes > 0 || maxConnectionPrefetchBytes > 0;
+    }
+
+    /**
+     * @return the number of bytes of received messages currently held by all consumers.
+     */
+    public long getPrefetchedBytes() {
+        return prefetchedBytes;
+    }
+
+    /**
+     * @return true if the connection prefetch memory budget is currently used up.
+     */
+    boolean isConnectionPrefetchBudgetExhausted() {
+        return maxConnectionPrefetchBytes > 0 && prefetchedBytes >= maxConnectionPrefetchBytes;
+    }
+
+    /*
+     * Tracks the bytes held in consumer prefetch buffers, when bytes are released from a
+     * used up connection budget any consumers that withheld credit are given the chance
+     * to grant it again.
+     */
+    void updatePrefetchedBytes(long delta) {
+        prefetchedBytes += delta;
+
+        if (delta < 0 && !consumersAwaitingPrefetchBudget.isEmpty() && !isConnectionPrefetchBudgetExhausted()) {
+            List<AmqpConsumer> waiting = new ArrayList<>(consumersAwaitingPrefetchBudget);
+            consumersAwaitingPrefetchBudget.clear();
+            for (AmqpConsumer consumer : waiting) {
+                consumer.grantCreditIfNeeded();
+            }
+        }
+    }
+
+    void awaitPrefetchBudget(AmqpConsumer consumer) {
+        consumersAwaitingPrefetchBudget.add(consumer);
+    }
+
+    void cancelAwaitPrefetchBudget(AmqpConsumer consumer) {
+        consumersAwaitingPrefetchBudget.remove(consumer);
+    }
+
     public long getCloseTimeout() {
         return connectionInfo != null ? connectionInfo.getCloseTimeout() : JmsConnectionInfo.DEFAULT_CLOSE_TIMEOUT;
     }
@@ -1447,6 +2032,124 @@ public class AmqpProvider implements Provider, TransportListener , AmqpResourceP
         return mechanism;
     }
 
+    private final class FlushTask implements Runnable {
+        @Override
+        public void run() {
+            flushScheduled = false;
+
+            if (unflushedBytes > 0) {
+                try {
+                    flushTransport();
+                } catch (IOException e) {
+                    fireProviderException(e);
+                }
+            }
+        }
+    }
+
+    private final class AckFlushTask implements Runnable {
+        @Override
+        public void run() {
+            ackFlushRequested.set(false);
+
+            if (!closed.get() && !pendingAcks.isEmpty()) {
+                processPendingAcks();
+                pumpToProtonTransport();
+            }
+        }
+    }
+
+    private final class SendFlushTask implements Runnable {
+
+        private final AtomicBoolean trigger;
+
+        public SendFlushTask(AtomicBoolean trigger) {
+            this.trigger = trigger;
+        }
+
+        @Override
+        public void run() {
+            trigger.set(false);
+
+            if (closed.get()) {
+                failPendingSends(new ProviderClosedException("This Provider is already closed"));
+            } else if (!pendingSends.isEmpty()) {
+                processPendingSends();
+                pumpToProtonTransport();
+            }
+        }
+    }
+
+    /*
+     * A queued asynchronous send, handed to the producer in place of the original request so
+     * that its bytes count against the send batch limit until the producer has written it.
+     * The original request is usually completed when the send is queued, a failure after
+     * that point is reported the same way as for any other asynchronous send.  The payload
+     * reference taken when the send was queued is released once the producer has its own.
+     */
+    private final class BatchedSend implements AsyncResult {
+
+        private final JmsOutboundMessageDispatch envelope;
+        private final AsyncResult request;
+        private final int size;
+        private boolean complete;
+
+        public BatchedSend(JmsOutboundMessageDispatch envelope, AsyncResult request) {
+            this.envelope = envelope;
+            this.request = request;
+            this.size = ((ByteBuf) envelope.getPayload()).readableBytes();
+        }
+
+        public void releasePayload() {
+            envelope.releasePayload();
+        }
+
+        @Override
+        public void onFailure(Throwable result) {
+            if (written()) {
+                if (!request.isComplete()) {
+                    request.onFailure(result);
+                } else if (envelope.isCompletionRequired()) {
+                    getProviderListener().onFailedMessageSend(envelope, result);
+                } else {
+                    fireNonFatalProviderException(IOExceptionSupport.create(result));
+                }
+            }
+        }
+
+        @Override
+        public void onSuccess() {
+            if (written()) {
+                request.onSuccess();
+            }
+        }
+
+        @Override
+        public boolean isComplete() {
+            return complete;
+        }
+
+        private boolean written() {
+            if (complete) {
+                return false;
+            }
+
+            complete = true;
+            pendingSendBytes.addAndGet(-size);
+            return true;
+        }
+    }
+
+    private final class CreditWindowCheck implements Runnable {
+        @Override
+        public void run() {
+            if (!closed.get() && connection.getLocalState() == EndpointState.ACTIVE) {
+                connection.updateCreditWindows();
+                pumpToProtonTransport();
+            }
+        }
+    }
+
     private final class IdleTimeoutCheck implements Runnable {
         @Override
         public void run() {
@@ -244,6 +244,26 @@ public class AmqpSession extends AmqpAbstractResource<JmsSessionInfo, Session> i
         }
     }
 
+    /**
+     * Releases the encoded messages held by the sends of this session's producers, called
+     * once the provider is closed and those sends will never complete.
+     */
+    public void releaseHeldPayloads() {
+        for (AmqpProducer producer : producers.values()) {
+            producer.releaseHeldPayloads();
+        }
+    }
+
+    /**
+     * Re-evaluates the adaptive credit window of each consumer so that credit held by
+     * consumers that have stopped consuming is revoked.
+     */
+    public void updateCreditWindows() {
+        for (AmqpConsumer consumer : consumers.values()) {
+            consumer.updateCreditWindow();
+        }
+    }
+
     /**
      * Call to send an error that occurs outside of the normal asynchronous processing
      * of a session resource such as a remote close etc.
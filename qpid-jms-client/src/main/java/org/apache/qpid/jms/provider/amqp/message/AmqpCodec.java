@@ -47,18 +47,33 @@ import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
 import org.apache.qpid.proton.amqp.messaging.Properties;
 import org.apache.qpid.proton.amqp.messaging.Section;
 import org.apache.qpid.proton.codec.AMQPDefinedTypes;
+import org.apache.qpid.proton.codec.CompositeReadableBuffer;
 import org.apache.qpid.proton.codec.DecoderImpl;
 import org.apache.qpid.proton.codec.EncoderImpl;
+import org.apache.qpid.proton.codec.EncodingCodes;
 import org.apache.qpid.proton.codec.ReadableBuffer;
 import org.apache.qpid.proton.codec.WritableBuffer;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledByteBufAllocator;
 
 /**
  * AMQP Codec class used to hide the details of encode / decode
  */
 public final class AmqpCodec {
 
+    /**
+     * Data section bodies at or above this size are not copied into the encoded message
+     * buffer, instead the body bytes are added to the returned buffer as a wrapped component.
+     */
+    public static final int DATA_BODY_WRAP_THRESHOLD = 8 * 1024;
+
+    private static final byte DATA_DESCRIPTOR_CODE = 0x75;
+    private static final byte APPLICATION_PROPERTIES_DESCRIPTOR_CODE = 0x74;
+    private static final byte FOOTER_DESCRIPTOR_CODE = 0x78;
+
     private static class EncoderDecoderPair {
         DecoderImpl decoder = new DecoderImpl();
         EncoderImpl encoder = new EncoderImpl(decoder);
@@ -143,8 +158,45 @@ public final class AmqpCodec {
      * @return a buffer containing the wire level representation of the input Message.
      */
     public static ByteBuf encodeMessage(AmqpJmsMessageFacade message) {
-        AmqpWritableBuffer buffer = new AmqpWritableBuffer();
+        return encodeMessage(message, UnpooledByteBufAllocator.DEFAULT, null);
+    }
 
+    /**
+     * Given a Message instance, encode the Message to the wire level representation
+     * of that Message using buffers from the given allocator.
+     *
+     * When a size estimate is given the encode buffer is allocated with the estimated
+     * capacity and the estimate is updated with the number of bytes that were encoded.
+     * A Data section body that is wrapped rather than copied does not count towards
+     * that size as it is never written into the encode buffer.
+     *
+     * @param message
+     *      the Message that is to be encoded into the wire level representation.
+     * @param allocator
+     *      the allocator that provides the buffers the message is encoded into.
+     * @param sizeEstimate
+     *      the estimate of the encoded size to use and update, or null to use the default.
+     *
+     * @return a buffer containing the wire level representation of the input Message.
+     */
+    public static ByteBuf encodeMessage(AmqpJmsMessageFacade message, ByteBufAllocator allocator, AmqpEncodeSizeEstimate sizeEstimate) {
+        int initialCapacity = sizeEstimate != null ? sizeEstimate.getEstimate() : AmqpWritableBuffer.INITIAL_CAPACITY;
+        AmqpWritableBuffer buffer = new AmqpWritableBuffer(allocator.heapBuffer(initialCapacity));
+
+        try {
+            ByteBuf encoded = doEncodeMessage(message, allocator, buffer);
+            if (sizeEstimate != null) {
+                sizeEstimate.record(buffer.getBuffer().readableBytes());
+            }
+
+            return encoded;
+        } catch (RuntimeException ex) {
+            buffer.getBuffer().release();
+            throw ex;
+        }
+    }
+
+    private static ByteBuf doEncodeMessage(AmqpJmsMessageFacade message, ByteBufAllocator allocator, AmqpWritableBuffer buffer) {
         EncoderImpl encoder = getEncoder();
         encoder.setByteBuffer(buffer);
 
@@ -171,16 +223,169 @@ public final class AmqpCodec {
         if (applicationProperties != null) {
             encoder.writeObject(applicationProperties);
         }
-        if (body != null) {
-            encoder.writeObject(body);
+        ByteBuf leadingSections = null;
+        ByteBuf wrappedBody = null;
+        AmqpWritableBuffer footerBuffer = null;
+
+        try {
+            if (isWrappableBody(body)) {
+                Binary payload = ((Data) body).getValue();
+
+                // Only the Data section constructor is encoded, the body bytes are wrapped
+                // instead of being copied into the encoded message buffer.
+                leadingSections = buffer.getBuffer();
+                leadingSections.writeByte(EncodingCodes.DESCRIBED_TYPE_INDICATOR);
+                leadingSections.writeByte(EncodingCodes.SMALLULONG);
+                leadingSections.writeByte(DATA_DESCRIPTOR_CODE);
+                leadingSections.writeByte(EncodingCodes.VBIN32);
+                leadingSections.writeInt(payload.getLength());
+
+                wrappedBody = Unpooled.wrappedBuffer(payload.getArray(), payload.getArrayOffset(), payload.getLength());
+
+                if (footer != null) {
+                    footerBuffer = new AmqpWritableBuffer(allocator.heapBuffer(AmqpWritableBuffer.INITIAL_CAPACITY));
+                    encoder.setByteBuffer(footerBuffer);
+                }
+            } else if (body != null) {
+                encoder.writeObject(body);
+            }
+            if (footer != null) {
+                encoder.writeObject(footer);
+            }
+
+            encoder.setByteBuffer((WritableBuffer) null);
+
+            if (wrappedBody != null) {
+                if (footerBuffer != null) {
+                    return allocator.compositeHeapBuffer(3).addComponents(true, leadingSections, wrappedBody, footerBuffer.getBuffer());
+                } else {
+                    return allocator.compositeHeapBuffer(2).addComponents(true, leadingSections, wrappedBody);
+                }
+            }
+
+            return buffer.getBuffer();
+        } catch (RuntimeException ex) {
+            // The leading sections buffer is released by the caller
+            encoder.setByteBuffer((WritableBuffer) null);
+            if (wrappedBody != null) {
+                wrappedBody.release();
+            }
+            if (footerBuffer != null) {
+                footerBuffer.getBuffer().release();
+            }
+
+            throw ex;
+        }
+    }
+
+    private static Object readSection(DecoderImpl decoder, ReadableBuffer messageBytes, boolean lazy) {
+        Object section = lazy ? readLazySection(messageBytes) : null;
+        if (section == null) {
+            section = readDataSectionInPlace(messageBytes);
         }
-        if (footer != null) {
-            encoder.writeObject(footer);
+        if (section == null) {
+            section = decoder.readObject();
         }
 
-        encoder.setByteBuffer((WritableBuffer) null);
+        return section;
+    }
 
-        return buffer.getBuffer();
+    /*
+     * When the delivery bytes handed over by proton are held in a single array a Data section
+     * is read as a Binary that references that array, avoiding a copy of the message body.
+     * Returns null if the next section is not a Data section that can be read this way.
+     */
+    private static Data readDataSectionInPlace(ReadableBuffer messageBytes) {
+        if (!(messageBytes instanceof CompositeReadableBuffer) || !messageBytes.hasArray() || messageBytes.remaining() < 5) {
+            return null;
+        }
+
+        final int position = messageBytes.position();
+
+        if (messageBytes.get(position) != EncodingCodes.DESCRIBED_TYPE_INDICATOR ||
+            messageBytes.get(position + 1) != EncodingCodes.SMALLULONG ||
+            messageBytes.get(position + 2) != DATA_DESCRIPTOR_CODE) {
+            return null;
+        }
+
+        final int constructorSize;
+        final int length;
+
+        final byte encoding = messageBytes.get(position + 3);
+        if (encoding == EncodingCodes.VBIN8) {
+            constructorSize = 5;
+            length = messageBytes.get(position + 4) & 0xFF;
+        } else if (encoding == EncodingCodes.VBIN32 && messageBytes.remaining() >= 8) {
+            constructorSize = 8;
+            length = (messageBytes.get(position + 4) & 0xFF) << 24 |
+                     (messageBytes.get(position + 5) & 0xFF) << 16 |
+                     (messageBytes.get(position + 6) & 0xFF) << 8 |
+                     (messageBytes.get(position + 7) & 0xFF);
+        } else {
+            return null;
+        }
+
+        if (length < 0 || length > messageBytes.remaining() - constructorSize) {
+            return null;
+        }
+
+        Binary payload = new Binary(messageBytes.array(), messageBytes.arrayOffset() + position + constructorSize, length);
+        messageBytes.position(position + constructorSize + length);
+
+        return new Data(payload);
+    }
+
+    /*
+     * When the delivery bytes handed over by proton are held in a single array and the next
+     * section is one that can be decoded lazily its encoded bytes are skipped over and returned
+     * as a buffer that references that array, the message decodes the section on first access.
+     * Returns null if the next section is not one of these or cannot be skipped this way.
+     */
+    private static EncodedSection readLazySection(ReadableBuffer messageBytes) {
+        if (!(messageBytes instanceof CompositeReadableBuffer) || !messageBytes.hasArray() || messageBytes.remaining() < 4) {
+            return null;
+        }
+
+        final int position = messageBytes.position();
+        final byte descriptorCode = messageBytes.get(position + 2);
+
+        if (messageBytes.get(position) != EncodingCodes.DESCRIBED_TYPE_INDICATOR ||
+            messageBytes.get(position + 1) != EncodingCodes.SMALLULONG ||
+            (descriptorCode != APPLICATION_PROPERTIES_DESCRIPTOR_CODE && descriptorCode != FOOTER_DESCRIPTOR_CODE)) {
+            return null;
+        }
+
+        final int sectionSize;
+
+        final byte encoding = messageBytes.get(position + 3);
+        if (encoding == EncodingCodes.MAP8 && messageBytes.remaining() >= 5) {
+            sectionSize = 5 + (messageBytes.get(position + 4) & 0xFF);
+        } else if (encoding == EncodingCodes.MAP32 && messageBytes.remaining() >= 8) {
+            sectionSize = 8 + ((messageBytes.get(position + 4) & 0xFF) << 24 |
+                               (messageBytes.get(position + 5) & 0xFF) << 16 |
+                               (messageBytes.get(position + 6) & 0xFF) << 8 |
+                               (messageBytes.get(position + 7) & 0xFF));
+        } else {
+            return null;
+        }
+
+        if (sectionSize < 0 || sectionSize > messageBytes.remaining()) {
+            return null;
+        }
+
+        ByteBuf encoded = Unpooled.wrappedBuffer(messageBytes.array(), messageBytes.arrayOffset() + position, sectionSize);
+        messageBytes.position(position + sectionSize);
+
+        return new EncodedSection(descriptorCode, encoded);
+    }
+
+    private static boolean isWrappableBody(Section body) {
+        if (body instanceof Data) {
+            Binary payload = ((Data) body).getValue();
+            return payload != null && payload.getLength() >= DATA_BODY_WRAP_THRESHOLD;
+        }
+
+        return false;
     }
 
     /**
@@ -197,6 +402,27 @@ public final class AmqpCodec {
      * @throws IOException if an error occurs while creating the message objects.
      */
     public static AmqpJmsMessageFacade decodeMessage(AmqpConsumer consumer, ReadableBuffer messageBytes) throws IOException {
+        return decodeMessage(consumer, messageBytes, false);
+    }
+
+    /**
+     * Create a new JmsMessage and underlying JmsMessageFacade that represents the proper
+     * message type for the incoming AMQP message.  When lazy decoding is requested the
+     * ApplicationProperties and Footer sections are not decoded here, the message retains
+     * their encoded bytes and decodes them on first access.
+     *
+     * @param consumer
+     *        The AmqpConsumer instance that will be linked to the decoded message.
+     * @param messageBytes
+     *        The the raw bytes that compose the incoming message. (Read-Only)
+     * @param lazy
+     *        Should sections that are not needed to create the message be decoded lazily.
+     *
+     * @return a AmqpJmsMessageFacade instance decoded from the message bytes.
+     *
+     * @throws IOException if an error occurs while creating the message objects.
+     */
+    public static AmqpJmsMessageFacade decodeMessage(AmqpConsumer consumer, ReadableBuffer messageBytes, boolean lazy) throws IOException {
 
         DecoderImpl decoder = getDecoder();
         decoder.setBuffer(messageBytes);
@@ -206,18 +432,20 @@ public final class AmqpCodec {
         MessageAnnotations messageAnnotations = null;
         Properties properties = null;
         ApplicationProperties applicationProperties = null;
+        ByteBuf encodedApplicationProperties = null;
         Section body = null;
         Footer footer = null;
-        Section section = null;
+        ByteBuf encodedFooter = null;
+        Object section = null;
 
         if (messageBytes.hasRemaining()) {
-            section = (Section) decoder.readObject();
+            section = readSection(decoder, messageBytes, lazy);
         }
 
         if (section instanceof Header) {
             header = (Header) section;
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
@@ -227,7 +455,7 @@ public final class AmqpCodec {
             deliveryAnnotations = (DeliveryAnnotations) section;
 
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
@@ -237,7 +465,7 @@ public final class AmqpCodec {
             messageAnnotations = (MessageAnnotations) section;
 
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
@@ -247,27 +475,31 @@ public final class AmqpCodec {
             properties = (Properties) section;
 
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
 
         }
-        if (section instanceof ApplicationProperties) {
-            applicationProperties = (ApplicationProperties) section;
+        if (section instanceof ApplicationProperties || EncodedSection.is(section, APPLICATION_PROPERTIES_DESCRIPTOR_CODE)) {
+            if (section instanceof ApplicationProperties) {
+                applicationProperties = (ApplicationProperties) section;
+            } else {
+                encodedApplicationProperties = ((EncodedSection) section).encoded;
+            }
 
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
 
         }
-        if (section != null && !(section instanceof Footer)) {
-            body = section;
+        if (section != null && !(section instanceof Footer) && !EncodedSection.is(section, FOOTER_DESCRIPTOR_CODE)) {
+            body = (Section) section;
 
             if (messageBytes.hasRemaining()) {
-                section = (Section) decoder.readObject();
+                section = readSection(decoder, messageBytes, lazy);
             } else {
                 section = null;
             }
@@ -275,6 +507,8 @@ public final class AmqpCodec {
         }
         if (section instanceof Footer) {
             footer = (Footer) section;
+        } else if (EncodedSection.is(section, FOOTER_DESCRIPTOR_CODE)) {
+            encodedFooter = ((EncodedSection) section).encoded;
         }
 
         decoder.setByteBuffer(null);
@@ -292,8 +526,10 @@ public final class AmqpCodec {
             result.setMessageAnnotations(messageAnnotations);
             result.setProperties(properties);
             result.setApplicationProperties(applicationProperties);
+            result.setEncodedApplicationProperties(encodedApplicationProperties);
             result.setBody(body);
             result.setFooter(footer);
+            result.setEncodedFooter(encodedFooter);
             result.initialize(consumer);
 
             return result;
@@ -382,4 +618,22 @@ public final class AmqpCodec {
 
         return null;
     }
+
+    /*
+     * The encoded bytes of a section whose decode has been deferred.
+     */
+    private static final class EncodedSection {
+
+        private final byte descriptorCode;
+        private final ByteBuf encoded;
+
+        public EncodedSection(byte descriptorCode, ByteBuf encoded) {
+            this.descriptorCode = descriptorCode;
+            this.encoded = encoded;
+        }
+
+        public static boolean is(Object section, byte descriptorCode) {
+            return section instanceof EncodedSection && ((EncodedSection) section).descriptorCode == descriptorCode;
+        }
+    }
 }
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp.message;
+
+/**
+ * Predicts the size of the next message a producer will encode from the sizes of the
+ * messages it encoded recently, so the encode buffer can be allocated at close to its
+ * final size instead of growing from a small default capacity.
+ *
+ * The estimate grows at once to the size of a larger message and shrinks slowly after
+ * smaller ones, so a producer sending a mix of sizes rarely has to grow its buffer.
+ */
+public class AmqpEncodeSizeEstimate {
+
+    private static final int MINIMUM_ESTIMATE = 256;
+    private static final int SHRINK_SHIFT = 3;
+
+    private volatile int estimate = AmqpWritableBuffer.INITIAL_CAPACITY;
+
+    /**
+     * @return the capacity to allocate for the next encoded message.
+     */
+    public int getEstimate() {
+        return estimate;
+    }
+
+    /**
+     * Records the number of bytes written when encoding a message.
+     *
+     * @param encodedSize
+     *      the encoded size of the message.
+     */
+    public void record(int encodedSize) {
+        int current = estimate;
+        if (encodedSize >= current) {
+            estimate = encodedSize;
+        } else {
+            estimate = Math.max(MINIMUM_ESTIMATE, current - ((current - encodedSize) >> SHRINK_SHIFT));
+        }
+    }
+}
@@ -36,8 +36,10 @@ import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.exceptions.IdConversionException;
 import org.apache.qpid.jms.message.JmsMessage;
 import org.apache.qpid.jms.message.facade.JmsMessageFacade;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.provider.amqp.AmqpConnection;
 import org.apache.qpid.jms.provider.amqp.AmqpConsumer;
+import org.apache.qpid.jms.provider.amqp.AmqpProducer;
 import org.apache.qpid.proton.amqp.Binary;
 import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.UnsignedInteger;
@@ -65,6 +67,10 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     private Map<Symbol, Object> deliveryAnnotationsMap;
     private Map<Symbol, Object> footerMap;
 
+    // Encoded sections retained by a lazy decode until first accessed.
+    private ByteBuf encodedApplicationProperties;
+    private ByteBuf encodedFooter;
+
     private JmsDestination replyTo;
     private JmsDestination destination;
     private JmsDestination consumerDestination;
@@ -159,6 +165,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public boolean applicationPropertyExists(String key) throws JMSException {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             return applicationPropertiesMap.containsKey(key);
         }
@@ -179,6 +186,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public Set<String> getApplicationPropertyNames(Set<String> propertyNames) {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             propertyNames.addAll(applicationPropertiesMap.keySet());
         }
@@ -192,6 +200,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     public Object getApplicationProperty(String key) throws JMSException {
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             return applicationPropertiesMap.get(key);
         }
@@ -279,6 +288,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
             target.deliveryAnnotationsMap.putAll(deliveryAnnotationsMap);
         }
 
+        decodeApplicationProperties();
         if (applicationPropertiesMap != null) {
             target.lazyCreateApplicationProperties();
             target.applicationPropertiesMap.putAll(applicationPropertiesMap);
@@ -289,6 +299,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
             target.messageAnnotationsMap.putAll(messageAnnotationsMap);
         }
 
+        decodeFooter();
         if (footerMap != null) {
             target.lazyCreateFooter();
             target.footerMap.putAll(footerMap);
@@ -849,6 +860,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
      */
     void clearAllApplicationProperties() {
         applicationPropertiesMap = null;
+        encodedApplicationProperties = null;
     }
 
     String getToAddress() {
@@ -902,6 +914,15 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         return AmqpCodec.encodeMessage(this);
     }
 
+    @Override
+    public ByteBuf encodeMessage(JmsProducerId producerId) {
+        if (producerId != null && producerId.getProviderHint() instanceof AmqpProducer) {
+            return ((AmqpProducer) producerId.getProviderHint()).encodeMessage(this);
+        }
+
+        return encodeMessage();
+    }
+
     //----- Access to AMQP Message Values ------------------------------------//
 
     AmqpHeader getAmqpHeader() {
@@ -967,6 +988,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     ApplicationProperties getApplicationProperties() {
+        decodeApplicationProperties();
         ApplicationProperties result = null;
         if (applicationPropertiesMap != null && !applicationPropertiesMap.isEmpty()) {
             result = new ApplicationProperties(applicationPropertiesMap);
@@ -981,6 +1003,7 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     Footer getFooter() {
+        decodeFooter();
         Footer result = null;
         if (footerMap != null && !footerMap.isEmpty()) {
             result = new Footer(footerMap);
@@ -995,6 +1018,14 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
         }
     }
 
+    void setEncodedApplicationProperties(ByteBuf encodedApplicationProperties) {
+        this.encodedApplicationProperties = encodedApplicationProperties;
+    }
+
+    void setEncodedFooter(ByteBuf encodedFooter) {
+        this.encodedFooter = encodedFooter;
+    }
+
     //----- Internal Message Utility Methods ---------------------------------//
 
     private Long getAbsoluteExpiryTime() {
@@ -1048,14 +1079,32 @@ public class AmqpJmsMessageFacade implements JmsMessageFacade {
     }
 
     private void lazyCreateApplicationProperties() {
+        decodeApplicationProperties();
         if (applicationPropertiesMap == null) {
             applicationPropertiesMap = new HashMap<String, Object>();
         }
     }
 
     private void lazyCreateFooter() {
+        decodeFooter();
         if (footerMap == null) {
             footerMap = new HashMap<Symbol, Object>();
         }
     }
+
+    private void decodeApplicationProperties() {
+        if (encodedApplicationProperties != null) {
+            ByteBuf encoded = encodedApplicationProperties;
+            encodedApplicationProperties = null;
+            setApplicationProperties((ApplicationProperties) AmqpCodec.decode(encoded));
+        }
+    }
+
+    private void decodeFooter() {
+        if (encodedFooter != null) {
+            ByteBuf encoded = encodedFooter;
+            encodedFooter = null;
+            setFooter((Footer) AmqpCodec.decode(encoded));
+        }
+    }
 }
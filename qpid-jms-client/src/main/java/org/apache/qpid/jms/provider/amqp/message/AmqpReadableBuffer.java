@@ -119,6 +119,11 @@ public class AmqpReadableBuffer implements ReadableBuffer {
 
         if (buffer.hasArray()) {
             target.put(buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), buffer.readableBytes());
+        } else if (buffer.nioBufferCount() > 1) {
+            // Avoid the merged copy a composite buffer makes when asked for a single NIO buffer.
+            for (ByteBuffer component : buffer.nioBuffers()) {
+                target.put(component);
+            }
         } else {
             target.put(buffer.nioBuffer());
         }
@@ -21,14 +21,20 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.ConcurrentModificationException;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -36,6 +42,7 @@ import javax.jms.JMSException;
 import javax.jms.JMSSecurityException;
 import javax.jms.TransactionRolledBackException;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.JmsSendTimedOutException;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
@@ -43,6 +50,7 @@ import org.apache.qpid.jms.message.JmsMessageFactory;
 import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
 import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsTransactionInfo;
@@ -85,19 +93,21 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     public static final boolean DEFAULT_USE_RECONNECT_BACKOFF = true;
     public static final double DEFAULT_RECONNECT_BACKOFF_MULTIPLIER = 2.0d;
     public static final int DEFAULT_WARN_AFTER_RECONNECT_ATTEMPTS = 10;
+    public static final int DEFAULT_PARALLEL_CONNECT_ATTEMPTS = 1;
 
     private ProviderListener listener;
-    private Provider provider;
+    private volatile Provider provider;
     private final FailoverUriPool uris;
     private ScheduledFuture<?> requestTimeoutTask;
 
     private final ScheduledThreadPoolExecutor serializer;
     private final ScheduledThreadPoolExecutor connectionHub;
+    private final ThreadPoolExecutor connectionRacers;
     private final AtomicBoolean closed = new AtomicBoolean();
     private final AtomicBoolean failed = new AtomicBoolean();
     private final AtomicBoolean closingConnection = new AtomicBoolean(false);
     private final AtomicLong requestId = new AtomicLong();
-    private final Map<Long, FailoverRequest> requests = new LinkedHashMap<Long, FailoverRequest>();
+    private final Map<Long, FailoverRequest> requests = new ConcurrentSkipListMap<Long, FailoverRequest>();
     private final DefaultProviderListener closedListener = new DefaultProviderListener();
     private final AtomicReference<JmsMessageFactory> messageFactory = new AtomicReference<JmsMessageFactory>();
 
@@ -107,6 +117,11 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     private URI connectedURI;
     private volatile JmsConnectionInfo connectionInfo;
 
+    // Count of requests queued on the serializer for dispatch, or DISPATCH_DIRECT once
+    // requests are dispatched directly to the active provider.
+    private static final int DISPATCH_DIRECT = -1;
+    private final AtomicInteger queuedDispatches = new AtomicInteger();
+
     // Timeout values configured via JmsConnectionInfo
     private long closeTimeout = JmsConnectionInfo.DEFAULT_CLOSE_TIMEOUT;
     private long sendTimeout = JmsConnectionInfo.DEFAULT_SEND_TIMEOUT;
@@ -121,6 +136,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     private int maxReconnectAttempts = DEFAULT_MAX_RECONNECT_ATTEMPTS;
     private int startupMaxReconnectAttempts = DEFAULT_STARTUP_MAX_RECONNECT_ATTEMPTS;
     private int warnAfterReconnectAttempts = DEFAULT_WARN_AFTER_RECONNECT_ATTEMPTS;
+    private int parallelConnectAttempts = DEFAULT_PARALLEL_CONNECT_ATTEMPTS;
 
     private FailoverServerListAction amqpOpenServerListAction = FailoverServerListAction.REPLACE;
 
@@ -145,6 +161,13 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         connectionHub = new ScheduledThreadPoolExecutor(1, new QpidJMSThreadFactory("FailoverProvider: connect thread", true));
         connectionHub.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
         connectionHub.setContinueExistingPeriodicTasksAfterShutdownPolicy(false);
+
+        // When parallel connect attempts are enabled the connect thread races the attempts
+        // on these threads, one per raced URI, which are created on demand and expire when
+        // left idle.
+        connectionRacers = new ThreadPoolExecutor(DEFAULT_PARALLEL_CONNECT_ATTEMPTS, DEFAULT_PARALLEL_CONNECT_ATTEMPTS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new QpidJMSThreadFactory("FailoverProvider: connect race thread", true));
+        connectionRacers.allowCoreThreadTimeOut(true);
     }
 
     @Override
@@ -167,6 +190,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
     @Override
     public void close() {
         if (closed.compareAndSet(false, true)) {
+            disableDirectDispatch();
             final ProviderFuture request = new ProviderFuture();
             serializer.execute(new Runnable() {
 
@@ -190,6 +214,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                         LOG.debug("Caught exception while closing connection");
                     } finally {
                         ThreadPoolUtils.shutdownGraceful(connectionHub);
+                        connectionRacers.shutdown();
                         if (serializer != null) {
                             serializer.shutdown();
                         }
@@ -217,7 +242,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         if (resource instanceof JmsConnectionInfo) {
             pending = new CreateConnectionRequest(request) {
                 @Override
-                public void doTask() throws Exception {
+                public void doTask(Provider provider) throws Exception {
                     JmsConnectionInfo connectionInfo = (JmsConnectionInfo) resource;
 
                     // Collect the timeouts we will handle in this provider.
@@ -236,7 +261,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         } else {
             pending = new FailoverRequest(request, requestTimeout) {
                 @Override
-                public void doTask() throws Exception {
+                public void doTask(Provider provider) throws Exception {
                     provider.create(resource, this);
                 }
 
@@ -268,7 +293,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.start(resource, this);
             }
 
@@ -286,7 +311,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.stop(resource, this);
             }
 
@@ -304,7 +329,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws IOException, JMSException, UnsupportedOperationException {
+            public void doTask(Provider provider) throws IOException, JMSException, UnsupportedOperationException {
                 if (resourceId instanceof JmsConnectionInfo) {
                    closingConnection.set(true);
                 }
@@ -331,7 +356,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, sendTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.send(envelope, this);
             }
 
@@ -346,7 +371,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -354,7 +379,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.acknowledge(sessionId, ackType, this);
             }
 
@@ -370,7 +395,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
     }
 
     @Override
@@ -378,7 +403,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.acknowledge(envelope, ackType, this);
             }
 
@@ -394,7 +419,31 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         };
 
-        serializer.execute(pending);
+        dispatch(pending);
+    }
+
+    @Override
+    public void acknowledge(final List<JmsInboundMessageDispatch> envelopes, final ACK_TYPE ackType, AsyncResult request) throws IOException, JMSException {
+        checkClosed();
+        final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
+            @Override
+            public void doTask(Provider provider) throws Exception {
+                provider.acknowledge(envelopes, ackType, this);
+            }
+
+            @Override
+            public boolean succeedsWhenOffline() {
+                // Allow this to succeed, acks would be stale.
+                return true;
+            }
+
+            @Override
+            public String toString() {
+                return "message acknowledge -> " + envelopes.size() + " messages ackType: " + ackType;
+            }
+        };
+
+        dispatch(pending);
     }
 
     @Override
@@ -402,7 +451,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.commit(transactionInfo, nextTransactionInfo, this);
             }
 
@@ -432,7 +481,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.rollback(transactionInfo, nextTransactionInfo, this);
             }
 
@@ -455,7 +504,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.recover(sessionId, this);
             }
 
@@ -478,7 +527,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request, requestTimeout) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.unsubscribe(subscription, this);
             }
 
@@ -496,7 +545,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         checkClosed();
         final FailoverRequest pending = new FailoverRequest(request) {
             @Override
-            public void doTask() throws Exception {
+            public void doTask(Provider provider) throws Exception {
                 provider.pull(consumerId, timeout, this);
             }
 
@@ -509,6 +558,24 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         serializer.execute(pending);
     }
 
+    @Override
+    public void warmUp(final JmsProducerId producerId, final List<JmsDestination> destinations, AsyncResult request) throws IOException {
+        checkClosed();
+        final FailoverRequest pending = new FailoverRequest(request) {
+            @Override
+            public void doTask(Provider provider) throws Exception {
+                provider.warmUp(producerId, destinations, this);
+            }
+
+            @Override
+            public String toString() {
+                return "producer warm up -> " + producerId;
+            }
+        };
+
+        serializer.execute(pending);
+    }
+
     @Override
     public JmsMessageFactory getMessageFactory() {
         return messageFactory.get();
@@ -516,6 +583,55 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
 
     //--------------- Connection Error and Recovery methods ------------------//
 
+    /**
+     * Dispatches a send or acknowledge request.  While connected these are handed straight
+     * to the active Provider from the calling thread, otherwise they are queued on the
+     * serializer so that they are held and replayed once the connection is recovered.
+     *
+     * @param pending
+     *        The request to dispatch.
+     */
+    private void dispatch(FailoverRequest pending) {
+        while (true) {
+            int queued = queuedDispatches.get();
+            if (queued == DISPATCH_DIRECT) {
+                pending.runDirect();
+                return;
+            } else if (queuedDispatches.compareAndSet(queued, queued + 1)) {
+                pending.queuedForDispatch = true;
+                serializer.execute(pending);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queues a task on the serializer that switches sends and acknowledges to direct dispatch
+     * once every such request queued before it has been run, re-queueing itself while any are
+     * still waiting so that a request never overtakes one issued before it.
+     *
+     * @param active
+     *        The Provider that must still be the active one when direct dispatch is enabled.
+     */
+    private void enableDirectDispatch(final Provider active) {
+        serializer.execute(new Runnable() {
+            @Override
+            public void run() {
+                if (provider != active || closed.get()) {
+                    return;
+                }
+
+                if (!queuedDispatches.compareAndSet(0, DISPATCH_DIRECT) && queuedDispatches.get() != DISPATCH_DIRECT) {
+                    serializer.execute(this);
+                }
+            }
+        });
+    }
+
+    private void disableDirectDispatch() {
+        queuedDispatches.compareAndSet(DISPATCH_DIRECT, 0);
+    }
+
     /**
      * This method is always called from within the FailoverProvider's serialization thread.
      *
@@ -531,6 +647,8 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             LOG.debug("handling Provider failure: {}", cause.getMessage());
             LOG.trace("stack", cause);
 
+            disableDirectDispatch();
+
             provider.setProviderListener(closedListener);
             URI failedURI = this.provider.getRemoteURI();
             try {
@@ -641,6 +759,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                         requestTimeoutTask = null;
                     }
 
+                    enableDirectDispatch(provider);
                 } catch (Throwable error) {
                     LOG.trace("Connection attempt:[{}] to: {} failed", reconnectControl.reconnectAttempts, provider.getRemoteURI());
                     handleProviderFailure(IOExceptionSupport.create(error));
@@ -683,33 +802,40 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
 
                 try {
                     if (!uris.isEmpty()) {
-                        for (int i = 0; i < uris.size(); ++i) {
-                            URI target = uris.getNext();
-                            if (target == null) {
-                                LOG.trace("Failover URI collection unexpectedly modified during connection attempt.");
-                                failure = new ConcurrentModificationException("Failover URIs changed unexpectedly");
+                        uris.prioritize();
+
+                        int remaining = uris.size();
+                        while (remaining > 0) {
+                            int batch = Math.min(remaining, getParallelConnectAttempts());
+                            remaining -= batch;
+
+                            List<URI> targets = new ArrayList<URI>(batch);
+                            for (int i = 0; i < batch; ++i) {
+                                URI target = uris.getNext();
+                                if (target == null) {
+                                    LOG.trace("Failover URI collection unexpectedly modified during connection attempt.");
+                                    failure = new ConcurrentModificationException("Failover URIs changed unexpectedly");
+                                    continue;
+                                }
+
+                                targets.add(target);
+                            }
+
+                            if (targets.isEmpty()) {
                                 continue;
                             }
 
                             try {
-                                LOG.debug("Connection attempt:[{}] to: {} in-progress", reconnectAttempts,
-                                    target.getScheme() + "://" + target.getHost() + ":" + target.getPort());
-                                provider = ProviderFactory.create(target);
-                                provider.connect(connectionInfo);
+                                if (targets.size() == 1) {
+                                    provider = attemptConnect(targets.get(0), reconnectAttempts);
+                                } else {
+                                    provider = raceConnect(targets, reconnectAttempts);
+                                }
                                 initializeNewConnection(provider);
                                 return;
                             } catch (Throwable e) {
-                                LOG.info("Connection attempt:[{}] to: {} failed", reconnectAttempts,
-                                    target.getScheme() + "://" + target.getHost() + ":" + target.getPort());
                                 failure = e;
-                                try {
-                                    if (provider != null) {
-                                        provider.close();
-                                    }
-                                } catch (Throwable ex) {
-                                } finally {
-                                    provider = null;
-                                }
+                                provider = null;
                             }
                         }
                     } else {
@@ -734,6 +860,109 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         });
     }
 
+    /*
+     * Creates and connects a Provider for the given URI, recording the outcome in the URI
+     * pool so that latency aware ordering can prefer the remotes that connect fastest.  On
+     * failure the partially created Provider is closed before the error is thrown.
+     */
+    private Provider attemptConnect(URI target, long reconnectAttempts) throws Exception {
+        return attemptConnect(target, reconnectAttempts, null);
+    }
+
+    private Provider attemptConnect(URI target, long reconnectAttempts, ConnectRace race) throws Exception {
+        Provider provider = null;
+        long start = System.nanoTime();
+
+        try {
+            LOG.debug("Connection attempt:[{}] to: {} in-progress", reconnectAttempts,
+                target.getScheme() + "://" + target.getHost() + ":" + target.getPort());
+            provider = ProviderFactory.create(target);
+            if (race != null) {
+                race.enter(provider);
+            }
+            provider.connect(connectionInfo);
+            uris.connectSucceeded(target, System.nanoTime() - start);
+            return provider;
+        } catch (Throwable e) {
+            if (race != null && race.isOver()) {
+                // Closed because another attempt won the race, not a failure of this remote.
+                LOG.debug("Connection attempt:[{}] to: {} abandoned", reconnectAttempts,
+                    target.getScheme() + "://" + target.getHost() + ":" + target.getPort());
+            } else {
+                LOG.info("Connection attempt:[{}] to: {} failed", reconnectAttempts,
+                    target.getScheme() + "://" + target.getHost() + ":" + target.getPort());
+                uris.connectFailed(target);
+            }
+            try {
+                if (provider != null) {
+                    provider.close();
+                }
+            } catch (Throwable ex) {
+            }
+
+            throw e;
+        }
+    }
+
+    /*
+     * Attempts to connect to all of the given URIs in parallel and returns the Provider of
+     * the first attempt to complete the connect.  Attempts that complete after the winner
+     * close their Provider, attempts still in progress are left to finish or time out on
+     * their own.  If every attempt fails the last failure is thrown.
+     */
+    private Provider raceConnect(List<URI> targets, final long reconnectAttempts) throws Exception {
+        final ConnectRace race = new ConnectRace();
+        final ExecutorCompletionService<Provider> racers = new ExecutorCompletionService<Provider>(connectionRacers);
+        final List<Future<Provider>> attempts = new ArrayList<Future<Provider>>(targets.size());
+
+        for (final URI target : targets) {
+            attempts.add(racers.submit(() -> {
+                if (race.isOver()) {
+                    return null;
+                }
+
+                Provider candidate = attemptConnect(target, reconnectAttempts, race);
+                if (!race.finish() || closingConnection.get() || closed.get()) {
+                    LOG.debug("Connection attempt:[{}] to: {} lost the connect race and will be closed", reconnectAttempts, target);
+                    candidate.close();
+                    return null;
+                }
+
+                return candidate;
+            }));
+        }
+
+        Provider winner = null;
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < targets.size(); ++i) {
+                try {
+                    winner = racers.take().get();
+                    if (winner != null) {
+                        return winner;
+                    }
+                } catch (ExecutionException e) {
+                    failure = e.getCause();
+                }
+            }
+        } finally {
+            // Don't leave losing attempts connecting, or hung, in the background.
+            race.finish();
+            for (Future<Provider> attempt : attempts) {
+                attempt.cancel(true);
+            }
+            race.closeContenders(winner);
+        }
+
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        } else if (failure instanceof Exception) {
+            throw (Exception) failure;
+        } else {
+            throw new IOException("Failed to connect to any of the remotes: " + targets);
+        }
+    }
+
     /**
      * Called when the reconnection executor has tried for the last time based on max reconnects
      * configuration and we now consider this connection attempt to be failed.  This method will
@@ -922,6 +1151,38 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         this.uris.setRandomize(value);
     }
 
+    public boolean isLatencyAware() {
+        return uris.isLatencyAware();
+    }
+
+    public void setLatencyAware(boolean value) {
+        this.uris.setLatencyAware(value);
+    }
+
+    public int getParallelConnectAttempts() {
+        return parallelConnectAttempts;
+    }
+
+    /**
+     * Sets the number of failover URIs that are raced in parallel during each connection
+     * attempt, the first to connect is used and the others are closed.  The default value
+     * of one tries each URI in turn.
+     *
+     * @param parallelConnectAttempts
+     *        the number of URIs to attempt to connect to at the same time.
+     */
+    public void setParallelConnectAttempts(int parallelConnectAttempts) {
+        this.parallelConnectAttempts = Math.max(1, parallelConnectAttempts);
+
+        if (this.parallelConnectAttempts > connectionRacers.getMaximumPoolSize()) {
+            connectionRacers.setMaximumPoolSize(this.parallelConnectAttempts);
+            connectionRacers.setCorePoolSize(this.parallelConnectAttempts);
+        } else {
+            connectionRacers.setCorePoolSize(this.parallelConnectAttempts);
+            connectionRacers.setMaximumPoolSize(this.parallelConnectAttempts);
+        }
+    }
+
     public long getInitialReconnectDelay() {
         return initialReconnectDelay;
     }
@@ -1077,6 +1338,12 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         private final long requestStarted = System.nanoTime();
         private final long requestTimeout;
 
+        // Set when the request was counted as waiting on the serializer for dispatch.
+        private boolean queuedForDispatch;
+
+        // The Provider instance this request was last handed to, if any.
+        private volatile Provider dispatchedTo;
+
         public FailoverRequest(AsyncResult watcher) {
             this(watcher, JmsConnectionInfo.INFINITE);
         }
@@ -1089,13 +1356,25 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
 
         @Override
         public void run() {
+            if (queuedForDispatch) {
+                queuedForDispatch = false;
+                queuedDispatches.decrementAndGet();
+            }
+
+            final Provider active = provider;
+            if (active != null && active == dispatchedTo) {
+                LOG.trace("Failover Task already dispatched to the active provider: {} ({})", this, id);
+                return;
+            }
+
             requests.put(id, this);
-            if (provider == null) {
+            if (active == null) {
                 whenOffline(new IOException("Connection failed."));
             } else {
                 try {
                     LOG.debug("Executing Failover Task: {} ({})", this, id);
-                    doTask();
+                    dispatchedTo = active;
+                    doTask(active);
                 } catch (UnsupportedOperationException e) {
                     requests.remove(id);
                     getWrappedRequest().onFailure(e);
@@ -1110,6 +1389,35 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
             }
         }
 
+        /**
+         * Executes the task from the calling thread against the active Provider, falling
+         * back to the serializer if the connection was lost since the request was created.
+         */
+        public void runDirect() {
+            final Provider active = provider;
+            if (active == null) {
+                dispatch(this);
+                return;
+            }
+
+            // Recorded before the request becomes visible to a recovery that might replay it.
+            dispatchedTo = active;
+            requests.put(id, this);
+            try {
+                LOG.trace("Executing Failover Task directly: {} ({})", this, id);
+                doTask(active);
+            } catch (UnsupportedOperationException e) {
+                requests.remove(id);
+                getWrappedRequest().onFailure(e);
+            } catch (JMSException jmsEx) {
+                requests.remove(id);
+                getWrappedRequest().onFailure(jmsEx);
+            } catch (Throwable e) {
+                LOG.debug("Caught exception while executing task: {} - {}", this, e.getMessage());
+                onFailure(IOExceptionSupport.create(e));
+            }
+        }
+
         @Override
         public void onFailure(final Throwable error) {
             if (error instanceof JMSException || closingConnection.get() || closed.get() || failed.get()) {
@@ -1137,9 +1445,12 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         /**
          * Called to execute the specific task that was requested.
          *
+         * @param provider
+         *        the Provider instance the task is dispatched to.
+         *
          * @throws Exception if an error occurs during task execution.
          */
-        public abstract void doTask() throws Exception;
+        public abstract void doTask(Provider provider) throws Exception;
 
         /**
          * Should the request just succeed when the Provider is not connected.
@@ -1213,6 +1524,7 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
                 processAlternates(provider.getAlternateURIs());
                 listener.onConnectionEstablished(provider.getRemoteURI());
                 reconnectControl.connectionEstablished();
+                enableDirectDispatch(provider);
                 CreateConnectionRequest.this.signalConnected();
             });
         }
@@ -1238,6 +1550,56 @@ public class FailoverProvider extends DefaultProviderListener implements Provide
         }
     }
 
+    /**
+     * Tracks the Providers created by the attempts of a single connect race so that those
+     * still connecting can be closed once the race has been decided.
+     */
+    private static final class ConnectRace {
+
+        private final AtomicBoolean over = new AtomicBoolean();
+        private final List<Provider> contenders = new ArrayList<Provider>();
+
+        public boolean isOver() {
+            return over.get();
+        }
+
+        /**
+         * @return true if this call ended the race, false if it had already ended.
+         */
+        public boolean finish() {
+            return over.compareAndSet(false, true);
+        }
+
+        public void enter(Provider contender) throws IOException {
+            synchronized (contenders) {
+                if (!isOver()) {
+                    contenders.add(contender);
+                    return;
+                }
+            }
+
+            throw new IOException("Connect race has already been decided");
+        }
+
+        public void closeContenders(Provider winner) {
+            List<Provider> losers;
+            synchronized (contenders) {
+                losers = new ArrayList<Provider>(contenders);
+                contenders.clear();
+            }
+
+            for (Provider loser : losers) {
+                if (loser != winner) {
+                    try {
+                        loser.close();
+                    } catch (Throwable error) {
+                        LOG.trace("Caught exception while closing losing provider: {}", error.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
     private static enum FailoverServerListAction {
         ADD, REPLACE, IGNORE
     }
@@ -22,9 +22,12 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.qpid.jms.util.URISupport;
@@ -40,10 +43,18 @@ public class FailoverUriPool {
     private static final Logger LOG = LoggerFactory.getLogger(FailoverUriPool.class);
 
     public static final boolean DEFAULT_RANDOMIZE_ENABLED = false;
+    public static final boolean DEFAULT_LATENCY_AWARE_ENABLED = false;
+
+    // Weight given to the newest sample in the connect statistics moving averages, and
+    // the cost added to a URI's score for a failure rate of one.
+    private static final double STATISTICS_SMOOTHING = 0.3;
+    private static final long FAILURE_COST = TimeUnit.SECONDS.toNanos(10);
 
     private final LinkedList<URI> uris;
+    private final Map<URI, ConnectStatistics> statistics = new HashMap<>();
     private final Map<String, String> nestedOptions;
     private final AtomicBoolean randomize = new AtomicBoolean(DEFAULT_RANDOMIZE_ENABLED);
+    private final AtomicBoolean latencyAware = new AtomicBoolean(DEFAULT_LATENCY_AWARE_ENABLED);
 
     public FailoverUriPool() {
         this.uris = new LinkedList<URI>();
@@ -115,6 +126,77 @@ public class FailoverUriPool {
         }
     }
 
+    /**
+     * Records that a connection attempt to the given URI completed successfully, updating
+     * the moving averages of connect latency and failure rate kept for that URI.
+     *
+     * @param uri
+     *        The URI that was connected to.
+     * @param latency
+     *        The time in nanoseconds that the connection attempt took.
+     */
+    public void connectSucceeded(URI uri, long latency) {
+        if (uri == null) {
+            return;
+        }
+
+        synchronized (uris) {
+            connectStatistics(uri).recordSuccess(latency);
+        }
+    }
+
+    /**
+     * Records that a connection attempt to the given URI failed, updating the moving
+     * average of the failure rate kept for that URI.
+     *
+     * @param uri
+     *        The URI that could not be connected to.
+     */
+    public void connectFailed(URI uri) {
+        if (uri == null) {
+            return;
+        }
+
+        synchronized (uris) {
+            connectStatistics(uri).recordFailure();
+        }
+    }
+
+    /**
+     * Called before a new cycle of connection attempts begins.  If the pool is latency
+     * aware the URIs are reordered so that those with the lowest expected connect cost
+     * are returned first, URIs without any recorded attempts are treated as the fastest
+     * and URIs with equal cost keep their current relative order.
+     */
+    public void prioritize() {
+        if (isLatencyAware()) {
+            synchronized (uris) {
+                uris.sort(Comparator.comparingDouble(uri -> {
+                    ConnectStatistics stats = statistics.get(uri);
+                    return stats == null ? 0 : stats.getScore();
+                }));
+            }
+        }
+    }
+
+    /**
+     * @return true if this pool orders the URIs by their connect history.
+     */
+    public boolean isLatencyAware() {
+        return latencyAware.get();
+    }
+
+    /**
+     * Sets whether the pool orders the URIs it returns using the moving averages of the
+     * connect latency and failure rate recorded for each URI.
+     *
+     * @param latencyAware
+     *        true to have the URIs ordered by their connect history.
+     */
+    public void setLatencyAware(boolean latencyAware) {
+        this.latencyAware.set(latencyAware);
+    }
+
     /**
      * @return true if this pool returns the URI values in random order.
      */
@@ -231,6 +313,7 @@ public class FailoverUriPool {
         synchronized (uris) {
             for (URI candidate : uris) {
                 if (compareURIs(uri, candidate)) {
+                    statistics.remove(candidate);
                     return uris.remove(candidate);
                 }
             }
@@ -246,6 +329,7 @@ public class FailoverUriPool {
     public void removeAll() {
         synchronized (uris) {
             uris.clear();
+            statistics.clear();
         }
     }
 
@@ -260,6 +344,7 @@ public class FailoverUriPool {
         synchronized (uris) {
             uris.clear();
             addAll(replacements);
+            statistics.keySet().retainAll(uris);
         }
     }
 
@@ -293,6 +378,16 @@ public class FailoverUriPool {
 
     //----- Internal methods that require the locks be held ------------------//
 
+    private ConnectStatistics connectStatistics(URI uri) {
+        ConnectStatistics stats = statistics.get(uri);
+        if (stats == null) {
+            stats = new ConnectStatistics();
+            statistics.put(uri, stats);
+        }
+
+        return stats;
+    }
+
     private boolean contains(URI newURI) {
         boolean result = false;
         for (URI uri : uris) {
@@ -336,4 +431,30 @@ public class FailoverUriPool {
 
         return result;
     }
+
+    //----- Connect statistics tracked per URI -------------------------------//
+
+    private static final class ConnectStatistics {
+
+        private double averageLatency = -1;
+        private double failureRate;
+
+        public void recordSuccess(long latency) {
+            if (averageLatency < 0) {
+                averageLatency = latency;
+            } else {
+                averageLatency += STATISTICS_SMOOTHING * (latency - averageLatency);
+            }
+
+            failureRate -= STATISTICS_SMOOTHING * failureRate;
+        }
+
+        public void recordFailure() {
+            failureRate += STATISTICS_SMOOTHING * (1.0 - failureRate);
+        }
+
+        public double getScore() {
+            return Math.max(averageLatency, 0) + failureRate * FAILURE_COST;
+        }
+    }
 }
@@ -21,17 +21,32 @@ import java.security.InvalidKeyException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
+import java.security.SecureRandom;
 import java.util.Arrays;
 import java.util.Base64;
+import java.util.Objects;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import javax.security.sasl.SaslException;
 
+import org.apache.qpid.jms.util.LRUCache;
+
 abstract class AbstractScramSHAMechanism extends AbstractMechanism {
     private static final byte[] INT_1 = new byte[]{0, 0, 0, 1};
     private static final String GS2_HEADER = "n,,";
 
+    // Keys derived from a salted password, reused when the same credentials are presented with
+    // the same salt and iteration count, for example when many connections reconnect at once.
+    // Passwords are only held as an HMAC keyed by a per-process random secret.
+    private static final int KEY_CACHE_SIZE = 256;
+    private static final LRUCache<KeyCacheEntry, ScramKeys> KEY_CACHE = new LRUCache<>(KEY_CACHE_SIZE);
+    private static final byte[] KEY_CACHE_SECRET = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(KEY_CACHE_SECRET);
+    }
+
     private final String clientNonce;
     private final String digestName;
     private final String hmacName;
@@ -136,8 +151,12 @@ abstract class AbstractScramSHAMechanism extends AbstractMechanism {
                 throw new SaslException("Iteration count " + iterationCount + " is not a positive integer");
             }
             byte[] passwordBytes = saslPrep(new String(getPassword())).getBytes(StandardCharsets.UTF_8);
-            byte[] saltedPassword = generateSaltedPassword(passwordBytes);
-
+            ScramKeys keys;
+            try {
+                keys = getScramKeys(passwordBytes);
+            } finally {
+                Arrays.fill(passwordBytes, (byte) 0);
+            }
 
             String clientFinalMessageWithoutProof =
                     "c=" + Base64.getEncoder().encodeToString(GS2_HEADER.getBytes(StandardCharsets.US_ASCII))
@@ -146,8 +165,8 @@ abstract class AbstractScramSHAMechanism extends AbstractMechanism {
             String authMessage = clientFirstMessageBare
                     + "," + serverFirstMessage + "," + clientFinalMessageWithoutProof;
 
-            byte[] clientKey = computeHmac(saltedPassword, "Client Key");
-            byte[] storedKey = MessageDigest.getInstance(digestName).digest(clientKey);
+            byte[] clientKey = keys.clientKey;
+            byte[] storedKey = keys.storedKey;
 
             byte[] clientSignature = computeHmac(storedKey, authMessage);
 
@@ -155,8 +174,7 @@ abstract class AbstractScramSHAMechanism extends AbstractMechanism {
             for (int i = 0; i < clientProof.length; i++) {
                 clientProof[i] ^= clientSignature[i];
             }
-            byte[] serverKey = computeHmac(saltedPassword, "Server Key");
-            serverSignature = computeHmac(serverKey, authMessage);
+            serverSignature = computeHmac(keys.serverKey, authMessage);
 
             String finalMessageWithProof = clientFinalMessageWithoutProof
                     + ",p=" + Base64.getEncoder().encodeToString(clientProof);
@@ -184,6 +202,31 @@ abstract class AbstractScramSHAMechanism extends AbstractMechanism {
         return mac.doFinal();
     }
 
+    private ScramKeys getScramKeys(final byte[] passwordBytes) throws SaslException, NoSuchAlgorithmException {
+        KeyCacheEntry cacheEntry = new KeyCacheEntry(
+            hmacName, getUsername(), salt, iterationCount, createHmac(KEY_CACHE_SECRET).doFinal(passwordBytes));
+
+        ScramKeys keys;
+        synchronized (KEY_CACHE) {
+            keys = KEY_CACHE.get(cacheEntry);
+        }
+
+        if (keys == null) {
+            byte[] saltedPassword = generateSaltedPassword(passwordBytes);
+            byte[] clientKey = computeHmac(saltedPassword, "Client Key");
+            byte[] storedKey = MessageDigest.getInstance(digestName).digest(clientKey);
+            byte[] serverKey = computeHmac(saltedPassword, "Server Key");
+            Arrays.fill(saltedPassword, (byte) 0);
+
+            keys = new ScramKeys(clientKey, storedKey, serverKey);
+            synchronized (KEY_CACHE) {
+                KEY_CACHE.put(cacheEntry, keys);
+            }
+        }
+
+        return keys;
+    }
+
     private byte[] generateSaltedPassword(final byte[] passwordBytes) throws SaslException {
         Mac mac = createHmac(passwordBytes);
 
@@ -229,4 +272,58 @@ abstract class AbstractScramSHAMechanism extends AbstractMechanism {
         name = name.replace(",", "=2C");
         return name;
     }
+
+    private static final class ScramKeys {
+
+        private final byte[] clientKey;
+        private final byte[] storedKey;
+        private final byte[] serverKey;
+
+        public ScramKeys(byte[] clientKey, byte[] storedKey, byte[] serverKey) {
+            this.clientKey = clientKey;
+            this.storedKey = storedKey;
+            this.serverKey = serverKey;
+        }
+    }
+
+    private static final class KeyCacheEntry {
+
+        private final String hmacName;
+        private final String username;
+        private final byte[] salt;
+        private final int iterationCount;
+        private final byte[] passwordHmac;
+
+        public KeyCacheEntry(String hmacName, String username, byte[] salt, int iterationCount, byte[] passwordHmac) {
+            this.hmacName = hmacName;
+            this.username = username;
+            this.salt = salt.clone();
+            this.iterationCount = iterationCount;
+            this.passwordHmac = passwordHmac;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hmacName, username, iterationCount) * 31 + Arrays.hashCode(salt);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof KeyCacheEntry)) {
+                return false;
+            }
+
+            KeyCacheEntry other = (KeyCacheEntry) obj;
+
+            return iterationCount == other.iterationCount &&
+                   hmacName.equals(other.hmacName) &&
+                   username.equals(other.username) &&
+                   Arrays.equals(salt, other.salt) &&
+                   MessageDigest.isEqual(passwordHmac, other.passwordHmac);
+        }
+    }
 }
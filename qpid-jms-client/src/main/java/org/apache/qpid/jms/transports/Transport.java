@@ -81,6 +81,24 @@ public interface Transport {
      */
     void send(ByteBuf output) throws IOException;
 
+    /**
+     * Writes a chunk of data to the Transport connection without flushing it, the data
+     * is not guaranteed to be transmitted until the next call to {@link #flush()}.
+     *
+     * @param output
+     *        The buffer of data that is to be transmitted.
+     *
+     * @throws IOException if an error occurs during the write operation.
+     */
+    void write(ByteBuf output) throws IOException;
+
+    /**
+     * Flushes all data previously written to the Transport connection.
+     *
+     * @throws IOException if an error occurs during the flush operation.
+     */
+    void flush() throws IOException;
+
     /**
      * Gets the currently set TransportListener instance
      *
@@ -33,6 +33,10 @@ public class TransportOptions implements Cloneable {
     public static final boolean DEFAULT_USE_EPOLL = true;
     public static final boolean DEFAULT_USE_KQUEUE = false;
     public static final boolean DEFAULT_TRACE_BYTES = false;
+    public static final int DEFAULT_SHARED_EVENT_LOOP_THREADS = -1;
+    public static final boolean DEFAULT_WEBSOCKET_BATCHING = false;
+    public static final boolean DEFAULT_WEBSOCKET_COMPRESSION = false;
+    public static final int DEFAULT_WEBSOCKET_COMPRESSION_THRESHOLD = 1024;
 
     private int sendBufferSize = DEFAULT_SEND_BUFFER_SIZE;
     private int receiveBufferSize = DEFAULT_RECEIVE_BUFFER_SIZE;
@@ -46,6 +50,10 @@ public class TransportOptions implements Cloneable {
     private boolean useEpoll = DEFAULT_USE_EPOLL;
     private boolean useKQueue = DEFAULT_USE_KQUEUE;
     private boolean traceBytes = DEFAULT_TRACE_BYTES;
+    private int sharedEventLoopThreads = DEFAULT_SHARED_EVENT_LOOP_THREADS;
+    private boolean webSocketBatching = DEFAULT_WEBSOCKET_BATCHING;
+    private boolean webSocketCompression = DEFAULT_WEBSOCKET_COMPRESSION;
+    private int webSocketCompressionThreshold = DEFAULT_WEBSOCKET_COMPRESSION_THRESHOLD;
 
     /**
      * @return the currently set send buffer size in bytes.
@@ -219,6 +227,82 @@ public class TransportOptions implements Cloneable {
         this.traceBytes = traceBytes;
     }
 
+    /**
+     * @return the number of threads in the shared event loop group, or a value &lt;= 0 if disabled.
+     */
+    public int getSharedEventLoopThreads() {
+        return sharedEventLoopThreads;
+    }
+
+    /**
+     * Sets the number of threads in an event loop group that is shared between all the
+     * transports in the process that are configured with the same value, each connection
+     * remains bound to a single event loop of the group.  A value &lt;= 0 (the default) gives
+     * each transport its own single threaded event loop group.
+     *
+     * @param sharedEventLoopThreads
+     * 		the number of threads in the shared event loop group, or &lt;= 0 to disable sharing.
+     */
+    public void setSharedEventLoopThreads(int sharedEventLoopThreads) {
+        this.sharedEventLoopThreads = sharedEventLoopThreads;
+    }
+
+    /**
+     * @return true if WebSocket transports should batch written frames into a single WebSocket frame.
+     */
+    public boolean isWebSocketBatching() {
+        return webSocketBatching;
+    }
+
+    /**
+     * Determines if a WebSocket transport collects the AMQP frames written between flushes
+     * and sends them as a single binary WebSocket frame instead of one WebSocket frame for
+     * each AMQP frame.  A batch is never allowed to grow beyond the maximum frame size.
+     *
+     * @param webSocketBatching
+     * 		should written frames be batched into a single WebSocket frame.
+     */
+    public void setWebSocketBatching(boolean webSocketBatching) {
+        this.webSocketBatching = webSocketBatching;
+    }
+
+    /**
+     * @return true if WebSocket transports should offer the permessage-deflate extension.
+     */
+    public boolean isWebSocketCompression() {
+        return webSocketCompression;
+    }
+
+    /**
+     * Determines if a WebSocket transport offers the permessage-deflate extension during
+     * the handshake, frames are only compressed if the remote accepts the extension.
+     *
+     * @param webSocketCompression
+     * 		should the permessage-deflate extension be offered.
+     */
+    public void setWebSocketCompression(boolean webSocketCompression) {
+        this.webSocketCompression = webSocketCompression;
+    }
+
+    /**
+     * @return the size in bytes below which WebSocket frames are sent uncompressed.
+     */
+    public int getWebSocketCompressionThreshold() {
+        return webSocketCompressionThreshold;
+    }
+
+    /**
+     * Sets the size in bytes below which WebSocket frames are sent without compression when
+     * the permessage-deflate extension is in use, small frames gain little from compression
+     * and cost the same CPU to deflate and inflate on each side.
+     *
+     * @param webSocketCompressionThreshold
+     * 		the minimum size in bytes of a WebSocket frame that is compressed.
+     */
+    public void setWebSocketCompressionThreshold(int webSocketCompressionThreshold) {
+        this.webSocketCompressionThreshold = webSocketCompressionThreshold;
+    }
+
     @Override
     public TransportOptions clone() {
         return copyOptions(new TransportOptions());
@@ -240,6 +324,10 @@ public class TransportOptions implements Cloneable {
         copy.setDefaultTcpPort(getDefaultTcpPort());
         copy.setUseEpoll(isUseEpoll());
         copy.setTraceBytes(isTraceBytes());
+        copy.setSharedEventLoopThreads(getSharedEventLoopThreads());
+        copy.setWebSocketBatching(isWebSocketBatching());
+        copy.setWebSocketCompression(isWebSocketCompression());
+        copy.setWebSocketCompressionThreshold(getWebSocketCompressionThreshold());
 
         return copy;
     }
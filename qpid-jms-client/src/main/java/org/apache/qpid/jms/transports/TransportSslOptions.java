@@ -34,6 +34,8 @@ public class TransportSslOptions extends TransportOptions {
     public static final String DEFAULT_CONTEXT_PROTOCOL = "TLS";
     public static final boolean DEFAULT_TRUST_ALL = false;
     public static final boolean DEFAULT_VERIFY_HOST = true;
+    public static final boolean DEFAULT_CACHE_SSL_CONTEXT = false;
+    public static final boolean DEFAULT_USE_OPENSSL = false;
     public static final List<String> DEFAULT_DISABLED_PROTOCOLS = Collections.unmodifiableList(Arrays.asList(new String[]{"SSLv2Hello", "SSLv3"}));
     public static final int DEFAULT_SSL_PORT = 5671;
 
@@ -61,6 +63,8 @@ public class TransportSslOptions extends TransportOptions {
     private String keyAlias;
     private int defaultSslPort = DEFAULT_SSL_PORT;
     private SSLContext sslContextOverride;
+    private boolean cacheSslContext = DEFAULT_CACHE_SSL_CONTEXT;
+    private boolean useOpenSSL = DEFAULT_USE_OPENSSL;
 
     public TransportSslOptions() {
         setKeyStoreLocation(System.getProperty(JAVAX_NET_SSL_KEY_STORE));
@@ -305,6 +309,47 @@ public class TransportSslOptions extends TransportOptions {
         return sslContextOverride;
     }
 
+    /**
+     * @return true if SSLContext instances are shared with other connections using the same settings.
+     */
+    public boolean isCacheSslContext() {
+        return cacheSslContext;
+    }
+
+    /**
+     * Sets whether the SSLContext created from these options should be taken from a cache
+     * shared by all connections in the process that use the same key store, trust store,
+     * alias and context protocol settings.  Sharing the context avoids reloading the stores
+     * on every connect and allows TLS sessions to be resumed on reconnect.  This applies to
+     * the OpenSSL context as well when an OpenSSL based engine is used.
+     *
+     * @param cacheSslContext
+     *        true if the SSLContext should be cached and shared.
+     */
+    public void setCacheSslContext(boolean cacheSslContext) {
+        this.cacheSslContext = cacheSslContext;
+    }
+
+    /**
+     * @return true if an OpenSSL based engine should be used when it is available.
+     */
+    public boolean isUseOpenSSL() {
+        return useOpenSSL;
+    }
+
+    /**
+     * Sets whether the transport should use an OpenSSL based SSLEngine provided by the
+     * netty-tcnative library instead of the JDK SSLEngine.  The JDK engine is still used
+     * when netty-tcnative is not on the classpath, an SSLContext override is supplied or
+     * a context protocol other than the default is configured.
+     *
+     * @param useOpenSSL
+     *        true if an OpenSSL based engine should be used when available.
+     */
+    public void setUseOpenSSL(boolean useOpenSSL) {
+        this.useOpenSSL = useOpenSSL;
+    }
+
     @Override
     public TransportSslOptions clone() {
         return copyOptions(new TransportSslOptions());
@@ -334,6 +379,8 @@ public class TransportSslOptions extends TransportOptions {
         copy.setContextProtocol(getContextProtocol());
         copy.setDefaultSslPort(getDefaultSslPort());
         copy.setSslContextOverride(getSslContextOverride());
+        copy.setCacheSslContext(isCacheSslContext());
+        copy.setUseOpenSSL(isUseOpenSSL());
 
         return copy;
     }
@@ -16,23 +16,39 @@
  */
 package org.apache.qpid.jms.transports;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
 import io.netty.handler.ssl.SslHandler;
+import io.netty.handler.ssl.SslProvider;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import io.netty.util.ReferenceCountUtil;
 
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.KeyStore;
 import java.security.KeyStoreException;
+import java.security.Provider;
 import java.security.SecureRandom;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 import javax.net.ssl.KeyManager;
 import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.KeyManagerFactorySpi;
+import javax.net.ssl.ManagerFactoryParameters;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLParameters;
@@ -41,6 +57,7 @@ import javax.net.ssl.TrustManagerFactory;
 import javax.net.ssl.X509ExtendedKeyManager;
 import javax.net.ssl.X509TrustManager;
 
+import org.apache.qpid.jms.util.LRUCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,13 +68,25 @@ public class TransportSupport {
 
     private static final Logger LOG = LoggerFactory.getLogger(TransportSupport.class);
 
+    // Store passwords are only held as an HMAC keyed by a per-process random secret.
+    private static final int SSL_CONTEXT_CACHE_SIZE = 64;
+    private static final LRUCache<SslContextKey, CachedSslContext> SSL_CONTEXT_CACHE = new SslContextCache(SSL_CONTEXT_CACHE_SIZE);
+    private static final String SSL_CONTEXT_CACHE_HMAC = "HmacSHA256";
+    private static final byte[] SSL_CONTEXT_CACHE_SECRET = new byte[32];
+
+    static {
+        new SecureRandom().nextBytes(SSL_CONTEXT_CACHE_SECRET);
+    }
+
     /**
      * Creates a Netty SslHandler instance for use in Transports that require
      * an SSL encoder / decoder.
      *
-     * If the given options contain an SSLContext override, this will be used directly
-     * when creating the handler. If they do not, an SSLContext will first be created
-     * using the other option values.
+     * If the options request OpenSSL and it can be used, the handler wraps an OpenSSL
+     * based engine.  Otherwise, if the given options contain an SSLContext override,
+     * this will be used directly when creating the handler. If they do not, an SSLContext
+     * will first be created using the other option values.  In both cases the context is
+     * taken from the shared cache instead when the options enable SSLContext caching.
      *
      * @param remote
      *        The URI of the remote peer that the SslHandler will be used against.
@@ -69,16 +98,142 @@ public class TransportSupport {
      * @throws Exception if an error occurs while creating the SslHandler instance.
      */
     public static SslHandler createSslHandler(URI remote, TransportSslOptions options) throws Exception {
-        SSLContext sslContext = options.getSslContextOverride();
-        if(sslContext == null) {
-            sslContext = createSslContext(options);
-        }
+        final SSLEngine sslEngine;
+
+        if (isOpenSSLPossible(options)) {
+            SslContext sslContext;
+            if (options.isCacheSslContext()) {
+                sslContext = getCachedOpenSslContext(options);
+            } else {
+                sslContext = createOpenSslContext(options);
+            }
 
-        SSLEngine sslEngine = createSslEngine(remote, sslContext, options);
+            try {
+                sslEngine = createOpenSslEngine(ByteBufAllocator.DEFAULT, remote, sslContext, options);
+            } finally {
+                // The engine holds its own reference to the context
+                ReferenceCountUtil.release(sslContext);
+            }
+        } else {
+            SSLContext sslContext = options.getSslContextOverride();
+            if(sslContext == null) {
+                if (options.isCacheSslContext()) {
+                    sslContext = getCachedSslContext(options);
+                } else {
+                    sslContext = createSslContext(options);
+                }
+            }
+
+            sslEngine = createSslEngine(remote, sslContext, options);
+        }
 
         return new SslHandler(sslEngine);
     }
 
+    /**
+     * Determines if OpenSSL should and can be used for the given options.  OpenSSL is
+     * only used when it has been requested, the netty-tcnative native library could be
+     * loaded, no SSLContext override has been supplied and the native library allows
+     * key material to be provided through a KeyManagerFactory.
+     *
+     * @param options
+     *        the configured options to check.
+     *
+     * @return true if an OpenSSL based engine should be created for the given options.
+     */
+    public static boolean isOpenSSLPossible(TransportSslOptions options) {
+        if (!options.isUseOpenSSL()) {
+            return false;
+        }
+
+        if (options.getSslContextOverride() != null) {
+            LOG.debug("OpenSSL not used because an SSLContext override was supplied");
+            return false;
+        }
+
+        // The OpenSSL context always negotiates the highest protocol both peers enable, so it
+        // can not give the meaning that the JDK gives to a specific SSLContext protocol.
+        if (!TransportSslOptions.DEFAULT_CONTEXT_PROTOCOL.equals(options.getContextProtocol())) {
+            LOG.debug("OpenSSL not used because context protocol {} was configured", options.getContextProtocol());
+            return false;
+        }
+
+        if (!OpenSsl.isAvailable()) {
+            LOG.debug("OpenSSL not used because it is not available: {}", String.valueOf(OpenSsl.unavailabilityCause()));
+            return false;
+        }
+
+        if (options.getKeyStoreLocation() != null && !OpenSsl.supportsKeyManagerFactory()) {
+            LOG.debug("OpenSSL not used because version {} does not support a KeyManagerFactory", OpenSsl.versionString());
+            return false;
+        }
+
+        LOG.trace("OpenSSL version {} will be used", OpenSsl.versionString());
+        return true;
+    }
+
+    /**
+     * Create a new OpenSSL based Netty SslContext using the options specified in the given
+     * TransportSslOptions instance.  The returned context is reference counted and must be
+     * released once no more engines will be created from it.
+     *
+     * @param options
+     *        the configured options used to create the SslContext.
+     *
+     * @return a new SslContext instance.
+     *
+     * @throws Exception if an error occurs while creating the context.
+     */
+    public static SslContext createOpenSslContext(TransportSslOptions options) throws Exception {
+        try {
+            SslContextBuilder builder = SslContextBuilder.forClient().sslProvider(SslProvider.OPENSSL_REFCNT);
+
+            KeyManager[] keyMgrs = loadKeyManagers(options);
+            if (keyMgrs != null) {
+                builder.keyManager(new FixedKeyManagerFactory(keyMgrs));
+            }
+
+            if (options.isTrustAll()) {
+                builder.trustManager(InsecureTrustManagerFactory.INSTANCE);
+            } else {
+                builder.trustManager(loadTrustManagerFactory(options));
+            }
+
+            return builder.build();
+        } catch (Exception e) {
+            LOG.error("Failed to create OpenSSL SslContext: {}", e, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Create a new OpenSSL based SSLEngine instance in client mode from the given SslContext
+     * and TransportSslOptions instances.
+     *
+     * @param allocator
+     *        the ByteBufAllocator the engine uses for its buffers.
+     * @param remote
+     *        the URI of the remote peer that will be used to initialize the engine, may be null if none should.
+     * @param context
+     *        the OpenSSL based SslContext to use when creating the engine.
+     * @param options
+     *        the TransportSslOptions to use to configure the new SSLEngine.
+     *
+     * @return a new SSLEngine instance in client mode.
+     *
+     * @throws Exception if an error occurs while creating the new SSLEngine.
+     */
+    public static SSLEngine createOpenSslEngine(ByteBufAllocator allocator, URI remote, SslContext context, TransportSslOptions options) throws Exception {
+        SSLEngine engine = null;
+        if(remote == null) {
+            engine = context.newEngine(allocator);
+        } else {
+            engine = context.newEngine(allocator, remote.getHost(), remote.getPort());
+        }
+
+        return configureSslEngine(engine, options);
+    }
+
     /**
      * Create a new SSLContext using the options specific in the given TransportSslOptions
      * instance.
@@ -107,6 +262,95 @@ public class TransportSupport {
         }
     }
 
+    /**
+     * Returns an SSLContext for the given options from the process wide cache, creating
+     * and caching a new one if none exists yet for the same store, password, type, alias
+     * and protocol settings.  A cached context is replaced once the key store or trust
+     * store file it was loaded from has been modified, and the least recently used
+     * contexts are evicted once the cache holds contexts for many different settings.
+     *
+     * Sharing the SSLContext also shares its client session cache, so connections to a
+     * host and port that were handshaken with before can resume the earlier TLS session.
+     *
+     * @param options
+     *        the configured options used to look up or create the SSLContext.
+     *
+     * @return a cached or newly created SSLContext instance.
+     *
+     * @throws Exception if an error occurs while creating the context.
+     */
+    public static SSLContext getCachedSslContext(TransportSslOptions options) throws Exception {
+        return getCachedContext(options, false).context;
+    }
+
+    /**
+     * Returns an OpenSSL based Netty SslContext for the given options from the process wide
+     * cache, creating and caching a new one in the same way as {@link #getCachedSslContext}.
+     * The cache holds its own reference to the context, the returned context has been retained
+     * for the caller and must be released once no more engines will be created from it.
+     *
+     * @param options
+     *        the configured options used to look up or create the SslContext.
+     *
+     * @return a cached or newly created SslContext instance.
+     *
+     * @throws Exception if an error occurs while creating the context.
+     */
+    public static SslContext getCachedOpenSslContext(TransportSslOptions options) throws Exception {
+        return getCachedContext(options, true).openSslContext;
+    }
+
+    private static CachedSslContext getCachedContext(TransportSslOptions options, boolean openSsl) throws Exception {
+        SslContextKey key = new SslContextKey(options, openSsl);
+        long keyStoreStamp = fileStamp(options.getKeyStoreLocation());
+        long trustStoreStamp = options.isTrustAll() ? 0 : fileStamp(options.getTrustStoreLocation());
+
+        synchronized (SSL_CONTEXT_CACHE) {
+            CachedSslContext cached = SSL_CONTEXT_CACHE.get(key);
+            if (cached != null && cached.isCurrent(keyStoreStamp, trustStoreStamp)) {
+                return cached.retain();
+            }
+        }
+
+        LOG.trace("Creating {} for the shared cache", openSsl ? "OpenSSL SslContext" : "SSLContext");
+        CachedSslContext created;
+        if (openSsl) {
+            created = new CachedSslContext(createOpenSslContext(options), keyStoreStamp, trustStoreStamp);
+        } else {
+            created = new CachedSslContext(createSslContext(options), keyStoreStamp, trustStoreStamp);
+        }
+
+        synchronized (SSL_CONTEXT_CACHE) {
+            // Prefer a current context that another thread cached while this one was created
+            CachedSslContext cached = SSL_CONTEXT_CACHE.get(key);
+            if (cached != null && cached.isCurrent(keyStoreStamp, trustStoreStamp)) {
+                created.release();
+                return cached.retain();
+            }
+
+            cached = SSL_CONTEXT_CACHE.put(key, created);
+            if (cached != null) {
+                cached.release();
+            }
+
+            return created.retain();
+        }
+    }
+
+    /**
+     * Removes all SSLContext instances from the process wide cache so that later
+     * connections create new ones.
+     */
+    public static void clearSslContextCache() {
+        synchronized (SSL_CONTEXT_CACHE) {
+            for (CachedSslContext cached : SSL_CONTEXT_CACHE.values()) {
+                cached.release();
+            }
+
+            SSL_CONTEXT_CACHE.clear();
+        }
+    }
+
     /**
      * Create a new SSLEngine instance in client mode from the given SSLContext and
      * TransportSslOptions instances.
@@ -147,16 +391,23 @@ public class TransportSupport {
             engine = context.createSSLEngine(remote.getHost(), remote.getPort());
         }
 
-        engine.setEnabledProtocols(buildEnabledProtocols(engine, options));
-        engine.setEnabledCipherSuites(buildEnabledCipherSuites(engine, options));
+        return configureSslEngine(engine, options);
+    }
+
+    private static SSLEngine configureSslEngine(SSLEngine engine, TransportSslOptions options) {
         engine.setUseClientMode(true);
 
+        // Set before the protocols, applying parameters to an OpenSSL engine can otherwise
+        // re-enable protocols that were not requested.
         if (options.isVerifyHost()) {
             SSLParameters sslParameters = engine.getSSLParameters();
             sslParameters.setEndpointIdentificationAlgorithm("HTTPS");
             engine.setSSLParameters(sslParameters);
         }
 
+        engine.setEnabledProtocols(buildEnabledProtocols(engine, options));
+        engine.setEnabledCipherSuites(buildEnabledCipherSuites(engine, options));
+
         return engine;
     }
 
@@ -219,6 +470,14 @@ public class TransportSupport {
             return null;
         }
 
+        return loadTrustManagerFactory(options).getTrustManagers();
+    }
+
+    private static TrustManagerFactory loadTrustManagerFactory(TransportSslOptions options) throws Exception {
+        if (options.getTrustStoreLocation() == null) {
+            return null;
+        }
+
         TrustManagerFactory fact = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
 
         String storeLocation = options.getTrustStoreLocation();
@@ -230,7 +489,7 @@ public class TransportSupport {
         KeyStore trustStore = loadStore(storeLocation, storePassword, storeType);
         fact.init(trustStore);
 
-        return fact.getTrustManagers();
+        return fact;
     }
 
     private static KeyManager[] loadKeyManagers(TransportSslOptions options) throws Exception {
@@ -291,6 +550,15 @@ public class TransportSupport {
         return store;
     }
 
+    private static long fileStamp(String location) {
+        if (location == null) {
+            return 0;
+        }
+
+        File file = new File(location);
+        return file.lastModified() * 31 + file.length();
+    }
+
     private static TrustManager createTrustAllTrustManager() {
         return new X509TrustManager() {
             @Override
@@ -307,4 +575,154 @@ public class TransportSupport {
             }
         };
     }
+
+    /**
+     * KeyManagerFactory that returns already configured KeyManager instances, allowing
+     * the key alias wrapper to be used with builders that only accept a factory.
+     */
+    private static final class FixedKeyManagerFactory extends KeyManagerFactory {
+
+        public FixedKeyManagerFactory(final KeyManager[] keyManagers) {
+            super(new KeyManagerFactorySpi() {
+
+                @Override
+                protected void engineInit(KeyStore keyStore, char[] password) {
+                }
+
+                @Override
+                protected void engineInit(ManagerFactoryParameters params) {
+                }
+
+                @Override
+                protected KeyManager[] engineGetKeyManagers() {
+                    return keyManagers.clone();
+                }
+            }, new Provider("FixedKeyManagerFactory", 1.0, "") {
+                private static final long serialVersionUID = 1L;
+            }, KeyManagerFactory.getDefaultAlgorithm());
+        }
+    }
+
+    private static final class SslContextKey {
+
+        private final String contextProtocol;
+        private final String keyStoreLocation;
+        private final byte[] keyStorePasswordHmac;
+        private final String keyStoreType;
+        private final String keyAlias;
+        private final String trustStoreLocation;
+        private final byte[] trustStorePasswordHmac;
+        private final String trustStoreType;
+        private final boolean trustAll;
+        private final boolean openSsl;
+
+        public SslContextKey(TransportSslOptions options, boolean openSsl) throws GeneralSecurityException {
+            this.openSsl = openSsl;
+            this.contextProtocol = options.getContextProtocol();
+            this.keyStoreLocation = options.getKeyStoreLocation();
+            this.keyStorePasswordHmac = hashPassword(options.getKeyStorePassword());
+            this.keyStoreType = options.getKeyStoreType();
+            this.keyAlias = options.getKeyAlias();
+            this.trustAll = options.isTrustAll();
+
+            // Trust store settings are not used when trusting all peers
+            this.trustStoreLocation = trustAll ? null : options.getTrustStoreLocation();
+            this.trustStorePasswordHmac = trustAll ? null : hashPassword(options.getTrustStorePassword());
+            this.trustStoreType = trustAll ? null : options.getTrustStoreType();
+        }
+
+        private static byte[] hashPassword(String password) throws GeneralSecurityException {
+            if (password == null) {
+                return null;
+            }
+
+            Mac mac = Mac.getInstance(SSL_CONTEXT_CACHE_HMAC);
+            mac.init(new SecretKeySpec(SSL_CONTEXT_CACHE_SECRET, SSL_CONTEXT_CACHE_HMAC));
+            return mac.doFinal(password.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(contextProtocol, keyStoreLocation, keyStoreType, keyAlias,
+                                trustStoreLocation, trustStoreType, trustAll, openSsl);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof SslContextKey)) {
+                return false;
+            }
+
+            SslContextKey other = (SslContextKey) obj;
+
+            return trustAll == other.trustAll &&
+                   openSsl == other.openSsl &&
+                   Objects.equals(contextProtocol, other.contextProtocol) &&
+                   Objects.equals(keyStoreLocation, other.keyStoreLocation) &&
+                   Arrays.equals(keyStorePasswordHmac, other.keyStorePasswordHmac) &&
+                   Objects.equals(keyStoreType, other.keyStoreType) &&
+                   Objects.equals(keyAlias, other.keyAlias) &&
+                   Objects.equals(trustStoreLocation, other.trustStoreLocation) &&
+                   Arrays.equals(trustStorePasswordHmac, other.trustStorePasswordHmac) &&
+                   Objects.equals(trustStoreType, other.trustStoreType);
+        }
+    }
+
+    /*
+     * Holds either a JDK SSLContext or an OpenSSL SslContext, the cache owns one reference to
+     * an OpenSSL context which it releases once the context is evicted, replaced or cleared.
+     */
+    private static final class CachedSslContext {
+
+        private final SSLContext context;
+        private final SslContext openSslContext;
+        private final long keyStoreStamp;
+        private final long trustStoreStamp;
+
+        public CachedSslContext(SSLContext context, long keyStoreStamp, long trustStoreStamp) {
+            this(context, null, keyStoreStamp, trustStoreStamp);
+        }
+
+        public CachedSslContext(SslContext openSslContext, long keyStoreStamp, long trustStoreStamp) {
+            this(null, openSslContext, keyStoreStamp, trustStoreStamp);
+        }
+
+        private CachedSslContext(SSLContext context, SslContext openSslContext, long keyStoreStamp, long trustStoreStamp) {
+            this.context = context;
+            this.openSslContext = openSslContext;
+            this.keyStoreStamp = keyStoreStamp;
+            this.trustStoreStamp = trustStoreStamp;
+        }
+
+        public boolean isCurrent(long keyStoreStamp, long trustStoreStamp) {
+            return this.keyStoreStamp == keyStoreStamp && this.trustStoreStamp == trustStoreStamp;
+        }
+
+        public CachedSslContext retain() {
+            ReferenceCountUtil.retain(openSslContext);
+            return this;
+        }
+
+        public void release() {
+            ReferenceCountUtil.release(openSslContext);
+        }
+    }
+
+    private static final class SslContextCache extends LRUCache<SslContextKey, CachedSslContext> {
+
+        private static final long serialVersionUID = 1L;
+
+        public SslContextCache(int maximumCacheSize) {
+            super(maximumCacheSize);
+        }
+
+        @Override
+        protected void onCacheEviction(Map.Entry<SslContextKey, CachedSslContext> eldest) {
+            eldest.getValue().release();
+        }
+    }
 }
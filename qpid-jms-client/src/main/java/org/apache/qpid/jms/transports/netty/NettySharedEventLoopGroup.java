@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.transports.netty;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.kqueue.KQueueEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.util.concurrent.Future;
+
+/**
+ * Reference counted registry of EventLoopGroup instances that are shared between
+ * all transports configured with the same IO mode and thread count.
+ *
+ * Netty assigns each channel to a single event loop in the group for its lifetime
+ * so the IO for any one connection remains ordered while the total number of IO
+ * threads in the process stays bounded regardless of the number of connections.
+ * The group is shut down once the last transport using it has released it.
+ */
+public final class NettySharedEventLoopGroup {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NettySharedEventLoopGroup.class);
+
+    public enum IOMode {
+        NIO,
+        EPOLL,
+        KQUEUE
+    }
+
+    private static final Map<String, NettySharedEventLoopGroup> SHARED_GROUPS = new HashMap<>();
+
+    private final String key;
+    private final EventLoopGroup group;
+    private int references;
+
+    private NettySharedEventLoopGroup(String key, EventLoopGroup group) {
+        this.key = key;
+        this.group = group;
+    }
+
+    /**
+     * Acquires a reference to the shared group for the given IO mode and thread
+     * count, creating the group if no transport currently holds a reference to it.
+     *
+     * @param mode
+     *        the IO mode of the transport requesting the group.
+     * @param threads
+     *        the number of event loop threads the shared group should use.
+     *
+     * @return a shared group reference that must be released when no longer used.
+     */
+    public static NettySharedEventLoopGroup acquire(IOMode mode, int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Shared event loop thread count must be > 0");
+        }
+
+        final String key = mode.name() + ":" + threads;
+
+        synchronized (SHARED_GROUPS) {
+            NettySharedEventLoopGroup shared = SHARED_GROUPS.get(key);
+            if (shared == null) {
+                LOG.trace("Creating shared {} event loop group with {} threads", mode, threads);
+                shared = new NettySharedEventLoopGroup(key, createGroup(mode, threads));
+                SHARED_GROUPS.put(key, shared);
+            }
+
+            shared.references++;
+            return shared;
+        }
+    }
+
+    /**
+     * @return the EventLoopGroup that is shared by all holders of this reference.
+     */
+    public EventLoopGroup getGroup() {
+        return group;
+    }
+
+    /**
+     * Releases a reference to the shared group, the group is shut down when the
+     * last reference is released.
+     *
+     * @param timeout
+     *        the time in milliseconds to allow for the group to shut down.
+     */
+    public void release(long timeout) {
+        synchronized (SHARED_GROUPS) {
+            if (references == 0 || --references > 0) {
+                return;
+            }
+
+            SHARED_GROUPS.remove(key);
+        }
+
+        LOG.trace("Shutting down shared event loop group {}", key);
+        Future<?> fut = group.shutdownGracefully(0, timeout, TimeUnit.MILLISECONDS);
+        if (!fut.awaitUninterruptibly(2 * timeout)) {
+            LOG.trace("Shared channel group shutdown failed to complete in allotted time");
+        }
+    }
+
+    static int getSharedGroupCount() {
+        synchronized (SHARED_GROUPS) {
+            return SHARED_GROUPS.size();
+        }
+    }
+
+    private static EventLoopGroup createGroup(IOMode mode, int threads) {
+        switch (mode) {
+            case KQUEUE:
+                return new KQueueEventLoopGroup(threads);
+            case EPOLL:
+                return new EpollEventLoopGroup(threads);
+            default:
+                return new NioEventLoopGroup(threads);
+        }
+    }
+}
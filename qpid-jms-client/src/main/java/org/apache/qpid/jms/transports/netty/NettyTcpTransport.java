@@ -73,6 +73,7 @@ public class NettyTcpTransport implements Transport {
 
     protected Bootstrap bootstrap;
     protected EventLoopGroup group;
+    protected NettySharedEventLoopGroup sharedGroup;
     protected Channel channel;
     protected TransportListener listener;
     protected int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
@@ -145,7 +146,21 @@ public class NettyTcpTransport implements Transport {
         boolean useKQueue = getTransportOptions().isUseKQueue() && KQueue.isAvailable();
         boolean useEpoll = getTransportOptions().isUseEpoll() && Epoll.isAvailable();
 
-        if (useKQueue) {
+        final int sharedThreads = getTransportOptions().getSharedEventLoopThreads();
+        if (sharedThreads > 0) {
+            final NettySharedEventLoopGroup.IOMode mode;
+            if (useKQueue) {
+                mode = NettySharedEventLoopGroup.IOMode.KQUEUE;
+            } else if (useEpoll) {
+                mode = NettySharedEventLoopGroup.IOMode.EPOLL;
+            } else {
+                mode = NettySharedEventLoopGroup.IOMode.NIO;
+            }
+
+            LOG.trace("Netty Transport using shared {} event loop group with {} threads", mode, sharedThreads);
+            sharedGroup = NettySharedEventLoopGroup.acquire(mode, sharedThreads);
+            group = sharedGroup.getGroup();
+        } else if (useKQueue) {
             LOG.trace("Netty Transport using KQueue mode");
             group = new KQueueEventLoopGroup(1);
         } else if (useEpoll) {
@@ -199,13 +214,8 @@ public class NettyTcpTransport implements Transport {
                 channel.close().syncUninterruptibly();
                 channel = null;
             }
-            if (group != null) {
-                Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-                if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
-                    LOG.trace("Channel group shutdown failed to complete in allotted time");
-                }
-                group = null;
-            }
+            shutdownGroup();
+            group = null;
 
             throw failureCause;
         } else {
@@ -241,12 +251,7 @@ public class NettyTcpTransport implements Transport {
                     channel.close().syncUninterruptibly();
                 }
             } finally {
-                if (group != null) {
-                    Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
-                    if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
-                        LOG.trace("Channel group shutdown failed to complete in allotted time");
-                    }
-                }
+                shutdownGroup();
             }
         }
     }
@@ -266,6 +271,24 @@ public class NettyTcpTransport implements Transport {
         channel.writeAndFlush(output);
     }
 
+    @Override
+    public void write(ByteBuf output) throws IOException {
+        checkConnected(output);
+
+        LOG.trace("Attempted write of: {} bytes", output.readableBytes());
+
+        channel.write(output);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkConnected();
+
+        LOG.trace("Attempted flush of pending writes");
+
+        channel.flush();
+    }
+
     @Override
     public TransportListener getTransportListener() {
         return listener;
@@ -404,6 +427,22 @@ public class NettyTcpTransport implements Transport {
         connectLatch.countDown();
     }
 
+    /*
+     * Releases the event loop group, a private group is shut down while a shared
+     * group is only shut down once the last transport using it releases it.
+     */
+    private void shutdownGroup() {
+        if (sharedGroup != null) {
+            sharedGroup.release(SHUTDOWN_TIMEOUT);
+            sharedGroup = null;
+        } else if (group != null) {
+            Future<?> fut = group.shutdownGracefully(0, SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS);
+            if (!fut.awaitUninterruptibly(2 * SHUTDOWN_TIMEOUT)) {
+                LOG.trace("Channel group shutdown failed to complete in allotted time");
+            }
+        }
+    }
+
     private TransportSslOptions getSslOptions() {
         return (TransportSslOptions) getTransportOptions();
     }
@@ -26,9 +26,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPipeline;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
 import io.netty.handler.codec.http.FullHttpResponse;
@@ -44,6 +46,8 @@ import io.netty.handler.codec.http.websocketx.WebSocketClientHandshaker;
 import io.netty.handler.codec.http.websocketx.WebSocketClientHandshakerFactory;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketVersion;
+import io.netty.handler.codec.http.websocketx.extensions.WebSocketClientExtensionHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.PerMessageDeflateClientExtensionHandshaker;
 
 /**
  * Netty based WebSockets Transport that wraps and extends the TCP Transport.
@@ -52,6 +56,10 @@ public class NettyWsTransport extends NettyTcpTransport {
 
     private static final Logger LOG = LoggerFactory.getLogger(NettyWsTransport.class);
     private static final String AMQP_SUB_PROTOCOL = "amqp";
+    private static final String UNCOMPRESSED_WRITER = "uncompressed-writer";
+
+    private CompositeByteBuf pendingBatch;
+    private volatile ChannelHandlerContext uncompressedWriter;
 
     /**
      * Create a new transport instance
@@ -89,7 +97,85 @@ public class NettyWsTransport extends NettyTcpTransport {
 
         LOG.trace("Attempted write of: {} bytes", length);
 
-        channel.writeAndFlush(new BinaryWebSocketFrame(output));
+        if (getTransportOptions().isWebSocketBatching()) {
+            addToBatch(output);
+            writePendingBatch();
+            channel.flush();
+        } else {
+            writeFrame(output);
+            channel.flush();
+        }
+    }
+
+    @Override
+    public void write(ByteBuf output) throws IOException {
+        checkConnected();
+        int length = output.readableBytes();
+        if (length == 0) {
+            return;
+        }
+
+        LOG.trace("Attempted write of: {} bytes", length);
+
+        if (getTransportOptions().isWebSocketBatching()) {
+            addToBatch(output);
+        } else {
+            writeFrame(output);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        checkConnected();
+        writePendingBatch();
+        super.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            if (pendingBatch != null) {
+                pendingBatch.release();
+                pendingBatch = null;
+            }
+        }
+    }
+
+    private void addToBatch(ByteBuf output) {
+        if (pendingBatch != null && pendingBatch.readableBytes() + output.readableBytes() > getMaxFrameSize()) {
+            writePendingBatch();
+        }
+
+        if (pendingBatch == null) {
+            pendingBatch = channel.alloc().compositeBuffer();
+        }
+
+        pendingBatch.addComponent(true, output);
+    }
+
+    private void writePendingBatch() {
+        if (pendingBatch != null) {
+            ByteBuf batch = pendingBatch;
+            pendingBatch = null;
+            LOG.trace("Writing batch of: {} bytes", batch.readableBytes());
+            writeFrame(batch);
+        }
+    }
+
+    private void writeFrame(ByteBuf output) {
+        BinaryWebSocketFrame frame = new BinaryWebSocketFrame(output);
+
+        // Writing from the context of the handler that sits ahead of the compression
+        // extension lets small frames skip the deflate encoder added after it.
+        if (uncompressedWriter != null &&
+            output.readableBytes() < getTransportOptions().getWebSocketCompressionThreshold()) {
+
+            uncompressedWriter.write(frame);
+        } else {
+            channel.write(frame);
+        }
     }
 
     @Override
@@ -101,6 +187,10 @@ public class NettyWsTransport extends NettyTcpTransport {
     protected void addAdditionalHandlers(ChannelPipeline pipeline) {
         pipeline.addLast(new HttpClientCodec());
         pipeline.addLast(new HttpObjectAggregator(8192));
+        if (getTransportOptions().isWebSocketCompression()) {
+            pipeline.addLast(UNCOMPRESSED_WRITER, new ChannelOutboundHandlerAdapter());
+            pipeline.addLast(new WebSocketClientExtensionHandler(new PerMessageDeflateClientExtensionHandshaker()));
+        }
     }
 
     @Override
@@ -135,6 +225,7 @@ public class NettyWsTransport extends NettyTcpTransport {
             if (!handshaker.isHandshakeComplete()) {
                 handshaker.finishHandshake(ch, (FullHttpResponse) message);
                 LOG.trace("WebSocket Client connected! {}", ctx.channel());
+                uncompressedWriter = ch.pipeline().context(UNCOMPRESSED_WRITER);
                 // Now trigger super processing as we are really connected.
                 NettyWsTransport.super.handleConnected(ch);
                 return;
@@ -16,6 +16,10 @@
  */
 package org.apache.qpid.jms.util;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 
 /**
@@ -67,6 +71,22 @@ public abstract class AbstractMessageQueue implements MessageQueue {
         }
     }
 
+    @Override
+    public final List<JmsInboundMessageDispatch> dequeueNoWait(int maxMessages) {
+        synchronized (lock) {
+            if (closed || !running || isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<JmsInboundMessageDispatch> result = new ArrayList<JmsInboundMessageDispatch>(Math.min(maxMessages, size()));
+            while (result.size() < maxMessages && !isEmpty()) {
+                result.add(removeFirst());
+            }
+
+            return result;
+        }
+    }
+
     @Override
     public final void start() {
         synchronized (lock) {
@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+/**
+ * A small count-min sketch that estimates how often keys have been seen recently, used
+ * to decide whether a new key is worth admitting to a bounded cache in place of the
+ * entry it would evict.  Counts saturate at 15 and are all halved once the number of
+ * recorded accesses reaches ten times the width of the sketch, so keys that were popular
+ * in the past lose their weight over time.  Not thread-safe.
+ */
+public class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97CB3127, 0xB0F4B5CB, 0x64EB3B1F, 0x7A1E3C93 };
+
+    private final byte[][] table;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * Creates a sketch sized for the given number of tracked keys.
+     *
+     * @param expectedKeys
+     *      the number of keys the owning cache can hold.
+     */
+    public FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, Math.min(expectedKeys, 1 << 20) * 4) - 1) << 1;
+
+        this.table = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = width * 10;
+    }
+
+    /**
+     * Records an access to the given key.
+     *
+     * @param key
+     *      the key that was accessed.
+     */
+    public void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+
+        for (int i = 0; i < DEPTH; ++i) {
+            int index = indexOf(hash, i);
+            if (table[i][index] < MAX_COUNT) {
+                table[i][index]++;
+                added = true;
+            }
+        }
+
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Estimates how often the given key has been accessed recently.
+     *
+     * @param key
+     *      the key whose frequency is requested.
+     *
+     * @return the estimated number of recent accesses, at most 15.
+     */
+    public int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+
+        for (int i = 0; i < DEPTH; ++i) {
+            frequency = Math.min(frequency, table[i][indexOf(hash, i)]);
+        }
+
+        return frequency;
+    }
+
+    private void reset() {
+        for (byte[] row : table) {
+            for (int i = 0; i < row.length; ++i) {
+                row[i] >>>= 1;
+            }
+        }
+
+        additions /= 2;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 17;
+        hash *= 0xED5AD4BB;
+        hash ^= hash >>> 11;
+        return hash;
+    }
+}
@@ -77,6 +77,17 @@ public interface MessageQueue {
      */
     JmsInboundMessageDispatch dequeueNoWait();
 
+    /**
+     * Used to get up to the given number of enqueued Messages in a single operation without
+     * waiting for any to arrive.
+     *
+     * @param maxMessages
+     *      The maximum number of Messages to remove from the Queue.
+     *
+     * @return a List containing the Messages removed from the Queue, empty if none available.
+     */
+    List<JmsInboundMessageDispatch> dequeueNoWait(int maxMessages);
+
     /**
      * Starts the Message Queue.  An non-started Queue will always return null for
      * any of the Queue methods.
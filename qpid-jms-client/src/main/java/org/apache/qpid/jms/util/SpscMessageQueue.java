@@ -0,0 +1,302 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
+
+/**
+ * First in / first out Message Queue built on a single producer / single consumer
+ * ring buffer that does not require the producer and consumer to share a monitor.
+ *
+ * The enqueue methods must not be called concurrently with each other, the consumer
+ * instances guarantee this by enqueuing under their own state lock.  The consumer side
+ * methods are serialized with each other using a lock which the producer never takes,
+ * and consumers waiting for a message are parked rather than waiting on a monitor.
+ *
+ * Messages that arrive when the ring is full are held in an overflow queue and are
+ * delivered in order once the ring has been drained, messages enqueued at the front
+ * of the queue are held in a separate deque that is always read first.
+ */
+public final class SpscMessageQueue implements MessageQueue {
+
+    private static final int MIN_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 64 * 1024;
+
+    private final AtomicReferenceArray<JmsInboundMessageDispatch> ring;
+    private final int mask;
+    private final Queue<JmsInboundMessageDispatch> overflow = new ConcurrentLinkedQueue<JmsInboundMessageDispatch>();
+    private final ConcurrentLinkedDeque<JmsInboundMessageDispatch> first = new ConcurrentLinkedDeque<JmsInboundMessageDispatch>();
+    private final Queue<Thread> waiters = new ConcurrentLinkedQueue<Thread>();
+    private final Object consumerLock = new Object();
+
+    // Only written by the producer side
+    private volatile long enqueued;
+    private long producerIndex;
+
+    // Only written by the consumer side
+    private volatile long dequeued;
+    private long consumerIndex;
+
+    private volatile boolean closed;
+    private volatile boolean running;
+
+    public SpscMessageQueue(int prefetchSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < prefetchSize && capacity < MAX_CAPACITY) {
+            capacity <<= 1;
+        }
+
+        this.ring = new AtomicReferenceArray<JmsInboundMessageDispatch>(capacity);
+        this.mask = capacity - 1;
+    }
+
+    @Override
+    public void enqueue(JmsInboundMessageDispatch envelope) {
+        enqueued++;
+
+        if (!overflow.isEmpty() || !offerToRing(envelope)) {
+            overflow.add(envelope);
+        }
+
+        signalWaiters();
+    }
+
+    @Override
+    public void enqueueFirst(JmsInboundMessageDispatch envelope) {
+        first.addFirst(envelope);
+        signalWaiters();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public JmsInboundMessageDispatch peek() {
+        synchronized (consumerLock) {
+            JmsInboundMessageDispatch envelope = first.peekFirst();
+            if (envelope == null) {
+                envelope = ring.get((int) consumerIndex & mask);
+                if (envelope == null) {
+                    envelope = overflow.peek();
+                }
+            }
+
+            return envelope;
+        }
+    }
+
+    @Override
+    public JmsInboundMessageDispatch dequeue(long timeout) throws InterruptedException {
+        final long deadline = timeout > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout) : 0;
+        final Thread current = Thread.currentThread();
+
+        while (true) {
+            if (closed || !running) {
+                return null;
+            }
+
+            JmsInboundMessageDispatch envelope = poll();
+            if (envelope != null || timeout == 0) {
+                return envelope;
+            }
+
+            waiters.add(current);
+            try {
+                // Check again now that we are visible to the producer so a signal isn't missed.
+                if (closed || !running) {
+                    return null;
+                }
+
+                envelope = poll();
+                if (envelope != null) {
+                    return envelope;
+                }
+
+                if (timeout < 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+
+                    LockSupport.parkNanos(this, remaining);
+                }
+            } finally {
+                waiters.remove(current);
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    @Override
+    public JmsInboundMessageDispatch dequeueNoWait() {
+        if (closed || !running) {
+            return null;
+        }
+
+        return poll();
+    }
+
+    @Override
+    public List<JmsInboundMessageDispatch> dequeueNoWait(int maxMessages) {
+        if (closed || !running) {
+            return Collections.emptyList();
+        }
+
+        synchronized (consumerLock) {
+            List<JmsInboundMessageDispatch> result = new ArrayList<JmsInboundMessageDispatch>(Math.min(maxMessages, size()));
+            JmsInboundMessageDispatch envelope = null;
+            while (result.size() < maxMessages && (envelope = poll()) != null) {
+                result.add(envelope);
+            }
+
+            return result;
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!closed) {
+            running = true;
+        }
+        signalWaiters();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        signalWaiters();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        closed = true;
+        signalWaiters();
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public int size() {
+        return (int) Math.max(0, enqueued - dequeued) + first.size();
+    }
+
+    @Override
+    public void clear() {
+        synchronized (consumerLock) {
+            while (poll() != null) {
+            }
+        }
+    }
+
+    @Override
+    public List<JmsInboundMessageDispatch> removeAll() {
+        synchronized (consumerLock) {
+            List<JmsInboundMessageDispatch> rc = new ArrayList<JmsInboundMessageDispatch>(size());
+            JmsInboundMessageDispatch envelope = null;
+            while ((envelope = poll()) != null) {
+                rc.add(envelope);
+            }
+            return rc;
+        }
+    }
+
+    /**
+     * The returned lock only serializes the consumer side of this queue, the producer
+     * side never acquires it.
+     */
+    @Override
+    public Object getLock() {
+        return consumerLock;
+    }
+
+    @Override
+    public String toString() {
+        return "SpscMessageQueue { size = " + size() + " }";
+    }
+
+    //----- Internal implementation ------------------------------------------//
+
+    private boolean offerToRing(JmsInboundMessageDispatch envelope) {
+        final int index = (int) producerIndex & mask;
+        if (ring.get(index) != null) {
+            return false;
+        }
+
+        ring.set(index, envelope);
+        producerIndex++;
+        return true;
+    }
+
+    private JmsInboundMessageDispatch poll() {
+        synchronized (consumerLock) {
+            JmsInboundMessageDispatch envelope = first.pollFirst();
+            if (envelope != null) {
+                return envelope;
+            }
+
+            // Anything in the ring was added before anything that is in the overflow queue.
+            final int index = (int) consumerIndex & mask;
+            envelope = ring.get(index);
+            if (envelope != null) {
+                ring.set(index, null);
+                consumerIndex++;
+            } else {
+                envelope = overflow.poll();
+            }
+
+            if (envelope != null) {
+                dequeued++;
+            }
+
+            return envelope;
+        }
+    }
+
+    private void signalWaiters() {
+        if (!waiters.isEmpty()) {
+            for (Thread waiter : waiters) {
+                LockSupport.unpark(waiter);
+            }
+        }
+    }
+}
@@ -44,6 +44,7 @@ import org.apache.qpid.jms.policy.JmsDefaultDeserializationPolicy;
 import org.apache.qpid.jms.policy.JmsDefaultPrefetchPolicy;
 import org.apache.qpid.jms.policy.JmsDefaultPresettlePolicy;
 import org.apache.qpid.jms.policy.JmsDefaultRedeliveryPolicy;
+import org.apache.qpid.jms.provider.ProviderFutureFactory;
 import org.apache.qpid.jms.test.QpidJmsTestCase;
 import org.apache.qpid.jms.util.IdGenerator;
 import org.junit.Test;
@@ -88,6 +89,11 @@ public class JmsConnectionFactoryTest extends QpidJmsTestCase {
         factory.setForceSyncSend(!factory.isForceSyncSend());
         factory.setForceAsyncSend(!factory.isForceAsyncSend());
         factory.setLocalMessagePriority(!factory.isLocalMessagePriority());
+        factory.setUseLockFreeMessageQueue(!factory.isUseLockFreeMessageQueue());
+        factory.setPipelinedRecovery(!factory.isPipelinedRecovery());
+        factory.setConnectionConsumerBatching(!factory.isConnectionConsumerBatching());
+        factory.setConnectionConsumerDispatchThreads(4);
+        factory.setCopyMessageOnAsyncSend(!factory.isCopyMessageOnAsyncSend());
         factory.setForceAsyncAcks(!factory.isForceAsyncAcks());
         factory.setConnectTimeout(TimeUnit.SECONDS.toMillis(30));
         factory.setCloseTimeout(TimeUnit.SECONDS.toMillis(45));
@@ -105,6 +111,11 @@ public class JmsConnectionFactoryTest extends QpidJmsTestCase {
         assertEquals(factory.isForceSyncSend(), connection.isForceSyncSend());
         assertEquals(factory.isForceAsyncSend(), connection.isForceAsyncSend());
         assertEquals(factory.isLocalMessagePriority(), connection.isLocalMessagePriority());
+        assertEquals(factory.isUseLockFreeMessageQueue(), connection.isUseLockFreeMessageQueue());
+        assertEquals(factory.isPipelinedRecovery(), connection.isPipelinedRecovery());
+        assertEquals(factory.isConnectionConsumerBatching(), connection.isConnectionConsumerBatching());
+        assertEquals(4, connection.getConnectionConsumerDispatchThreads());
+        assertEquals(factory.isCopyMessageOnAsyncSend(), connection.isCopyMessageOnAsyncSend());
         assertEquals(factory.isForceAsyncAcks(), connection.isForceAsyncAcks());
         assertEquals(factory.isUseDaemonThread(), connection.isUseDaemonThread());
 
@@ -206,6 +217,22 @@ public class JmsConnectionFactoryTest extends QpidJmsTestCase {
         assertEquals(TRUSTED_PACKAGES, deserializationPolicy.getWhiteList());
     }
 
+    @Test
+    public void testProviderFutureFactoryWaitStrategyIsAppliedToConnection() throws JMSException {
+        JmsConnectionFactory factory = new JmsConnectionFactory(
+            USER, PASSWORD, "mock://localhost?jms.providerFutureFactory.waitStrategy=balanced");
+
+        assertEquals(ProviderFutureFactory.BALANCED, factory.getProviderFutureFactory().getWaitStrategy());
+
+        JmsConnection connection = (JmsConnection) factory.createConnection();
+        assertNotNull(connection);
+
+        assertNotSame(factory.getProviderFutureFactory(), connection.getProviderFutureFactory());
+        assertEquals(ProviderFutureFactory.BALANCED, connection.getProviderFutureFactory().getWaitStrategy());
+
+        connection.close();
+    }
+
     @Test
     public void testConnectionGetConfiguredURIApplied() throws Exception {
         URI mock = new URI("mock://localhost");
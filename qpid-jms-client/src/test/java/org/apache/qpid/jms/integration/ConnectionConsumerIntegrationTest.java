@@ -24,6 +24,7 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.Connection;
 import javax.jms.ConnectionConsumer;
@@ -245,6 +246,76 @@ public class ConnectionConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testBatchingLoadsServerSessionWithUpToMaxMessages() throws Exception {
+        final int MESSAGE_COUNT = 10;
+        final int MAX_MESSAGES = 5;
+        final CountDownLatch messagesDispatched = new CountDownLatch(MESSAGE_COUNT);
+        final CountDownLatch messagesArrived = new CountDownLatch(MESSAGE_COUNT);
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            JmsConnection connection = (JmsConnection) testFixture.establishConnecton(testPeer, "?jms.connectionConsumerBatching=true");
+            connection.addConnectionListener(new JmsDefaultConnectionListener() {
+
+                @Override
+                public void onInboundMessage(JmsInboundMessageDispatch envelope) {
+                    messagesDispatched.countDown();
+                }
+            });
+
+            testPeer.expectBegin();
+
+            // Create a session for our ServerSessionPool to use
+            Session session = connection.createSession();
+            session.setMessageListener(new MessageListener() {
+
+                @Override
+                public void onMessage(Message message) {
+                    messagesArrived.countDown();
+                }
+            });
+
+            final AtomicInteger sessionStarts = new AtomicInteger();
+            JmsServerSession serverSession = new JmsServerSession(session) {
+
+                @Override
+                public void start() throws JMSException {
+                    sessionStarts.incrementAndGet();
+                    super.start();
+                }
+            };
+            JmsServerSessionPool sessionPool = new JmsServerSessionPool(serverSession);
+
+            DescribedType amqpValueNullContent = new AmqpValueDescribedType(null);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, amqpValueNullContent, MESSAGE_COUNT);
+
+            for (int i = 0; i < MESSAGE_COUNT; i++) {
+                testPeer.expectDispositionThatIsAcceptedAndSettled();
+            }
+
+            Queue queue = new JmsQueue("myQueue");
+            ConnectionConsumer consumer = connection.createConnectionConsumer(queue, null, sessionPool, MAX_MESSAGES);
+
+            assertTrue("Message didn't arrive in time", messagesDispatched.await(10, TimeUnit.SECONDS));
+
+            connection.start();
+
+            assertTrue("Message didn't arrive in time", messagesArrived.await(10, TimeUnit.SECONDS));
+            assertEquals("Each ServerSession should have been loaded with a full batch",
+                         MESSAGE_COUNT / MAX_MESSAGES, sessionStarts.get());
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testQueuedMessagesAreDrainedToServerSession() throws Exception {
         final int MESSAGE_COUNT = 10;
@@ -29,6 +29,8 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
@@ -49,6 +51,7 @@ import javax.jms.TopicSubscriber;
 
 import org.apache.qpid.jms.JmsConnection;
 import org.apache.qpid.jms.JmsDefaultConnectionListener;
+import org.apache.qpid.jms.JmsMessageConsumer;
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.policy.JmsDefaultPrefetchPolicy;
@@ -301,6 +304,219 @@ public class ConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testReceiveMessagesInOrderWithLockFreeMessageQueue() throws Exception {
+        final int MSG_COUNT = 5;
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.useLockFreeMessageQueue=true");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            DescribedType amqpValueNullContent = new AmqpValueDescribedType(null);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, amqpValueNullContent, MSG_COUNT,
+                false, false, Matchers.greaterThanOrEqualTo(UnsignedInteger.valueOf(MSG_COUNT)), 1, true);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                testPeer.expectDispositionThatIsAcceptedAndSettled();
+            }
+
+            MessageConsumer messageConsumer = session.createConsumer(queue);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                Message receivedMessage = messageConsumer.receive(3000);
+                assertNotNull("A message should have been recieved", receivedMessage);
+                assertEquals(i, receivedMessage.getIntProperty(TestAmqpPeer.MESSAGE_NUMBER));
+            }
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testReceiveBatch() throws Exception {
+        final int MSG_COUNT = 5;
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer);
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            DescribedType amqpValueNullContent = new AmqpValueDescribedType(null);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, amqpValueNullContent, MSG_COUNT,
+                false, false, Matchers.greaterThanOrEqualTo(UnsignedInteger.valueOf(MSG_COUNT)), 1, true);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                testPeer.expectDispositionThatIsAcceptedAndSettled();
+            }
+
+            JmsMessageConsumer messageConsumer = (JmsMessageConsumer) session.createConsumer(queue);
+
+            List<Message> received = new ArrayList<>();
+            while (received.size() < MSG_COUNT) {
+                List<Message> batch = messageConsumer.receiveBatch(MSG_COUNT * 2, 3000);
+                assertFalse("A batch of messages should have been recieved", batch.isEmpty());
+                received.addAll(batch);
+            }
+
+            assertEquals(MSG_COUNT, received.size());
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                assertEquals(i, received.get(i).getIntProperty(TestAmqpPeer.MESSAGE_NUMBER));
+            }
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testReceiveBatchReturnsEmptyListOnTimeout() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.receiveLocalOnly=true");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow();
+
+            JmsMessageConsumer messageConsumer = (JmsMessageConsumer) session.createConsumer(queue);
+
+            List<Message> batch = messageConsumer.receiveBatch(10, 10);
+            assertNotNull(batch);
+            assertTrue(batch.isEmpty());
+
+            try {
+                messageConsumer.receiveBatch(0, 10);
+                fail("Should not accept a zero sized batch");
+            } catch (IllegalArgumentException iae) {
+                // Expected
+            }
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testCoalescedAcksAreSentWhenPrefetchIsConsumed() throws Exception {
+        final int MSG_COUNT = 5;
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?amqp.coalesceAcks=true&amqp.coalesceAcksMaxCount=1000&amqp.coalesceAcksMaxDelay=60000");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            DescribedType amqpValueNullContent = new AmqpValueDescribedType(null);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, amqpValueNullContent, MSG_COUNT,
+                false, false, Matchers.greaterThanOrEqualTo(UnsignedInteger.valueOf(MSG_COUNT)), 1, true);
+
+            MessageConsumer messageConsumer = session.createConsumer(queue);
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                testPeer.expectDispositionThatIsAcceptedAndSettled();
+            }
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                Message receivedMessage = messageConsumer.receive(3000);
+                assertNotNull("A message should have been recieved", receivedMessage);
+                assertEquals(i, receivedMessage.getIntProperty(TestAmqpPeer.MESSAGE_NUMBER));
+            }
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testCoalescedAcksAreSentBeforeConsumerIsClosed() throws Exception {
+        final int MSG_COUNT = 5;
+        final int CONSUME_COUNT = 3;
+
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?amqp.coalesceAcks=true&amqp.coalesceAcksMaxCount=1000&amqp.coalesceAcksMaxDelay=60000");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            DescribedType amqpValueNullContent = new AmqpValueDescribedType(null);
+
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, amqpValueNullContent, MSG_COUNT,
+                false, false, Matchers.greaterThanOrEqualTo(UnsignedInteger.valueOf(MSG_COUNT)), 1, true);
+
+            MessageConsumer messageConsumer = session.createConsumer(queue);
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            // Any acks still held because more messages remain prefetched must precede the detach.
+            for (int i = 0; i < CONSUME_COUNT; ++i) {
+                testPeer.expectDispositionThatIsAcceptedAndSettled();
+            }
+
+            for (int i = 0; i < CONSUME_COUNT; ++i) {
+                Message receivedMessage = messageConsumer.receive(3000);
+                assertNotNull("A message should have been recieved", receivedMessage);
+            }
+
+            testPeer.expectDetach(true, true, true);
+
+            // The messages that were never consumed are released after the detach.
+            for (int i = CONSUME_COUNT; i < MSG_COUNT; ++i) {
+                testPeer.expectDisposition(true, new ReleasedMatcher());
+            }
+
+            messageConsumer.close();
+
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(2000);
+        }
+    }
+
     /**
      * Test that an Ack is not dropped when RTE is thrown from onMessage
      *
@@ -993,6 +1209,97 @@ public class ConsumerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout=20000)
+    public void testPrefetchByteBudgetLimitsCredit() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            // A budget smaller than any message allows only one message to be buffered at a time.
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.maxPrefetchBytes=1");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            // Until a message is seen its size is unknown so only a single credit is granted.
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlowRespondWithTransfer(null, null, null, null, new AmqpValueDescribedType("content"),
+                1, false, false, equalTo(UnsignedInteger.ONE), 1, false, false);
+
+            // Once consumed the buffer is empty again so one more credit is granted.
+            testPeer.expectLinkFlow(false, false, equalTo(UnsignedInteger.ONE));
+            testPeer.expectDisposition(true, new AcceptedMatcher());
+
+            MessageConsumer consumer = session.createConsumer(queue);
+            Message msg = consumer.receive(3000);
+            assertNotNull("Should have received a message", msg);
+
+            testPeer.expectDetach(true, true, true);
+            consumer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(3000);
+        }
+    }
+
+    @Test(timeout=20000)
+    public void testAdaptivePrefetchRevokesCreditOfStalledConsumer() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?amqp.adaptivePrefetch=true&amqp.adaptivePrefetchMinimum=10&jms.prefetchPolicy.all=20");
+            connection.start();
+
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.CLIENT_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            final int MSG_COUNT = 10;
+
+            // The window starts at the minimum, delaying the deliveries for the first credit
+            // gives a long round trip so that fast consumption opens the window to the prefetch.
+            testPeer.expectReceiverAttach();
+            testPeer.expectLinkFlow(false, false, equalTo(UnsignedInteger.valueOf(10)));
+            testPeer.runAfterLastHandler(new AmqpPeerRunnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            for (int i = 1; i <= MSG_COUNT; ++i) {
+                testPeer.sendTransferToLastOpenedLinkOnLastOpenedSession(null, null, null, null, new AmqpValueDescribedType("content"), i);
+            }
+
+            // Once the second message is consumed the window is at the prefetch of 20, with 8
+            // messages already buffered or in flight the link is topped up by 12.
+            testPeer.expectLinkFlow(false, false, equalTo(UnsignedInteger.valueOf(12)));
+
+            MessageConsumer consumer = session.createConsumer(queue);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                assertNotNull("Should have received a message", consumer.receive(3000));
+            }
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            // With no further consumption the window shrinks to the minimum and the periodic
+            // check revokes the credit that is no longer needed.
+            testPeer.expectLinkFlow(false, false, equalTo(UnsignedInteger.valueOf(10)));
+            testPeer.waitForAllHandlersToComplete(3000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout=20000)
     public void testMessageListenerCallsConnectionCloseThrowsIllegalStateException() throws Exception {
         final CountDownLatch latch = new CountDownLatch(1);
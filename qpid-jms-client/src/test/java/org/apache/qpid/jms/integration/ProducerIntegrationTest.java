@@ -65,6 +65,7 @@ import javax.jms.Topic;
 import org.apache.qpid.jms.JmsConnection;
 import org.apache.qpid.jms.JmsConnectionFactory;
 import org.apache.qpid.jms.JmsDefaultConnectionListener;
+import org.apache.qpid.jms.JmsMessageProducer;
 import org.apache.qpid.jms.JmsOperationTimedOutException;
 import org.apache.qpid.jms.JmsSendTimedOutException;
 import org.apache.qpid.jms.message.foreign.ForeignJmsMessage;
@@ -102,6 +103,9 @@ import org.junit.runner.RunWith;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import io.netty.buffer.PoolArenaMetric;
+import io.netty.buffer.PooledByteBufAllocator;
+
 @RunWith(QpidJMSTestRunner.class)
 public class ProducerIntegrationTest extends QpidJmsTestCase {
 
@@ -195,6 +199,42 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testAsyncSentTextMessageCanBeModifiedWithoutMessageCopy() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?jms.forceAsyncSend=true&jms.copyMessageOnAsyncSend=false");
+            testPeer.expectBegin();
+            testPeer.expectSenderAttach();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+            MessageProducer producer = session.createProducer(queue);
+
+            String text = "myMessage";
+            TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+            messageMatcher.setHeadersMatcher(new MessageHeaderSectionMatcher(true));
+            messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+            messageMatcher.setPropertiesMatcher(new MessagePropertiesSectionMatcher(true));
+            messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher(text));
+            testPeer.expectTransfer(messageMatcher);
+
+            TextMessage message = session.createTextMessage(text);
+            producer.send(message);
+
+            // The send does not hold a copy, the message must be usable again on return
+            // and changing it must not alter what was sent.
+            message.setText(text + text);
+            assertEquals(text + text, message.getText());
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testDefaultDeliveryModeProducesDurableMessages() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -1254,6 +1294,311 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testAsyncSendsWithCoalescedWrites() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.coalesceWrites=true&jms.forceAsyncSend=true");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            final int MSG_COUNT = 10;
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            }
+
+            TestJmsCompletionListener listener = new TestJmsCompletionListener(MSG_COUNT);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                producer.send(session.createTextMessage("content-" + i), listener);
+            }
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            assertTrue(listener.awaitCompletion(5, TimeUnit.SECONDS));
+            assertEquals(MSG_COUNT, listener.successCount);
+            assertEquals(0, listener.errorCount);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testAsyncSendsWithSendBatching() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.sendBatchLinger=10&jms.forceAsyncSend=true");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            final int MSG_COUNT = 10;
+
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            }
+
+            TestJmsCompletionListener listener = new TestJmsCompletionListener(MSG_COUNT);
+            for (int i = 0; i < MSG_COUNT; ++i) {
+                producer.send(session.createTextMessage("content-" + i), listener);
+            }
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            assertTrue(listener.awaitCompletion(5, TimeUnit.SECONDS));
+            assertEquals(MSG_COUNT, listener.successCount);
+            assertEquals(0, listener.errorCount);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testSendsWithPooledEncodeBuffers() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.pooledEncodeBuffers=true");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            // Sizes that both grow and shrink the producer's encode size estimate.
+            final int[] sizes = { 16, 64 * 1024, 128, 200 * 1024, 16 };
+
+            for (int size : sizes) {
+                String text = createText(size);
+
+                TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+                messageMatcher.setHeadersMatcher(new MessageHeaderSectionMatcher(true));
+                messageMatcher.setMessageAnnotationsMatcher(new MessageAnnotationsSectionMatcher(true));
+                messageMatcher.setPropertiesMatcher(new MessagePropertiesSectionMatcher(true));
+                messageMatcher.setMessageContentMatcher(new EncodedAmqpValueMatcher(text));
+                testPeer.expectTransfer(messageMatcher);
+
+                producer.send(session.createTextMessage(text));
+            }
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testFailedSendsReturnPooledEncodeBuffers() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.pooledEncodeBuffers=true");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            // Messages too large for the allocator's thread local caches, so that each buffer
+            // returned to the pool shows up as a deallocation in the arena metrics.
+            final String text = createText(64 * 1024);
+
+            // A successful send first so that the producer's encode size estimate no longer
+            // grows, which would leave the outgrown buffers in the thread local caches.
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            producer.send(session.createTextMessage(text));
+
+            final long activeBefore = getActivePooledHeapAllocations();
+
+            for (int i = 0; i < 3; ++i) {
+                testPeer.expectTransfer(new TransferPayloadCompositeMatcher(), nullValue(), false, new Rejected(), true);
+
+                try {
+                    producer.send(session.createTextMessage(text));
+                    fail("Expected an exception to be thrown");
+                } catch (JMSException e) {
+                    // Expected
+                }
+            }
+
+            // Fails in the producer before anything is written as the remote did not offer
+            // delayed delivery support.
+            producer.setDeliveryDelay(5000);
+            try {
+                producer.send(session.createTextMessage(text));
+                fail("Expected an exception to be thrown");
+            } catch (JMSException e) {
+                // Expected
+            }
+
+            testPeer.waitForAllHandlersToComplete(2000);
+
+            assertTrue("Encode buffers of failed sends were not returned to the pool", Wait.waitFor(new Wait.Condition() {
+
+                @Override
+                public boolean isSatisified() throws Exception {
+                    return getActivePooledHeapAllocations() == activeBefore;
+                }
+            }, 5000, 10));
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    private static long getActivePooledHeapAllocations() {
+        long active = 0;
+        for (PoolArenaMetric arena : PooledByteBufAllocator.DEFAULT.metric().heapArenas()) {
+            active += arena.numActiveAllocations();
+        }
+
+        return active;
+    }
+
+    private static String createText(int size) {
+        StringBuilder builder = new StringBuilder(size);
+        for (int i = 0; i < size; ++i) {
+            builder.append((char) ('a' + (i % 26)));
+        }
+
+        return builder.toString();
+    }
+
+    @Test(timeout = 20000)
+    public void testBatchedSendsAreWrittenBeforeProducerClose() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.sendBatchLinger=60000&jms.forceAsyncSend=true");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            // The send completes once queued, long before the linger time expires
+            producer.send(session.createTextMessage("content"));
+
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            testPeer.expectDetach(true, true, true);
+
+            producer.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testBatchedSendFailsWhenConnectionDropsBeforeBatchIsWritten() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.sendBatchLinger=60000");
+            testPeer.expectBegin();
+
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            testPeer.expectSenderAttach();
+
+            MessageProducer producer = session.createProducer(queue);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            TestJmsCompletionListener listener = new TestJmsCompletionListener();
+            producer.send(session.createTextMessage("content"), listener);
+
+            assertFalse("Send should not be completed before its batch is written", listener.awaitCompletion(200, TimeUnit.MILLISECONDS));
+
+            testPeer.close();
+
+            assertTrue("Pending send was not failed", listener.awaitCompletion(5, TimeUnit.SECONDS));
+            assertEquals(0, listener.successCount);
+            assertEquals(1, listener.errorCount);
+
+            connection.close();
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testBatchedSendBlocksOnceUnwrittenSendsExceedBatchMaxBytes() throws Exception {
+        try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
+            Connection connection = testFixture.establishConnecton(testPeer,
+                "?amqp.sendBatchLinger=10&amqp.sendBatchMaxBytes=1536&jms.forceAsyncSend=true");
+            testPeer.expectBegin();
+
+            final Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+            Queue queue = session.createQueue("myQueue");
+
+            // Credit is only granted after a delay so that the written sends are held
+            testPeer.expectSenderAttach(2000);
+
+            final MessageProducer producer = session.createProducer(queue);
+
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+            testPeer.expectTransfer(new TransferPayloadCompositeMatcher());
+
+            final String text = createText(1024);
+
+            // Below the limit, completes once queued even though it cannot be written yet
+            producer.send(session.createTextMessage(text));
+
+            final CountDownLatch sendCompleted = new CountDownLatch(1);
+            final AtomicReference<Throwable> sendFailure = new AtomicReference<>();
+
+            Thread sender = new Thread(() -> {
+                try {
+                    producer.send(session.createTextMessage(text));
+                } catch (Throwable t) {
+                    sendFailure.set(t);
+                } finally {
+                    sendCompleted.countDown();
+                }
+            });
+            sender.start();
+
+            assertFalse("Send over the limit should wait to be written", sendCompleted.await(500, TimeUnit.MILLISECONDS));
+
+            assertTrue("Send was not completed once credit arrived", sendCompleted.await(5, TimeUnit.SECONDS));
+            assertNull(sendFailure.get());
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testSendWhenLinkCreditIsZeroAndTimeout() throws Exception {
         try(TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -2674,6 +3019,61 @@ public class ProducerIntegrationTest extends QpidJmsTestCase {
         }
     }
 
+    @Test(timeout = 20000)
+    public void testAnonymousFallbackCacheWarmUpOpensLinkBeforeSend() throws Exception {
+        try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
+
+            // DO NOT add capability to indicate server support for ANONYMOUS-RELAY
+
+            Connection connection = testFixture.establishConnecton(testPeer, "?amqp.anonymousFallbackCache=true");
+            connection.start();
+
+            testPeer.expectBegin();
+            Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+
+            String queueName = "myQueue";
+            Queue dest = session.createQueue(queueName);
+
+            JmsMessageProducer producer = (JmsMessageProducer) session.createProducer(null);
+
+            // Expect the warm up to attach a sender link to the destination ahead of any send
+            TargetMatcher targetMatcher = new TargetMatcher();
+            targetMatcher.withAddress(equalTo(queueName));
+            targetMatcher.withDynamic(equalTo(false));
+            targetMatcher.withDurable(equalTo(TerminusDurability.NONE));
+
+            testPeer.expectSenderAttach(targetMatcher, false, false);
+
+            producer.warmUp(dest);
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            // Both sends should then use the cached link without any further attach
+            MessageHeaderSectionMatcher headersMatcher = new MessageHeaderSectionMatcher(true);
+            MessageAnnotationsSectionMatcher msgAnnotationsMatcher = new MessageAnnotationsSectionMatcher(true);
+            TransferPayloadCompositeMatcher messageMatcher = new TransferPayloadCompositeMatcher();
+            messageMatcher.setHeadersMatcher(headersMatcher);
+            messageMatcher.setMessageAnnotationsMatcher(msgAnnotationsMatcher);
+
+            testPeer.expectTransfer(messageMatcher);
+            testPeer.expectTransfer(messageMatcher);
+
+            producer.send(dest, session.createMessage());
+            producer.send(dest, session.createMessage());
+
+            testPeer.waitForAllHandlersToComplete(1000);
+
+            // Closing the anonymous producer closes the cached link
+            testPeer.expectDetach(true, true, true);
+            producer.close();
+
+            testPeer.expectClose();
+            connection.close();
+
+            testPeer.waitForAllHandlersToComplete(1000);
+        }
+    }
+
     @Test(timeout = 20000)
     public void testAnonymousProducerAsyncSendFailureHandledWhenAnonymousRelayNodeIsNotSupported() throws Exception {
         try (TestAmqpPeer testPeer = new TestAmqpPeer();) {
@@ -23,11 +23,15 @@ import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import org.apache.qpid.jms.JmsTopic;
+import org.apache.qpid.jms.message.facade.JmsMessageFacade;
 import org.apache.qpid.jms.meta.JmsProducerId;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+
 public class JmsOutboundMessageDispatchTest {
 
     private JmsOutboundMessageDispatch envelope;
@@ -58,6 +62,57 @@ public class JmsOutboundMessageDispatchTest {
         assertNotNull(envelope.getDispatchId());
     }
 
+    @Test
+    public void testDetachMessageRetainsSendState() {
+        JmsMessageFacade facade = Mockito.mock(JmsMessageFacade.class);
+        Mockito.when(facade.getProviderMessageIdObject()).thenReturn("ID:test:1:0:1:1");
+        Mockito.when(facade.isDeliveryTimeTransmitted()).thenReturn(true);
+
+        JmsMessage message = Mockito.mock(JmsMessage.class);
+        Mockito.when(message.getFacade()).thenReturn(facade);
+
+        envelope.setMessage(message);
+        envelope.detachMessage();
+
+        Mockito.when(facade.getProviderMessageIdObject()).thenReturn("ID:changed");
+        Mockito.when(facade.isDeliveryTimeTransmitted()).thenReturn(false);
+
+        assertNull(envelope.getMessage());
+        assertEquals("ID:test:1:0:1:1", envelope.getMessageId());
+        assertTrue(envelope.isDeliveryTimeTransmitted());
+        assertTrue(envelope.toString().contains("ID:test:1:0:1:1"));
+    }
+
+    @Test
+    public void testPayloadReleasedWithLastReference() {
+        ByteBuf payload = Unpooled.buffer(16);
+        envelope.setPayload(payload);
+
+        assertTrue(envelope.retainPayload());
+        assertEquals(1, payload.refCnt());
+
+        envelope.releasePayload();
+        assertEquals(1, payload.refCnt());
+
+        envelope.releasePayload();
+        assertEquals(0, payload.refCnt());
+        assertFalse(envelope.retainPayload());
+    }
+
+    @Test
+    public void testRetainPayloadFailsOnceReleased() {
+        ByteBuf payload = Unpooled.buffer(16);
+        envelope.setPayload(payload);
+        envelope.releasePayload();
+
+        assertFalse(envelope.retainPayload());
+        assertEquals(0, payload.refCnt());
+
+        // A late release after an abandoned retain must not touch the buffer again
+        envelope.releasePayload();
+        assertEquals(0, payload.refCnt());
+    }
+
     @Test
     public void testToString() {
         envelope.setDispatchId(42);
@@ -26,6 +26,7 @@ import javax.jms.JMSException;
 
 import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.message.facade.JmsMessageFacade;
+import org.apache.qpid.jms.meta.JmsProducerId;
 
 /**
  * A test implementation of the JmsMessageFaceade that provides a generic
@@ -374,4 +375,9 @@ public class JmsTestMessageFacade implements JmsMessageFacade {
     public Object encodeMessage() {
         return this;
     }
+
+    @Override
+    public Object encodeMessage(JmsProducerId producerId) {
+        return encodeMessage();
+    }
 }
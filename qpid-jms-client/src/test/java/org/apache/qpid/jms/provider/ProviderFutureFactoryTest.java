@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ProviderFutureFactoryTest {
+
+    @Test
+    public void testDefaultWaitStrategyIsBlocking() {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+
+        assertEquals(ProviderFutureFactory.BLOCKING, factory.getWaitStrategy());
+        assertEquals(ProviderFuture.class, factory.createFuture().getClass());
+    }
+
+    @Test
+    public void testCreateFutureForEachWaitStrategy() {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+
+        factory.setWaitStrategy(ProviderFutureFactory.BALANCED);
+        assertTrue(factory.createFuture() instanceof BalancedProviderFuture);
+
+        factory.setWaitStrategy(ProviderFutureFactory.BUSY_SPIN);
+        assertTrue(factory.createFuture() instanceof BusySpinProviderFuture);
+
+        factory.setWaitStrategy(ProviderFutureFactory.BLOCKING);
+        assertEquals(ProviderFuture.class, factory.createFuture().getClass());
+    }
+
+    @Test
+    public void testSetUnknownWaitStrategyFails() {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+
+        try {
+            factory.setWaitStrategy("unknown");
+            fail("Should not accept an unknown wait strategy");
+        } catch (IllegalArgumentException ex) {
+        }
+
+        assertEquals(ProviderFutureFactory.BLOCKING, factory.getWaitStrategy());
+    }
+
+    @Test
+    public void testCopy() {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+        factory.setWaitStrategy(ProviderFutureFactory.BUSY_SPIN);
+
+        ProviderFutureFactory copy = factory.copy();
+
+        assertNotSame(factory, copy);
+        assertEquals(ProviderFutureFactory.BUSY_SPIN, copy.getWaitStrategy());
+    }
+
+    @Test(timeout = 10000)
+    public void testBalancedFutureCompletedFromAnotherThread() throws Exception {
+        doTestFutureCompletedFromAnotherThread(ProviderFutureFactory.BALANCED);
+    }
+
+    @Test(timeout = 10000)
+    public void testBusySpinFutureCompletedFromAnotherThread() throws Exception {
+        doTestFutureCompletedFromAnotherThread(ProviderFutureFactory.BUSY_SPIN);
+    }
+
+    private void doTestFutureCompletedFromAnotherThread(String waitStrategy) throws Exception {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+        factory.setWaitStrategy(waitStrategy);
+
+        final ProviderFuture future = factory.createFuture();
+
+        Thread completer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                }
+                future.onSuccess();
+            }
+        });
+        completer.start();
+
+        assertTrue(future.sync(5, TimeUnit.SECONDS));
+        assertTrue(future.isComplete());
+    }
+
+    @Test(timeout = 10000)
+    public void testBalancedFutureTimedSyncTimesOut() throws Exception {
+        doTestTimedSyncTimesOut(ProviderFutureFactory.BALANCED);
+    }
+
+    @Test(timeout = 10000)
+    public void testBusySpinFutureTimedSyncTimesOut() throws Exception {
+        doTestTimedSyncTimesOut(ProviderFutureFactory.BUSY_SPIN);
+    }
+
+    private void doTestTimedSyncTimesOut(String waitStrategy) throws Exception {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+        factory.setWaitStrategy(waitStrategy);
+
+        ProviderFuture future = factory.createFuture();
+
+        assertFalse(future.sync(10, TimeUnit.MILLISECONDS));
+        assertFalse(future.isComplete());
+    }
+
+    @Test(timeout = 10000)
+    public void testBusySpinFutureUntimedSyncCompletedAfterSpinning() throws Exception {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+        factory.setWaitStrategy(ProviderFutureFactory.BUSY_SPIN);
+
+        final ProviderFuture future = factory.createFuture();
+
+        Thread completer = new Thread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException e) {
+                }
+                future.onSuccess();
+            }
+        });
+        completer.start();
+
+        future.sync();
+        assertTrue(future.isComplete());
+    }
+
+    @Test(timeout = 10000)
+    public void testBusySpinFutureReportsFailure() {
+        ProviderFutureFactory factory = new ProviderFutureFactory();
+        factory.setWaitStrategy(ProviderFutureFactory.BUSY_SPIN);
+
+        ProviderFuture future = factory.createFuture();
+        IOException ex = new IOException();
+
+        future.onFailure(ex);
+        try {
+            future.sync();
+            fail("Should throw an error");
+        } catch (IOException cause) {
+            assertSame(cause, ex);
+        }
+    }
+}
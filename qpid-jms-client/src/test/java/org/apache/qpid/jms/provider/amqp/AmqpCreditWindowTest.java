@@ -0,0 +1,151 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.amqp;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests for the adaptive credit window used by AMQP consumers
+ */
+public class AmqpCreditWindowTest {
+
+    private static final long START = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testWindowStartsAtMinimum() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+        assertEquals(10, window.getWindow(1000, START));
+    }
+
+    @Test
+    public void testWindowNeverExceedsPrefetchBelowMinimum() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+        assertEquals(5, window.getWindow(5, START));
+    }
+
+    @Test
+    public void testWindowGrowsWithConsumptionRate() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        // 10ms round trip and a message consumed every 100us needs 100 messages per
+        // round trip, the window buffers two round trips.
+        long now = measureRoundTrip(window, TimeUnit.MILLISECONDS.toNanos(10));
+        now = consume(window, now, TimeUnit.MICROSECONDS.toNanos(100), 50);
+
+        assertEquals(200, window.getWindow(1000, now));
+    }
+
+    @Test
+    public void testWindowIsCappedAtPrefetch() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        long now = measureRoundTrip(window, TimeUnit.MILLISECONDS.toNanos(10));
+        now = consume(window, now, TimeUnit.MICROSECONDS.toNanos(1), 50);
+
+        assertEquals(1000, window.getWindow(1000, now));
+    }
+
+    @Test
+    public void testStalledConsumerShrinksToMinimum() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        long now = measureRoundTrip(window, TimeUnit.MILLISECONDS.toNanos(10));
+        now = consume(window, now, TimeUnit.MICROSECONDS.toNanos(100), 50);
+        assertEquals(200, window.getWindow(1000, now));
+
+        assertEquals(10, window.getWindow(1000, now + TimeUnit.SECONDS.toNanos(10)));
+    }
+
+    @Test
+    public void testRoundTripUsesSmallestSample() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        long now = measureRoundTrip(window, TimeUnit.MILLISECONDS.toNanos(10));
+
+        // A long wait for credit to be used reflects an empty queue and not the round trip.
+        window.onCreditGranted(now, true);
+        now += TimeUnit.SECONDS.toNanos(5);
+        window.onDelivery(now);
+
+        now = consume(window, now, TimeUnit.MICROSECONDS.toNanos(100), 50);
+
+        assertEquals(200, window.getWindow(1000, now));
+    }
+
+    @Test
+    public void testCreditGrantedWhenNotStarvedDoesNotSampleRoundTrip() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        window.onCreditGranted(START, false);
+        window.onDelivery(START + TimeUnit.MILLISECONDS.toNanos(10));
+
+        long now = consume(window, START, TimeUnit.MICROSECONDS.toNanos(100), 50);
+
+        assertEquals(10, window.getWindow(1000, now));
+    }
+
+    @Test
+    public void testExcessCreditRevokedWhenWindowShrinksWellBelowCredit() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        long now = measureRoundTrip(window, TimeUnit.MILLISECONDS.toNanos(10));
+        now = consume(window, now, TimeUnit.MICROSECONDS.toNanos(100), 50);
+        assertEquals(200, window.getWindow(1000, now));
+        assertEquals(0, window.getExcessCredit(200, window.getWindow(1000, now)));
+
+        int shrunk = window.getWindow(1000, now + TimeUnit.SECONDS.toNanos(10));
+        assertEquals(10, shrunk);
+        assertEquals(190, window.getExcessCredit(200, shrunk));
+    }
+
+    @Test
+    public void testCreditNearWindowIsNotRevoked() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        assertEquals(0, window.getExcessCredit(40, 20));
+        assertEquals(21, window.getExcessCredit(41, 20));
+        assertEquals(0, window.getExcessCredit(0, 20));
+    }
+
+    @Test
+    public void testAllCreditBeyondMinimumWindowIsRevoked() {
+        AmqpCreditWindow window = new AmqpCreditWindow(10);
+
+        assertEquals(0, window.getExcessCredit(10, 10));
+        assertEquals(1, window.getExcessCredit(11, 10));
+        assertEquals(10, window.getExcessCredit(20, 10));
+    }
+
+    private long measureRoundTrip(AmqpCreditWindow window, long roundTripTime) {
+        window.onCreditGranted(START, true);
+        window.onDelivery(START + roundTripTime);
+        return START + roundTripTime;
+    }
+
+    private long consume(AmqpCreditWindow window, long now, long interval, int count) {
+        for (int i = 0; i < count; ++i) {
+            now += interval;
+            window.onConsumed(now);
+        }
+
+        return now;
+    }
+}
@@ -129,6 +129,120 @@ public class AmqpProviderFactoryTest extends QpidJmsTestCase {
         assertEquals(32, amqpProvider.getChannelMax());
     }
 
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesCoalesceWritesOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.coalesceWrites=true" +
+            "&amqp.coalesceWritesMaxBytes=4096");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isCoalesceWrites());
+        assertEquals(4096, amqpProvider.getCoalesceWritesMaxBytes());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesCoalesceAcksOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.coalesceAcks=true" +
+            "&amqp.coalesceAcksMaxCount=50" +
+            "&amqp.coalesceAcksMaxDelay=25");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isCoalesceAcks());
+        assertEquals(50, amqpProvider.getCoalesceAcksMaxCount());
+        assertEquals(25, amqpProvider.getCoalesceAcksMaxDelay());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesSendBatchOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.sendBatchLinger=5" +
+            "&amqp.sendBatchMaxBytes=8192");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(5, amqpProvider.getSendBatchLinger());
+        assertEquals(8192, amqpProvider.getSendBatchMaxBytes());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesLazyDecodeOption() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() + "?amqp.lazyDecode=true");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isLazyDecode());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesPooledEncodeBuffersOption() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() + "?amqp.pooledEncodeBuffers=true");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isPooledEncodeBuffers());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesAdaptivePrefetchOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.adaptivePrefetch=true&amqp.adaptivePrefetchMinimum=25");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isAdaptivePrefetch());
+        assertEquals(25, amqpProvider.getAdaptivePrefetchMinimum());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesPrefetchBudgetOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.maxPrefetchBytes=1048576&amqp.maxConnectionPrefetchBytes=8388608");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(1048576, amqpProvider.getMaxPrefetchBytes());
+        assertEquals(8388608, amqpProvider.getMaxConnectionPrefetchBytes());
+        assertTrue(amqpProvider.isPrefetchBudgeted());
+    }
+
+    @Test(timeout = 20000)
+    public void testCreateProviderAppliesAnonymousFallbackCacheOptions() throws IOException, Exception {
+        URI configuredURI = new URI(peerURI.toString() +
+            "?amqp.anonymousFallbackCache=true&amqp.anonymousFallbackCacheSize=500");
+        Provider provider = AmqpProviderFactory.create(configuredURI);
+        assertNotNull(provider);
+        assertTrue(provider instanceof AmqpProvider);
+
+        AmqpProvider amqpProvider = (AmqpProvider) provider;
+
+        assertEquals(true, amqpProvider.isAnonymousFallbackCache());
+        assertEquals(500, amqpProvider.getAnonymousFallbackCacheSize());
+    }
+
     @Test(timeout = 20000)
     public void testCreateProviderEncodedVhost() throws IOException, Exception {
         URI configuredURI = new URI(peerURI.toString() +
@@ -25,12 +25,15 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +49,7 @@ import org.apache.qpid.jms.message.JmsTextMessage;
 import org.apache.qpid.jms.message.facade.JmsMessageFacade;
 import org.apache.qpid.jms.meta.JmsConsumerId;
 import org.apache.qpid.jms.meta.JmsConsumerInfo;
+import org.apache.qpid.jms.provider.amqp.AmqpConnection;
 import org.apache.qpid.jms.provider.amqp.AmqpConsumer;
 import org.apache.qpid.jms.test.QpidJmsTestCase;
 import org.apache.qpid.proton.Proton;
@@ -54,16 +58,24 @@ import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.UnsignedInteger;
 import org.apache.qpid.proton.amqp.messaging.AmqpSequence;
 import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
 import org.apache.qpid.proton.amqp.messaging.Data;
+import org.apache.qpid.proton.amqp.messaging.Footer;
 import org.apache.qpid.proton.amqp.messaging.Header;
 import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
+import org.apache.qpid.proton.codec.CompositeReadableBuffer;
 import org.apache.qpid.proton.message.Message;
 import org.apache.qpid.proton.message.impl.MessageImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
 
+import io.netty.buffer.AbstractByteBufAllocator;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.buffer.UnpooledHeapByteBuf;
 
 public class AmqpCodecTest extends QpidJmsTestCase {
     private AmqpConsumer mockConsumer;
@@ -867,6 +879,299 @@ public class AmqpCodecTest extends QpidJmsTestCase {
         assertTrue("Unexpected delegate type: " + delegate, delegate instanceof AmqpTypedObjectDelegate);
     }
 
+    // --------- Encode of large Data Body Section ---------
+
+    @Test
+    public void testEncodeMessageWithLargeDataBodyWrapsBody() throws Exception {
+        doTestEncodeMessageWithDataBody(AmqpCodec.DATA_BODY_WRAP_THRESHOLD, false);
+    }
+
+    @Test
+    public void testEncodeMessageWithLargeDataBodyAndFooterWrapsBody() throws Exception {
+        doTestEncodeMessageWithDataBody(AmqpCodec.DATA_BODY_WRAP_THRESHOLD * 2, true);
+    }
+
+    @Test
+    public void testEncodeMessageWithSmallDataBody() throws Exception {
+        doTestEncodeMessageWithDataBody(AmqpCodec.DATA_BODY_WRAP_THRESHOLD - 1, true);
+    }
+
+    private void doTestEncodeMessageWithDataBody(int bodySize, boolean withFooter) throws Exception {
+        byte[] payload = new byte[bodySize];
+        for (int i = 0; i < payload.length; ++i) {
+            payload[i] = (byte) i;
+        }
+
+        AmqpJmsBytesMessageFacade facade = new AmqpJmsBytesMessageFacade();
+        facade.initialize(Mockito.mock(AmqpConnection.class));
+        facade.setBody(new Data(new Binary(payload)));
+        facade.setApplicationProperty("property", "value");
+        if (withFooter) {
+            Map<Symbol, Object> footerValues = new HashMap<>();
+            footerValues.put(Symbol.valueOf("footer"), "value");
+            facade.setFooter(new Footer(footerValues));
+        }
+
+        ByteBuf encoded = AmqpCodec.encodeMessage(facade);
+        if (bodySize >= AmqpCodec.DATA_BODY_WRAP_THRESHOLD) {
+            assertTrue("Large body should be wrapped", encoded.nioBufferCount() > 1);
+        }
+
+        byte[] encodedBytes = new byte[encoded.readableBytes()];
+        encoded.readBytes(encodedBytes);
+
+        Message message = Proton.message();
+        message.decode(encodedBytes, 0, encodedBytes.length);
+
+        assertEquals(new Binary(payload), ((Data) message.getBody()).getValue());
+        assertEquals("value", message.getApplicationProperties().getValue().get("property"));
+        if (withFooter) {
+            assertEquals("value", message.getFooter().getValue().get(Symbol.valueOf("footer")));
+        } else {
+            assertNull(message.getFooter());
+        }
+
+        JmsMessage jmsMessage = AmqpCodec.decodeMessage(mockConsumer, new AmqpReadableBuffer(Unpooled.wrappedBuffer(encodedBytes))).asJmsMessage();
+        assertEquals("Unexpected message class type", JmsBytesMessage.class, jmsMessage.getClass());
+        assertEquals(bodySize, ((AmqpJmsBytesMessageFacade) jmsMessage.getFacade()).getBodyLength());
+    }
+
+    // --------- Encode into pooled buffers ---------
+
+    @Test
+    public void testEncodeMessageIntoPooledBufferUpdatesSizeEstimate() throws Exception {
+        AmqpEncodeSizeEstimate estimate = new AmqpEncodeSizeEstimate();
+
+        AmqpJmsTextMessageFacade facade = new AmqpJmsTextMessageFacade();
+        facade.initialize(Mockito.mock(AmqpConnection.class));
+        facade.setText(new String(new char[64 * 1024]).replace('\0', 'a'));
+
+        ByteBuf encoded = AmqpCodec.encodeMessage(facade, PooledByteBufAllocator.DEFAULT, estimate);
+        assertTrue(encoded.alloc() instanceof PooledByteBufAllocator);
+        assertEquals(encoded.readableBytes(), estimate.getEstimate());
+
+        ByteBuf reencoded = AmqpCodec.encodeMessage(facade, PooledByteBufAllocator.DEFAULT, estimate);
+        assertEquals("Buffer should not have grown", encoded.readableBytes(), reencoded.capacity());
+        assertEquals(encoded, reencoded);
+
+        assertTrue(encoded.release());
+        assertTrue(reencoded.release());
+    }
+
+    @Test
+    public void testEncodeMessageWithLargeDataBodyIntoPooledBuffer() throws Exception {
+        AmqpEncodeSizeEstimate estimate = new AmqpEncodeSizeEstimate();
+        byte[] payload = new byte[AmqpCodec.DATA_BODY_WRAP_THRESHOLD * 2];
+
+        AmqpJmsBytesMessageFacade facade = new AmqpJmsBytesMessageFacade();
+        facade.initialize(Mockito.mock(AmqpConnection.class));
+        facade.setBody(new Data(new Binary(payload)));
+
+        ByteBuf encoded = AmqpCodec.encodeMessage(facade, PooledByteBufAllocator.DEFAULT, estimate);
+        assertTrue(encoded.alloc() instanceof PooledByteBufAllocator);
+        assertTrue("Wrapped body should not count towards the estimate", estimate.getEstimate() < payload.length);
+        assertEquals(AmqpCodec.encodeMessage(facade), encoded);
+
+        assertTrue(encoded.release());
+    }
+
+    @Test
+    public void testEncodeFailureInFooterReleasesAllBuffers() throws Exception {
+        final List<ByteBuf> allocated = new ArrayList<>();
+        ByteBufAllocator allocator = new AbstractByteBufAllocator() {
+
+            @Override
+            protected ByteBuf newHeapBuffer(int initialCapacity, int maxCapacity) {
+                ByteBuf buffer = new UnpooledHeapByteBuf(this, initialCapacity, maxCapacity);
+                allocated.add(buffer);
+                return buffer;
+            }
+
+            @Override
+            protected ByteBuf newDirectBuffer(int initialCapacity, int maxCapacity) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isDirectBufferPooled() {
+                return false;
+            }
+        };
+
+        AmqpJmsBytesMessageFacade facade = new AmqpJmsBytesMessageFacade();
+        facade.initialize(Mockito.mock(AmqpConnection.class));
+        facade.setBody(new Data(new Binary(new byte[AmqpCodec.DATA_BODY_WRAP_THRESHOLD * 2])));
+
+        Map<Symbol, Object> footerValues = new HashMap<>();
+        footerValues.put(Symbol.valueOf("footer"), new Object());
+        facade.setFooter(new Footer(footerValues));
+
+        try {
+            AmqpCodec.encodeMessage(facade, allocator, new AmqpEncodeSizeEstimate());
+            fail("Should not be able to encode the footer");
+        } catch (RuntimeException ex) {
+            // Expected
+        }
+
+        assertEquals("Expected leading sections and footer buffers", 2, allocated.size());
+        for (ByteBuf buffer : allocated) {
+            assertEquals(0, buffer.refCnt());
+        }
+    }
+
+    @Test
+    public void testEncodeSizeEstimateShrinksSlowly() throws Exception {
+        AmqpEncodeSizeEstimate estimate = new AmqpEncodeSizeEstimate();
+
+        estimate.record(100 * 1024);
+        assertEquals(100 * 1024, estimate.getEstimate());
+
+        estimate.record(100);
+        assertTrue(estimate.getEstimate() > 80 * 1024);
+
+        for (int i = 0; i < 100; ++i) {
+            estimate.record(100);
+        }
+        assertTrue(estimate.getEstimate() < 1024);
+    }
+
+    // --------- Decode of Data Body Section in place ---------
+
+    @Test
+    public void testDecodeSmallDataBodyReferencesDeliveryBytes() throws Exception {
+        doTestDecodeDataBodyReferencesDeliveryBytes(16, false);
+    }
+
+    @Test
+    public void testDecodeLargeDataBodyReferencesDeliveryBytes() throws Exception {
+        doTestDecodeDataBodyReferencesDeliveryBytes(64 * 1024, false);
+    }
+
+    @Test
+    public void testDecodeDataBodyReferencesDeliveryBytesWithFooter() throws Exception {
+        doTestDecodeDataBodyReferencesDeliveryBytes(1024, true);
+    }
+
+    private void doTestDecodeDataBodyReferencesDeliveryBytes(int bodySize, boolean withFooter) throws Exception {
+        byte[] payload = new byte[bodySize];
+        for (int i = 0; i < payload.length; ++i) {
+            payload[i] = (byte) i;
+        }
+
+        Message message = Proton.message();
+        message.setDurable(true);
+        message.setBody(new Data(new Binary(payload)));
+        if (withFooter) {
+            Map<Symbol, Object> footerValues = new HashMap<>();
+            footerValues.put(Symbol.valueOf("footer"), "value");
+            message.setFooter(new Footer(footerValues));
+        }
+
+        byte[] encoded = new byte[bodySize + 1024];
+        int encodedSize = message.encode(encoded, 0, encoded.length);
+        byte[] deliveryBytes = Arrays.copyOf(encoded, encodedSize);
+
+        CompositeReadableBuffer delivery = new CompositeReadableBuffer();
+        delivery.append(deliveryBytes);
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, delivery);
+        assertEquals("Unexpected facade class type", AmqpJmsBytesMessageFacade.class, facade.getClass());
+
+        Binary body = ((Data) facade.getBody()).getValue();
+        assertSame("Body should reference the delivery bytes", deliveryBytes, body.getArray());
+        assertEquals(new Binary(payload), body);
+        assertTrue(facade.isPersistent());
+
+        if (withFooter) {
+            assertEquals("value", facade.getFooter().getValue().get(Symbol.valueOf("footer")));
+        } else {
+            assertNull(facade.getFooter());
+        }
+    }
+
+    // --------- Lazy decode of Application Properties and Footer ---------
+
+    @Test
+    public void testLazyDecodeOfSmallApplicationProperties() throws Exception {
+        doTestLazyDecodeOfApplicationPropertiesAndFooter(5, false);
+    }
+
+    @Test
+    public void testLazyDecodeOfLargeApplicationProperties() throws Exception {
+        doTestLazyDecodeOfApplicationPropertiesAndFooter(500, false);
+    }
+
+    @Test
+    public void testLazyDecodeOfApplicationPropertiesAndFooter() throws Exception {
+        doTestLazyDecodeOfApplicationPropertiesAndFooter(5, true);
+    }
+
+    private void doTestLazyDecodeOfApplicationPropertiesAndFooter(int propertyCount, boolean withFooter) throws Exception {
+        Map<String, Object> propertyValues = new HashMap<>();
+        for (int i = 0; i < propertyCount; ++i) {
+            propertyValues.put("property-" + i, "value-" + i);
+        }
+
+        Message message = Proton.message();
+        message.setDurable(true);
+        message.setApplicationProperties(new ApplicationProperties(propertyValues));
+        message.setBody(new AmqpValue("content"));
+        if (withFooter) {
+            Map<Symbol, Object> footerValues = new HashMap<>();
+            footerValues.put(Symbol.valueOf("footer"), "value");
+            message.setFooter(new Footer(footerValues));
+        }
+
+        byte[] encoded = new byte[64 * 1024];
+        int encodedSize = message.encode(encoded, 0, encoded.length);
+
+        CompositeReadableBuffer delivery = new CompositeReadableBuffer();
+        delivery.append(Arrays.copyOf(encoded, encodedSize));
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, delivery, true);
+        assertEquals("Unexpected facade class type", AmqpJmsTextMessageFacade.class, facade.getClass());
+        assertEquals("content", ((AmqpJmsTextMessageFacade) facade).getText());
+        assertTrue(facade.isPersistent());
+
+        AmqpJmsMessageFacade copy = facade.copy();
+
+        for (int i = 0; i < propertyCount; ++i) {
+            assertTrue(facade.applicationPropertyExists("property-" + i));
+            assertEquals("value-" + i, facade.getApplicationProperty("property-" + i));
+            assertEquals("value-" + i, copy.getApplicationProperty("property-" + i));
+        }
+        assertEquals(propertyValues, facade.getApplicationProperties().getValue());
+
+        if (withFooter) {
+            assertEquals("value", facade.getFooter().getValue().get(Symbol.valueOf("footer")));
+            assertEquals("value", copy.getFooter().getValue().get(Symbol.valueOf("footer")));
+        } else {
+            assertNull(facade.getFooter());
+        }
+    }
+
+    @Test
+    public void testLazyDecodeApplicationPropertiesCanBeCleared() throws Exception {
+        Map<String, Object> propertyValues = new HashMap<>();
+        propertyValues.put("property", "value");
+
+        Message message = Proton.message();
+        message.setApplicationProperties(new ApplicationProperties(propertyValues));
+
+        byte[] encoded = new byte[1024];
+        int encodedSize = message.encode(encoded, 0, encoded.length);
+
+        CompositeReadableBuffer delivery = new CompositeReadableBuffer();
+        delivery.append(Arrays.copyOf(encoded, encodedSize));
+
+        AmqpJmsMessageFacade facade = AmqpCodec.decodeMessage(mockConsumer, delivery, true);
+
+        facade.clearAllApplicationProperties();
+
+        assertFalse(facade.applicationPropertyExists("property"));
+        assertNull(facade.getApplicationProperties());
+    }
+
     // --------- AmqpSequence Body Section ---------
 
     /**
@@ -253,6 +253,22 @@ public class AmqpReadableBufferTest {
         }
     }
 
+    @Test
+    public void testGetBytesToWritableBufferFromCompositeBuffer() {
+        byte[] data = new byte[] { 0, 1, 2, 3, 4, 5, 6, 7};
+        ByteBuf byteBuffer = Unpooled.wrappedBuffer(
+            Unpooled.wrappedBuffer(data, 0, 3), Unpooled.wrappedBuffer(data, 3, 5));
+        AmqpReadableBuffer buffer = new AmqpReadableBuffer(byteBuffer);
+        ByteBuf targetBuffer = Unpooled.buffer(data.length, data.length);
+        AmqpWritableBuffer target = new AmqpWritableBuffer(targetBuffer);
+
+        assertTrue(byteBuffer.nioBufferCount() > 1);
+
+        buffer.get(target);
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(targetBuffer.array(), data);
+    }
+
     @Test
     public void testDuplicate() {
         byte[] data = new byte[] { 0, 1, 2, 3, 4};
@@ -32,6 +32,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import javax.jms.Connection;
 import javax.jms.Destination;
@@ -47,6 +48,7 @@ import org.apache.qpid.jms.meta.JmsProducerInfo;
 import org.apache.qpid.jms.meta.JmsSessionInfo;
 import org.apache.qpid.jms.provider.DefaultProviderListener;
 import org.apache.qpid.jms.provider.ProviderFuture;
+import org.apache.qpid.jms.provider.mock.MockProviderStats;
 import org.apache.qpid.jms.test.Wait;
 import org.junit.After;
 import org.junit.Before;
@@ -190,6 +192,40 @@ public class FailoverProviderTest extends FailoverProviderTestSupport {
         assertEquals(1, mockPeer.getContextStats().getConnectionAttempts());
     }
 
+    @Test(timeout = 30000)
+    public void testConnectRacesParallelAttempts() throws Exception {
+        provider = new FailoverProvider(uris, Collections.<String, String>emptyMap());
+        provider.setParallelConnectAttempts(uris.size());
+        assertEquals(uris.size(), provider.getParallelConnectAttempts());
+
+        provider.setProviderListener(new DefaultProviderListener());
+        provider.connect(connection);
+
+        ProviderFuture request = new ProviderFuture();
+        provider.create(createConnectionInfo(), request);
+
+        request.sync(10, TimeUnit.SECONDS);
+
+        assertTrue(request.isComplete());
+
+        // Attempts that had not started when the race was won are cancelled, all
+        // providers that were created other than the winner are closed.
+        assertTrue("Losing providers should be closed", Wait.waitFor(new Wait.Condition() {
+
+            @Override
+            public boolean isSatisified() throws Exception {
+                MockProviderStats stats = mockPeer.getContextStats();
+                return stats.getCloseAttempts() == stats.getProvidersCreated() - 1;
+            }
+        }, TimeUnit.SECONDS.toMillis(20), 10));
+
+        assertTrue(mockPeer.getContextStats().getProvidersCreated() <= uris.size());
+
+        provider.close();
+
+        assertEquals(mockPeer.getContextStats().getProvidersCreated(), mockPeer.getContextStats().getCloseAttempts());
+    }
+
     @Test(timeout = 30000)
     public void testCannotStartWithoutListener() throws Exception {
         provider = new FailoverProvider(uris, Collections.<String, String>emptyMap());
@@ -414,6 +450,48 @@ public class FailoverProviderTest extends FailoverProviderTestSupport {
         assertEquals(1, mockPeer.getContextStats().getSendCalls());
     }
 
+    @Test(timeout = 30000)
+    public void testManySendsFromSeveralThreadsPassthrough() throws Exception {
+        JmsConnectionFactory factory = new JmsConnectionFactory(
+            "failover:(mock://localhost)");
+
+        final int THREAD_COUNT = 4;
+        final int MSG_COUNT = 100;
+
+        final Connection connection = factory.createConnection();
+        connection.start();
+
+        Thread[] senders = new Thread[THREAD_COUNT];
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int i = 0; i < THREAD_COUNT; ++i) {
+            senders[i] = new Thread(new Runnable() {
+
+                @Override
+                public void run() {
+                    try {
+                        Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+                        MessageProducer producer = session.createProducer(session.createQueue(getTestName()));
+                        for (int j = 0; j < MSG_COUNT; ++j) {
+                            producer.send(session.createMessage());
+                        }
+                    } catch (Throwable error) {
+                        failure.compareAndSet(null, error);
+                    }
+                }
+            });
+            senders[i].start();
+        }
+
+        for (Thread sender : senders) {
+            sender.join();
+        }
+
+        connection.close();
+
+        assertNull(failure.get());
+        assertEquals(THREAD_COUNT * MSG_COUNT, mockPeer.getContextStats().getSendCalls());
+    }
+
     @Test(timeout=10000)
     public void testTimeoutsSetFromConnectionInfo() throws IOException, JMSException {
         final long CONNECT_TIMEOUT = TimeUnit.SECONDS.toMillis(4);
@@ -33,6 +33,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.qpid.jms.test.QpidJmsTestCase;
 import org.apache.qpid.jms.util.URISupport;
@@ -455,6 +456,64 @@ public class FailoverUriPoolTest extends QpidJmsTestCase {
         }
     }
 
+    @Test
+    public void testGetSetLatencyAware() {
+        FailoverUriPool pool = new FailoverUriPool();
+        assertEquals(FailoverUriPool.DEFAULT_LATENCY_AWARE_ENABLED, pool.isLatencyAware());
+        pool.setLatencyAware(true);
+        assertTrue(pool.isLatencyAware());
+        pool.setLatencyAware(false);
+        assertFalse(pool.isLatencyAware());
+    }
+
+    @Test
+    public void testPrioritizeOrdersByConnectHistoryWhenLatencyAware() {
+        FailoverUriPool pool = new FailoverUriPool(uris, null);
+        pool.setLatencyAware(true);
+
+        pool.connectFailed(uris.get(0));
+        pool.connectSucceeded(uris.get(1), TimeUnit.MILLISECONDS.toNanos(50));
+        pool.connectSucceeded(uris.get(2), TimeUnit.MILLISECONDS.toNanos(1));
+
+        pool.prioritize();
+
+        // URIs with no history are tried first, known failures are tried last.
+        assertEquals(uris.get(3), pool.getNext());
+        assertEquals(uris.get(2), pool.getNext());
+        assertEquals(uris.get(1), pool.getNext());
+        assertEquals(uris.get(0), pool.getNext());
+    }
+
+    @Test
+    public void testPrioritizeFavoursRecoveredURIOverSlowerOne() {
+        FailoverUriPool pool = new FailoverUriPool(uris.subList(0, 2), null);
+        pool.setLatencyAware(true);
+
+        pool.connectFailed(uris.get(0));
+        for (int i = 0; i < 20; ++i) {
+            pool.connectSucceeded(uris.get(0), TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        pool.connectSucceeded(uris.get(1), TimeUnit.MILLISECONDS.toNanos(100));
+
+        pool.prioritize();
+
+        assertEquals(uris.get(0), pool.getNext());
+        assertEquals(uris.get(1), pool.getNext());
+    }
+
+    @Test
+    public void testPrioritizeDoesNotReorderWhenNotLatencyAware() {
+        FailoverUriPool pool = new FailoverUriPool(uris, null);
+        assertFalse(pool.isLatencyAware());
+
+        pool.connectFailed(uris.get(0));
+        pool.connectSucceeded(uris.get(3), TimeUnit.MILLISECONDS.toNanos(1));
+
+        pool.prioritize();
+
+        assertEquals(uris, pool.getList());
+    }
+
     @Test
     public void testAddOrRemoveNullHasNoAffect() throws URISyntaxException {
         FailoverUriPool pool = new FailoverUriPool(uris, null);
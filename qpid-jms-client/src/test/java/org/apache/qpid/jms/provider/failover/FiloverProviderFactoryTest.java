@@ -80,6 +80,8 @@ public class FiloverProviderFactoryTest extends QpidJmsTestCase {
         assertEquals(FailoverProvider.DEFAULT_RECONNECT_BACKOFF_MULTIPLIER, failover.getReconnectBackOffMultiplier(), 0.0);
         assertEquals(FailoverProvider.DEFAULT_WARN_AFTER_RECONNECT_ATTEMPTS, failover.getWarnAfterReconnectAttempts());
         assertEquals(FailoverUriPool.DEFAULT_RANDOMIZE_ENABLED, failover.isRandomize());
+        assertEquals(FailoverUriPool.DEFAULT_LATENCY_AWARE_ENABLED, failover.isLatencyAware());
+        assertEquals(FailoverProvider.DEFAULT_PARALLEL_CONNECT_ATTEMPTS, failover.getParallelConnectAttempts());
     }
 
     @Test(timeout = 60000, expected = IllegalArgumentException.class)
@@ -99,7 +101,9 @@ public class FiloverProviderFactoryTest extends QpidJmsTestCase {
             "&failover.warnAfterReconnectAttempts=" + (FailoverProvider.DEFAULT_WARN_AFTER_RECONNECT_ATTEMPTS + 6) +
             "&failover.useReconnectBackOff=" + (!FailoverProvider.DEFAULT_USE_RECONNECT_BACKOFF) +
             "&failover.reconnectBackOffMultiplier=" + (FailoverProvider.DEFAULT_RECONNECT_BACKOFF_MULTIPLIER + 1.0d) +
-            "&failover.randomize=" + (!FailoverUriPool.DEFAULT_RANDOMIZE_ENABLED));
+            "&failover.randomize=" + (!FailoverUriPool.DEFAULT_RANDOMIZE_ENABLED) +
+            "&failover.latencyAware=" + (!FailoverUriPool.DEFAULT_LATENCY_AWARE_ENABLED) +
+            "&failover.parallelConnectAttempts=" + (FailoverProvider.DEFAULT_PARALLEL_CONNECT_ATTEMPTS + 2));
 
         Provider provider = factory.createProvider(configured);
         assertNotNull(provider);
@@ -116,6 +120,8 @@ public class FiloverProviderFactoryTest extends QpidJmsTestCase {
         assertEquals(!FailoverProvider.DEFAULT_USE_RECONNECT_BACKOFF, failover.isUseReconnectBackOff());
         assertEquals(FailoverProvider.DEFAULT_RECONNECT_BACKOFF_MULTIPLIER + 1.0d, failover.getReconnectBackOffMultiplier(), 0.0);
         assertEquals(!FailoverUriPool.DEFAULT_RANDOMIZE_ENABLED, failover.isRandomize());
+        assertEquals(!FailoverUriPool.DEFAULT_LATENCY_AWARE_ENABLED, failover.isLatencyAware());
+        assertEquals(FailoverProvider.DEFAULT_PARALLEL_CONNECT_ATTEMPTS + 2, failover.getParallelConnectAttempts());
     }
 
     @Test(timeout = 60000)
@@ -29,12 +29,14 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jms.JMSException;
 
+import org.apache.qpid.jms.JmsDestination;
 import org.apache.qpid.jms.message.JmsInboundMessageDispatch;
 import org.apache.qpid.jms.message.JmsMessageFactory;
 import org.apache.qpid.jms.message.JmsOutboundMessageDispatch;
 import org.apache.qpid.jms.message.facade.test.JmsTestMessageFactory;
 import org.apache.qpid.jms.meta.JmsConnectionInfo;
 import org.apache.qpid.jms.meta.JmsConsumerId;
+import org.apache.qpid.jms.meta.JmsProducerId;
 import org.apache.qpid.jms.meta.JmsResource;
 import org.apache.qpid.jms.meta.JmsSessionId;
 import org.apache.qpid.jms.meta.JmsTransactionInfo;
@@ -290,7 +292,9 @@ public class MockProvider implements Provider {
                     }
 
                     // Put the message back to usable state following send complete
-                    envelope.getMessage().onSendComplete();
+                    if (envelope.getMessage() != null) {
+                        envelope.getMessage().onSendComplete();
+                    }
 
                     request.onSuccess();
                     if (envelope.isCompletionRequired()) {
@@ -345,6 +349,24 @@ public class MockProvider implements Provider {
         });
     }
 
+    @Override
+    public void acknowledge(final List<JmsInboundMessageDispatch> envelopes, final ACK_TYPE ackType, final AsyncResult request) throws IOException, JMSException {
+        checkClosed();
+        serializer.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    checkClosed();
+                    stats.recoordAcknowledgeCall();
+                    request.onSuccess();
+                } catch (Exception error) {
+                    request.onFailure(error);
+                }
+            }
+        });
+    }
+
     @Override
     public void commit(final JmsTransactionInfo transactionInfo, final JmsTransactionInfo nextTransactionInfo, final AsyncResult request) throws IOException, JMSException {
         checkClosed();
@@ -435,6 +457,23 @@ public class MockProvider implements Provider {
         });
     }
 
+    @Override
+    public void warmUp(final JmsProducerId producerId, final List<JmsDestination> destinations, final AsyncResult request) throws IOException {
+        checkClosed();
+        serializer.execute(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    checkClosed();
+                    request.onSuccess();
+                } catch (Exception error) {
+                    request.onFailure(error);
+                }
+            }
+        });
+    }
+
     //----- API for generating provider events to a connection ---------------//
 
     public void signalConnectionFailed() {
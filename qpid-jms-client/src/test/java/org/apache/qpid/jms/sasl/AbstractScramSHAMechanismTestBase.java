@@ -17,8 +17,11 @@
 package org.apache.qpid.jms.sasl;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
+import java.util.Arrays;
+
 import javax.security.sasl.SaslException;
 
 import org.junit.Test;
@@ -60,6 +63,37 @@ public abstract class AbstractScramSHAMechanismTestBase {
         mechanism.verifyCompletion();
     }
 
+    @Test
+    public void testRepeatedAuthenticationWithSameCredentials() throws Exception {
+        for (int i = 0; i < 3; ++i) {
+            Mechanism mechanism = getConfiguredMechanism();
+
+            mechanism.getInitialResponse();
+            assertArrayEquals(expectedClientFinalMessage, mechanism.getChallengeResponse(serverFirstMessage));
+            mechanism.getChallengeResponse(serverFinalMessage);
+            mechanism.verifyCompletion();
+        }
+    }
+
+    @Test
+    public void testDifferentPasswordDoesNotReuseDerivedKeys() throws Exception {
+        Mechanism mechanism = getConfiguredMechanism();
+        mechanism.getInitialResponse();
+        assertArrayEquals(expectedClientFinalMessage, mechanism.getChallengeResponse(serverFirstMessage));
+
+        Mechanism otherPassword = getConfiguredMechanism();
+        otherPassword.setPassword("not-" + mechanism.getPassword());
+        otherPassword.getInitialResponse();
+        assertFalse(Arrays.equals(expectedClientFinalMessage, otherPassword.getChallengeResponse(serverFirstMessage)));
+
+        try {
+            otherPassword.getChallengeResponse(serverFinalMessage);
+            fail("Exception not thrown");
+        } catch (SaslException e) {
+            // PASS
+        }
+    }
+
     @Test
     public void testServerFirstMessageMalformed() throws Exception {
         Mechanism mechanism = getConfiguredMechanism();
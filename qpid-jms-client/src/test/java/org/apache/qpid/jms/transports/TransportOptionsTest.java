@@ -38,12 +38,19 @@ public class TransportOptionsTest extends QpidJmsTestCase {
     public static final int TEST_DEFAULT_TCP_PORT = 5682;
     public static final boolean TEST_USE_EPOLL_VALUE = !TransportOptions.DEFAULT_USE_EPOLL;
     public static final boolean TEST_TRACE_BYTES_VALUE = !TransportOptions.DEFAULT_TRACE_BYTES;
+    public static final int TEST_SHARED_EVENT_LOOP_THREADS = 4;
+    public static final boolean TEST_WEBSOCKET_BATCHING = !TransportOptions.DEFAULT_WEBSOCKET_BATCHING;
+    public static final boolean TEST_WEBSOCKET_COMPRESSION = !TransportOptions.DEFAULT_WEBSOCKET_COMPRESSION;
+    public static final int TEST_WEBSOCKET_COMPRESSION_THRESHOLD = 256;
 
     @Test
     public void testCreate() {
         TransportOptions options = new TransportOptions();
 
         assertEquals(TransportOptions.DEFAULT_TCP_NO_DELAY, options.isTcpNoDelay());
+        assertEquals(TransportOptions.DEFAULT_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
+        assertEquals(TransportOptions.DEFAULT_WEBSOCKET_BATCHING, options.isWebSocketBatching());
+        assertEquals(TransportOptions.DEFAULT_WEBSOCKET_COMPRESSION, options.isWebSocketCompression());
     }
 
     @Test
@@ -61,6 +68,10 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(TEST_DEFAULT_TCP_PORT, options.getDefaultTcpPort());
         assertEquals(TEST_USE_EPOLL_VALUE, options.isUseEpoll());
         assertEquals(TEST_TRACE_BYTES_VALUE, options.isTraceBytes());
+        assertEquals(TEST_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
+        assertEquals(TEST_WEBSOCKET_BATCHING, options.isWebSocketBatching());
+        assertEquals(TEST_WEBSOCKET_COMPRESSION, options.isWebSocketCompression());
+        assertEquals(TEST_WEBSOCKET_COMPRESSION_THRESHOLD, options.getWebSocketCompressionThreshold());
     }
 
     @Test
@@ -78,6 +89,10 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         assertEquals(TEST_DEFAULT_TCP_PORT, options.getDefaultTcpPort());
         assertEquals(TEST_USE_EPOLL_VALUE, options.isUseEpoll());
         assertEquals(TEST_TRACE_BYTES_VALUE, options.isTraceBytes());
+        assertEquals(TEST_SHARED_EVENT_LOOP_THREADS, options.getSharedEventLoopThreads());
+        assertEquals(TEST_WEBSOCKET_BATCHING, options.isWebSocketBatching());
+        assertEquals(TEST_WEBSOCKET_COMPRESSION, options.isWebSocketCompression());
+        assertEquals(TEST_WEBSOCKET_COMPRESSION_THRESHOLD, options.getWebSocketCompressionThreshold());
     }
 
     @Test
@@ -147,6 +162,10 @@ public class TransportOptionsTest extends QpidJmsTestCase {
         options.setDefaultTcpPort(TEST_DEFAULT_TCP_PORT);
         options.setUseEpoll(TEST_USE_EPOLL_VALUE);
         options.setTraceBytes(TEST_TRACE_BYTES_VALUE);
+        options.setSharedEventLoopThreads(TEST_SHARED_EVENT_LOOP_THREADS);
+        options.setWebSocketBatching(TEST_WEBSOCKET_BATCHING);
+        options.setWebSocketCompression(TEST_WEBSOCKET_COMPRESSION);
+        options.setWebSocketCompressionThreshold(TEST_WEBSOCKET_COMPRESSION_THRESHOLD);
 
         return options;
     }
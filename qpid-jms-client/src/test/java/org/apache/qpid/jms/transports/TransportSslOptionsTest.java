@@ -20,6 +20,7 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import javax.net.ssl.SSLContext;
 
@@ -84,6 +85,8 @@ public class TransportSslOptionsTest extends QpidJmsTestCase {
         assertNull(options.getTrustStorePassword());
         assertNull(options.getKeyAlias());
         assertNull(options.getSslContextOverride());
+        assertEquals(TransportSslOptions.DEFAULT_CACHE_SSL_CONTEXT, options.isCacheSslContext());
+        assertEquals(TransportSslOptions.DEFAULT_USE_OPENSSL, options.isUseOpenSSL());
     }
 
     @Test
@@ -108,6 +111,8 @@ public class TransportSslOptionsTest extends QpidJmsTestCase {
         assertEquals(KEY_ALIAS, options.getKeyAlias());
         assertEquals(CONTEXT_PROTOCOL, options.getContextProtocol());
         assertEquals(SSL_CONTEXT, options.getSslContextOverride());
+        assertTrue(options.isCacheSslContext());
+        assertTrue(options.isUseOpenSSL());
         assertArrayEquals(ENABLED_PROTOCOLS,options.getEnabledProtocols());
         assertArrayEquals(DISABLED_PROTOCOLS,options.getDisabledProtocols());
         assertArrayEquals(ENABLED_CIPHERS,options.getEnabledCipherSuites());
@@ -137,6 +142,8 @@ public class TransportSslOptionsTest extends QpidJmsTestCase {
         assertEquals(KEY_ALIAS, options.getKeyAlias());
         assertEquals(CONTEXT_PROTOCOL, options.getContextProtocol());
         assertEquals(SSL_CONTEXT, options.getSslContextOverride());
+        assertTrue(options.isCacheSslContext());
+        assertTrue(options.isUseOpenSSL());
         assertArrayEquals(ENABLED_PROTOCOLS,options.getEnabledProtocols());
         assertArrayEquals(DISABLED_PROTOCOLS,options.getDisabledProtocols());
         assertArrayEquals(ENABLED_CIPHERS,options.getEnabledCipherSuites());
@@ -170,6 +177,8 @@ public class TransportSslOptionsTest extends QpidJmsTestCase {
         options.setConnectTimeout(TEST_CONNECT_TIMEOUT);
         options.setDefaultSslPort(TEST_DEFAULT_SSL_PORT);
         options.setSslContextOverride(SSL_CONTEXT);
+        options.setCacheSslContext(true);
+        options.setUseOpenSSL(true);
 
         return options;
     }
@@ -20,11 +20,19 @@ import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
 
+import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.security.UnrecoverableKeyException;
 import java.util.Arrays;
 import java.util.List;
@@ -32,8 +40,16 @@ import java.util.List;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.handler.ssl.OpenSsl;
+import io.netty.handler.ssl.SslContext;
+import io.netty.util.ReferenceCounted;
+
 import org.apache.qpid.jms.test.QpidJmsTestCase;
+import org.junit.After;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 /**
  * Tests for the TransportSupport class.
@@ -66,6 +82,16 @@ public class TransportSupportTest extends QpidJmsTestCase {
     private static final String ALIAS_DOES_NOT_EXIST = "alias.does.not.exist";
     private static final String ALIAS_CA_CERT = "ca";
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(new File("./target"));
+
+    @Override
+    @After
+    public void tearDown() throws Exception {
+        TransportSupport.clearSslContextCache();
+        super.tearDown();
+    }
+
     @Test
     public void testLegacySslProtocolsDisabledByDefault() throws Exception {
         TransportSslOptions options = createJksSslOptions(null);
@@ -408,6 +434,177 @@ public class TransportSupportTest extends QpidJmsTestCase {
         }
     }
 
+    @Test
+    public void testCachedSslContextIsSharedForSameOptions() throws Exception {
+        SSLContext context = TransportSupport.getCachedSslContext(createJksSslOptions());
+        assertNotNull(context);
+
+        assertSame(context, TransportSupport.getCachedSslContext(createJksSslOptions()));
+        assertNotSame(context, TransportSupport.getCachedSslContext(createJceksSslOptions()));
+    }
+
+    @Test
+    public void testCachedSslContextIgnoresEngineOnlyOptions() throws Exception {
+        TransportSslOptions options = createJksSslOptions();
+        SSLContext context = TransportSupport.getCachedSslContext(options);
+
+        TransportSslOptions other = createJksSslOptions(ENABLED_PROTOCOLS);
+        other.setVerifyHost(false);
+
+        assertSame(context, TransportSupport.getCachedSslContext(other));
+    }
+
+    @Test
+    public void testCachedSslContextKeyedByStorePassword() throws Exception {
+        SSLContext context = TransportSupport.getCachedSslContext(createJksSslOptions());
+
+        // A JKS trust store loads without a password, it is only needed to check integrity
+        TransportSslOptions other = createJksSslOptions();
+        other.setTrustStorePassword(null);
+
+        SSLContext otherContext = TransportSupport.getCachedSslContext(other);
+        assertNotSame(context, otherContext);
+        assertSame(otherContext, TransportSupport.getCachedSslContext(other));
+        assertSame(context, TransportSupport.getCachedSslContext(createJksSslOptions()));
+    }
+
+    @Test
+    public void testCachedSslContextReplacedWhenKeyStoreChanges() throws Exception {
+        File keyStore = folder.newFile("client-jks.keystore");
+        Files.copy(new File(CLIENT_JKS_KEYSTORE).toPath(), keyStore.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        TransportSslOptions options = createJksSslOptions();
+        options.setKeyStoreLocation(keyStore.getPath());
+
+        SSLContext context = TransportSupport.getCachedSslContext(options);
+        assertSame(context, TransportSupport.getCachedSslContext(options));
+
+        assertTrue(keyStore.setLastModified(keyStore.lastModified() - 60000));
+
+        SSLContext updated = TransportSupport.getCachedSslContext(options);
+        assertNotSame(context, updated);
+        assertSame(updated, TransportSupport.getCachedSslContext(options));
+    }
+
+    @Test
+    public void testCreateSslHandlerWithCachedSslContextIdentifiesPeer() throws Exception {
+        TransportSslOptions options = createJksSslOptions();
+        options.setCacheSslContext(true);
+
+        SSLContext context = TransportSupport.getCachedSslContext(options);
+
+        SSLEngine engine = TransportSupport.createSslHandler(new URI("amqps://localhost:5671"), options).engine();
+        assertNotNull(engine);
+
+        // The peer host and port are what the shared context uses to find a resumable session
+        assertEquals("localhost", engine.getPeerHost());
+        assertEquals(5671, engine.getPeerPort());
+        assertSame(context, TransportSupport.getCachedSslContext(options));
+    }
+
+    @Test
+    public void testOpenSSLNotPossibleUnlessRequested() throws Exception {
+        TransportSslOptions options = createJksSslOptions();
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testOpenSSLNotPossibleWithSslContextOverride() throws Exception {
+        TransportSslOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setSslContextOverride(TransportSupport.createSslContext(options));
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testOpenSSLNotPossibleWithNonDefaultContextProtocol() throws Exception {
+        TransportSslOptions options = createJksSslOptions();
+        options.setUseOpenSSL(true);
+        options.setContextProtocol("TLSv1.2");
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+    }
+
+    @Test
+    public void testCreateSslHandlerFallsBackToJdkEngineWithoutOpenSSL() throws Exception {
+        assumeFalse(OpenSsl.isAvailable());
+
+        TransportSslOptions options = createJksSslOptions(ENABLED_PROTOCOLS);
+        options.setUseOpenSSL(true);
+
+        assertFalse(TransportSupport.isOpenSSLPossible(options));
+
+        SSLEngine engine = TransportSupport.createSslHandler(new URI("amqps://localhost:5671"), options).engine();
+        assertNotNull(engine);
+        assertFalse(engine instanceof ReferenceCounted);
+        assertArrayEquals(ENABLED_PROTOCOLS, engine.getEnabledProtocols());
+    }
+
+    @Test
+    public void testCreateOpenSslEngineFromJksTrustStore() throws Exception {
+        assumeTrue(OpenSsl.isAvailable());
+
+        TransportSslOptions options = createJksSslOptions(new String[] { "TLSv1.2" });
+        options.setKeyStoreLocation(null);
+        options.setUseOpenSSL(true);
+        options.setVerifyHost(true);
+
+        assertTrue(TransportSupport.isOpenSSLPossible(options));
+
+        SslContext context = TransportSupport.createOpenSslContext(options);
+        try {
+            SSLEngine engine = TransportSupport.createOpenSslEngine(ByteBufAllocator.DEFAULT, new URI("amqps://localhost:5671"), context, options);
+            assertNotNull(engine);
+
+            List<String> protocols = Arrays.asList(engine.getEnabledProtocols());
+            assertTrue(protocols.contains("TLSv1.2"));
+            assertFalse(protocols.contains("TLSv1"));
+            assertFalse(protocols.contains("TLSv1.1"));
+            assertFalse(protocols.contains("SSLv3"));
+
+            assertEquals("HTTPS", engine.getSSLParameters().getEndpointIdentificationAlgorithm());
+            assertTrue(engine.getUseClientMode());
+
+            ((ReferenceCounted) engine).release();
+        } finally {
+            ((ReferenceCounted) context).release();
+        }
+    }
+
+    @Test
+    public void testCachedOpenSslContextIsSharedAndReleasedWhenCleared() throws Exception {
+        assumeTrue(OpenSsl.isAvailable());
+
+        TransportSslOptions options = createJksSslOptions();
+        options.setKeyStoreLocation(null);
+        options.setUseOpenSSL(true);
+        options.setCacheSslContext(true);
+
+        SslContext context = TransportSupport.getCachedOpenSslContext(options);
+        try {
+            assertSame(context, TransportSupport.getCachedOpenSslContext(options));
+            ((ReferenceCounted) context).release();
+
+            // The JDK and OpenSSL contexts for the same settings are cached separately
+            assertNotNull(TransportSupport.getCachedSslContext(options));
+            assertSame(context, TransportSupport.getCachedOpenSslContext(options));
+            ((ReferenceCounted) context).release();
+
+            SSLEngine engine = TransportSupport.createSslHandler(new URI("amqps://localhost:5671"), options).engine();
+            assertTrue(engine instanceof ReferenceCounted);
+            ((ReferenceCounted) engine).release();
+
+            // Only the cache and this test hold references to the context
+            assertEquals(2, ((ReferenceCounted) context).refCnt());
+        } finally {
+            ((ReferenceCounted) context).release();
+        }
+
+        TransportSupport.clearSslContextCache();
+        assertEquals(0, ((ReferenceCounted) context).refCnt());
+    }
+
     private TransportSslOptions createJksSslOptions() {
         return createJksSslOptions(null);
     }
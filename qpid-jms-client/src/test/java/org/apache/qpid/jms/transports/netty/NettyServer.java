@@ -25,6 +25,7 @@ import java.net.URI;
 import java.nio.charset.StandardCharsets;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLContext;
@@ -43,6 +44,7 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelDuplexHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.channel.ChannelInitializer;
@@ -55,13 +57,16 @@ import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.handler.codec.http.DefaultFullHttpResponse;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpServerCodec;
 import io.netty.handler.codec.http.HttpUtil;
 import io.netty.handler.codec.http.websocketx.BinaryWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.ContinuationWebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketFrame;
 import io.netty.handler.codec.http.websocketx.WebSocketServerProtocolHandler;
+import io.netty.handler.codec.http.websocketx.extensions.compression.WebSocketServerCompressionHandler;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import io.netty.handler.ssl.SslHandler;
@@ -89,7 +94,11 @@ public abstract class NettyServer implements AutoCloseable {
     private int maxFrameSize = NettyTcpTransport.DEFAULT_MAX_FRAME_SIZE;
     private String webSocketPath = WEBSOCKET_PATH;
     private volatile boolean fragmentWrites;
+    private volatile boolean webSocketCompression;
     private volatile SslHandler sslHandler;
+    private volatile String webSocketExtensions;
+    private final AtomicInteger compressedFramesReceived = new AtomicInteger();
+    private final AtomicInteger uncompressedFramesReceived = new AtomicInteger();
 
     private final AtomicBoolean started = new AtomicBoolean();
 
@@ -143,6 +152,39 @@ public abstract class NettyServer implements AutoCloseable {
         return fragmentWrites;
     }
 
+    public void setWebSocketCompression(boolean webSocketCompression) {
+        if(!webSocketServer) {
+            throw new IllegalStateException("Only applicable to WebSocket servers");
+        }
+
+        this.webSocketCompression = webSocketCompression;
+    }
+
+    public boolean isWebSocketCompression() {
+        return webSocketCompression;
+    }
+
+    /**
+     * @return the Sec-WebSocket-Extensions header sent in the handshake response, or null if none was sent.
+     */
+    public String getWebSocketExtensions() {
+        return webSocketExtensions;
+    }
+
+    /**
+     * @return the number of WebSocket frames received with the RSV1 (compressed) bit set.
+     */
+    public int getCompressedFramesReceived() {
+        return compressedFramesReceived.get();
+    }
+
+    /**
+     * @return the number of WebSocket frames received without the RSV1 (compressed) bit set.
+     */
+    public int getUncompressedFramesReceived() {
+        return uncompressedFramesReceived.get();
+    }
+
     protected URI getConnectionURI() throws Exception {
         if (!started.get()) {
             throw new IllegalStateException("Cannot get URI of non-started server");
@@ -206,6 +248,10 @@ public abstract class NettyServer implements AutoCloseable {
                     if (webSocketServer) {
                         ch.pipeline().addLast(new HttpServerCodec());
                         ch.pipeline().addLast(new HttpObjectAggregator(65536));
+                        if (webSocketCompression) {
+                            ch.pipeline().addLast(new NettyServerWebSocketCompressionProbe());
+                            ch.pipeline().addLast(new WebSocketServerCompressionHandler());
+                        }
                         ch.pipeline().addLast(new WebSocketServerProtocolHandler(getWebSocketPath(), "amqp", true, maxFrameSize));
                     }
 
@@ -297,6 +343,35 @@ public abstract class NettyServer implements AutoCloseable {
         }
     }
 
+    /*
+     * Sits ahead of the compression handler so that it sees the raw frames
+     * off the wire along with the final handshake response headers.
+     */
+    private class NettyServerWebSocketCompressionProbe extends ChannelDuplexHandler {
+
+        private static final int RSV1 = 0x04;
+
+        @Override
+        public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+            if (msg instanceof WebSocketFrame) {
+                if ((((WebSocketFrame) msg).rsv() & RSV1) != 0) {
+                    compressedFramesReceived.incrementAndGet();
+                } else {
+                    uncompressedFramesReceived.incrementAndGet();
+                }
+            }
+            ctx.fireChannelRead(msg);
+        }
+
+        @Override
+        public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+            if (msg instanceof HttpResponse) {
+                webSocketExtensions = ((HttpResponse) msg).headers().get(HttpHeaderNames.SEC_WEBSOCKET_EXTENSIONS);
+            }
+            ctx.write(msg, promise);
+        }
+    }
+
     private class NettyServerInboundHandler extends ChannelInboundHandlerAdapter  {
 
         @Override
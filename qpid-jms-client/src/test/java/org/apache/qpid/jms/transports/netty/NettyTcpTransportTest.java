@@ -20,6 +20,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.junit.Assume.assumeTrue;
@@ -43,6 +44,7 @@ import org.slf4j.LoggerFactory;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.EventLoopGroup;
 import io.netty.channel.epoll.Epoll;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.kqueue.KQueue;
@@ -276,6 +278,65 @@ public class NettyTcpTransportTest extends QpidJmsTestCase {
         assertTrue(exceptions.isEmpty());
     }
 
+    @Test(timeout = 60 * 1000)
+    public void testMultipleConnectionsShareEventLoopGroup() throws Exception {
+        final int CONNECTION_COUNT = 4;
+        final int FRAME_SIZE = 8;
+
+        ByteBuf sendBuffer = Unpooled.buffer(FRAME_SIZE);
+        for (int i = 0; i < 8; ++i) {
+            sendBuffer.writeByte('A');
+        }
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            TransportOptions options = createClientOptions();
+            options.setSharedEventLoopThreads(2);
+
+            List<NettyTcpTransport> transports = new ArrayList<NettyTcpTransport>();
+
+            for (int i = 0; i < CONNECTION_COUNT; ++i) {
+                NettyTcpTransport transport = (NettyTcpTransport) createTransport(serverLocation, testListener, options);
+                try {
+                    transport.connect(null);
+                    transport.send(sendBuffer.copy());
+                    transports.add(transport);
+                } catch (Exception e) {
+                    fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+                }
+            }
+
+            assertTrue(Wait.waitFor(new Wait.Condition() {
+                @Override
+                public boolean isSatisified() throws Exception {
+                    return bytesRead.get() == (FRAME_SIZE * CONNECTION_COUNT);
+                }
+            }, 10000, 50));
+
+            EventLoopGroup sharedGroup = transports.get(0).group;
+            for (NettyTcpTransport transport : transports) {
+                assertSame(sharedGroup, transport.group);
+            }
+
+            assertEquals(1, NettySharedEventLoopGroup.getSharedGroupCount());
+
+            for (int i = 0; i < CONNECTION_COUNT - 1; ++i) {
+                transports.get(i).close();
+                assertFalse(sharedGroup.isShuttingDown());
+            }
+
+            transports.get(CONNECTION_COUNT - 1).close();
+            assertTrue(sharedGroup.isShuttingDown());
+            assertEquals(0, NettySharedEventLoopGroup.getSharedGroupCount());
+        }
+
+        assertTrue(exceptions.isEmpty());
+    }
+
     @Test(timeout = 60 * 1000)
     public void testDetectServerClose() throws Exception {
         Transport transport = null;
@@ -385,6 +446,51 @@ public class NettyTcpTransportTest extends QpidJmsTestCase {
         assertTrue(exceptions.isEmpty());
     }
 
+    @Test(timeout = 60 * 1000)
+    public void testDataWrittenIsReceivedAfterFlush() throws Exception {
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            Transport transport = createTransport(serverLocation, testListener, createClientOptions());
+            try {
+                transport.connect(null);
+                LOG.info("Connected to server:{} as expected.", serverLocation);
+            } catch (Exception e) {
+                fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+            }
+
+            assertTrue(transport.isConnected());
+
+            final int WRITE_COUNT = 10;
+
+            for (int i = 0; i < WRITE_COUNT; ++i) {
+                ByteBuf sendBuffer = transport.allocateSendBuffer(SEND_BYTE_COUNT);
+                for (int j = 0; j < SEND_BYTE_COUNT; ++j) {
+                    sendBuffer.writeByte('A');
+                }
+
+                transport.write(sendBuffer);
+            }
+
+            transport.flush();
+
+            assertTrue(Wait.waitFor(new Wait.Condition() {
+                @Override
+                public boolean isSatisified() throws Exception {
+                    return bytesRead.get() == SEND_BYTE_COUNT * WRITE_COUNT;
+                }
+            }, 10000, 50));
+
+            transport.close();
+        }
+
+        assertTrue(!transportClosed);  // Normal shutdown does not trigger the event.
+        assertTrue(exceptions.isEmpty());
+    }
+
     @Test(timeout = 60 * 1000)
     public void testMultipleDataPacketsSentAreReceived() throws Exception {
         doMultipleDataPacketsSentAndReceive(SEND_BYTE_COUNT, 1);
@@ -18,6 +18,7 @@ package org.apache.qpid.jms.transports.netty;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -169,6 +170,116 @@ public class NettyWsTransportTest extends NettyTcpTransportTest {
         assertTrue(exceptions.isEmpty());
     }
 
+    @Test(timeout = 60000)
+    public void testBatchedWritesAreSentAsSingleFrame() throws Exception {
+        final int FRAME_SIZE = 1024;
+        final int FRAME_COUNT = 3;
+
+        ByteBuf sendBuffer = Unpooled.buffer(FRAME_SIZE);
+        for (int i = 0; i < FRAME_SIZE; ++i) {
+            sendBuffer.writeByte('A' + (i % 10));
+        }
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            TransportOptions clientOptions = createClientOptions();
+            clientOptions.setWebSocketBatching(true);
+
+            NettyTransportListener wsListener = new NettyTransportListener(true);
+
+            Transport transport = createTransport(serverLocation, wsListener, clientOptions);
+            try {
+                transport.connect(null);
+                for (int i = 0; i < FRAME_COUNT; ++i) {
+                    transport.write(sendBuffer.copy());
+                }
+                transport.flush();
+            } catch (Exception e) {
+                fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+            }
+
+            assertTrue(Wait.waitFor(new Wait.Condition() {
+                @Override
+                public boolean isSatisified() throws Exception {
+                    LOG.debug("Checking completion: read {} expecting {}", bytesRead.get(), FRAME_SIZE * FRAME_COUNT);
+                    return bytesRead.get() == FRAME_SIZE * FRAME_COUNT || !transport.isConnected();
+                }
+            }, 10000, 50));
+
+            assertTrue("Connection failed while receiving.", transport.isConnected());
+
+            transport.close();
+
+            assertEquals("Expected the batched writes to be echoed as one websocket frame", 1, data.size());
+        } finally {
+            for (ByteBuf buf : data) {
+                buf.release();
+            }
+        }
+
+        assertTrue(exceptions.isEmpty());
+    }
+
+    @Test(timeout = 60000)
+    public void testConnectionsSendReceiveWithCompression() throws Exception {
+        final int FRAME_SIZE = 8192;
+        final int SMALL_FRAME_SIZE = 16;
+
+        ByteBuf sendBuffer = Unpooled.buffer(FRAME_SIZE);
+        for (int i = 0; i < FRAME_SIZE; ++i) {
+            sendBuffer.writeByte('A' + (i % 10));
+        }
+
+        try (NettyEchoServer server = createEchoServer(createServerOptions())) {
+            server.setMaxFrameSize(FRAME_SIZE);
+            server.setWebSocketCompression(true);
+            server.start();
+
+            int port = server.getServerPort();
+            URI serverLocation = new URI("tcp://localhost:" + port);
+
+            TransportOptions clientOptions = createClientOptions();
+            clientOptions.setWebSocketCompression(true);
+            clientOptions.setWebSocketCompressionThreshold(SMALL_FRAME_SIZE * 2);
+
+            Transport transport = createTransport(serverLocation, testListener, clientOptions);
+            try {
+                transport.setMaxFrameSize(FRAME_SIZE);
+                transport.connect(null);
+                // One frame above and one below the compression threshold.
+                transport.send(sendBuffer.copy());
+                transport.send(sendBuffer.copy(0, SMALL_FRAME_SIZE));
+            } catch (Exception e) {
+                fail("Should have connected to the server at " + serverLocation + " but got exception: " + e);
+            }
+
+            assertTrue(Wait.waitFor(new Wait.Condition() {
+                @Override
+                public boolean isSatisified() throws Exception {
+                    LOG.debug("Checking completion: read {} expecting {}", bytesRead.get(), FRAME_SIZE + SMALL_FRAME_SIZE);
+                    return bytesRead.get() == FRAME_SIZE + SMALL_FRAME_SIZE || !transport.isConnected();
+                }
+            }, 10000, 50));
+
+            assertTrue("Connection failed while receiving.", transport.isConnected());
+
+            String extensions = server.getWebSocketExtensions();
+            assertNotNull("Server did not accept any WebSocket extension", extensions);
+            assertTrue("permessage-deflate was not negotiated: " + extensions, extensions.contains("permessage-deflate"));
+
+            assertEquals("Frame above the threshold should have been compressed", 1, server.getCompressedFramesReceived());
+            assertEquals("Frame below the threshold should have bypassed the compressor", 1, server.getUncompressedFramesReceived());
+
+            transport.close();
+        }
+
+        assertTrue(exceptions.isEmpty());
+    }
+
     @Test(timeout = 20000)
     public void testConnectionReceivesFragmentedData() throws Exception {
         final int FRAME_SIZE = 5317;
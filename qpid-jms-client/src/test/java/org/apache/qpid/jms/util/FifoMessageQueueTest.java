@@ -178,6 +178,35 @@ public class FifoMessageQueueTest {
         }
     }
 
+    @Test
+    public void testDequeueNoWaitWithMaxMessages() {
+        List<JmsInboundMessageDispatch> messages = createFullRangePrioritySet();
+
+        for (JmsInboundMessageDispatch envelope: messages) {
+            queue.enqueue(envelope);
+        }
+
+        List<JmsInboundMessageDispatch> result = queue.dequeueNoWait(4);
+        assertEquals(4, result.size());
+        assertEquals(messages.subList(0, 4), result);
+
+        result = queue.dequeueNoWait(20);
+        assertEquals(6, result.size());
+        assertEquals(messages.subList(4, 10), result);
+
+        assertTrue(queue.isEmpty());
+        assertTrue(queue.dequeueNoWait(20).isEmpty());
+    }
+
+    @Test
+    public void testDequeueNoWaitWithMaxMessagesWhenQueueIsStopped() {
+        queue.enqueue(createEnvelope());
+        queue.stop();
+
+        assertTrue(queue.dequeueNoWait(10).isEmpty());
+        assertEquals(1, queue.size());
+    }
+
     @Test
     public void testRemoveFirstOnEmptyQueue() {
         assertNull(queue.dequeueNoWait());
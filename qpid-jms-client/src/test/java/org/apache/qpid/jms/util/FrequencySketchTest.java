@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class FrequencySketchTest {
+
+    @Test
+    public void testUnseenKeyHasZeroFrequency() {
+        FrequencySketch sketch = new FrequencySketch(10);
+        assertEquals(0, sketch.frequency("queue://test"));
+    }
+
+    @Test
+    public void testFrequencyTracksIncrements() {
+        FrequencySketch sketch = new FrequencySketch(10);
+
+        for (int i = 0; i < 5; ++i) {
+            sketch.increment("queue://hot");
+        }
+        sketch.increment("queue://cold");
+
+        assertTrue(sketch.frequency("queue://hot") >= 5);
+        assertTrue(sketch.frequency("queue://hot") > sketch.frequency("queue://cold"));
+    }
+
+    @Test
+    public void testFrequencySaturates() {
+        FrequencySketch sketch = new FrequencySketch(10);
+
+        for (int i = 0; i < 100; ++i) {
+            sketch.increment("queue://hot");
+        }
+
+        assertEquals(15, sketch.frequency("queue://hot"));
+    }
+}
@@ -24,12 +24,21 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -37,29 +46,39 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import org.apache.qpid.jms.util.URISupport;
 import org.apache.qpid.jms.provider.discovery.DiscoveryAgent;
 import org.apache.qpid.jms.provider.discovery.DiscoveryListener;
+import org.apache.qpid.jms.util.QpidJMSThreadFactory;
 import org.apache.qpid.jms.util.ThreadPoolUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Discovery agent that watches a file and periodically reads in remote URIs
- * from that file.
+ * Discovery agent that watches a file and reads in remote URIs from that file
+ * whenever it changes.
+ *
+ * Files on the local file system are watched using a {@link WatchService} so that
+ * updates are picked up as soon as the file is written, other resources such as
+ * remote URLs are re-read periodically at the configured update interval.
  */
 public class FileWatcherDiscoveryAgent implements DiscoveryAgent {
 
     private static final Logger LOG = LoggerFactory.getLogger(FileWatcherDiscoveryAgent.class);
 
     private static final int DEFAULT_UPDATE_INTERVAL = 30000;
+    private static final int WATCH_EVENT_DELAY = 50;
 
     private ScheduledExecutorService scheduler;
     private final Set<URI> discovered = new LinkedHashSet<URI>();
 
     private final URI discoveryURI;
     private final AtomicBoolean started = new AtomicBoolean(false);
+    private final AtomicBoolean updatePending = new AtomicBoolean(false);
+
+    private WatchService watchService;
 
     private DiscoveryListener listener;
     private int updateInterval = DEFAULT_UPDATE_INTERVAL;
     private boolean warnOnWatchedReadError;
+    private boolean useWatchService = true;
 
     public FileWatcherDiscoveryAgent(URI discoveryURI) throws URISyntaxException {
         this.discoveryURI = URISupport.removeQuery(discoveryURI);
@@ -95,20 +114,28 @@ public class FileWatcherDiscoveryAgent implements DiscoveryAgent {
         }
 
         if (started.compareAndSet(false, true)) {
-            scheduler.scheduleAtFixedRate(new Runnable() {
+            Path watchedFile = isUseWatchService() ? getLocalPath() : null;
+            if (watchedFile != null && startWatching(watchedFile)) {
+                LOG.debug("Watching for changes to local resource: {}", watchedFile);
+                scheduleUpdate(0);
+                return;
+            }
 
-                @Override
-                public void run() {
-                    LOG.debug("Performing watched resources scheduled update: {}", getDiscvoeryURI());
-                    updateWatchedResources();
-                }
-            }, 0, getUpdateInterval(), TimeUnit.MILLISECONDS);
+            startPolling(0);
         }
     }
 
     @Override
     public void close() {
         if (started.compareAndSet(true, false)) {
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException e) {
+                    LOG.trace("Error while closing the watch service:", e);
+                }
+            }
+
             ThreadPoolUtils.shutdownGraceful(scheduler);
         }
     }
@@ -152,8 +179,141 @@ public class FileWatcherDiscoveryAgent implements DiscoveryAgent {
         this.updateInterval = updateInterval;
     }
 
+    /**
+     * @return true if changes to a local file are detected using a file system WatchService.
+     */
+    public boolean isUseWatchService() {
+        return useWatchService;
+    }
+
+    /**
+     * @param useWatchService
+     *        controls whether a local file is watched for changes using a file system
+     *        WatchService instead of being polled at the configured update interval.
+     */
+    public void setUseWatchService(boolean useWatchService) {
+        this.useWatchService = useWatchService;
+    }
+
     //----- Internal implementation ------------------------------------------//
 
+    private Path getLocalPath() {
+        URI resource = getDiscvoeryURI();
+
+        try {
+            if (resource.getScheme() == null) {
+                return Paths.get(resource.getPath()).toAbsolutePath();
+            } else if ("file".equalsIgnoreCase(resource.getScheme())) {
+                return Paths.get(resource).toAbsolutePath();
+            }
+        } catch (Exception e) {
+            LOG.debug("Cannot watch resource {} for changes, will poll for updates instead: {}", resource, e.getMessage());
+        }
+
+        return null;
+    }
+
+    private boolean startWatching(final Path watchedFile) {
+        final Path directory = watchedFile.getParent();
+        if (directory == null) {
+            return false;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (Exception e) {
+            LOG.debug("Cannot watch resource {} for changes, will poll for updates instead: {}", watchedFile, e.getMessage());
+            if (watchService != null) {
+                try {
+                    watchService.close();
+                } catch (IOException ignore) {
+                }
+                watchService = null;
+            }
+
+            return false;
+        }
+
+        final Path fileName = watchedFile.getFileName();
+        final WatchService service = watchService;
+
+        Thread watchThread = new QpidJMSThreadFactory("FileWatcherDiscoveryAgent :[" + watchedFile + "]", true).newThread(new Runnable() {
+
+            @Override
+            public void run() {
+                try {
+                    while (started.get()) {
+                        WatchKey key = service.take();
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                                LOG.trace("Watched resource changed: {}", watchedFile);
+                                scheduleUpdate(WATCH_EVENT_DELAY);
+                            }
+                        }
+
+                        if (!key.reset()) {
+                            LOG.warn("Watched directory is no longer accessible, polling for updates instead: {}", directory);
+                            try {
+                                service.close();
+                            } catch (IOException ignore) {
+                            }
+
+                            if (started.get()) {
+                                startPolling(getUpdateInterval());
+                            }
+                            break;
+                        }
+                    }
+                } catch (ClosedWatchServiceException | InterruptedException e) {
+                    LOG.trace("Stopped watching resource: {}", watchedFile);
+                }
+            }
+        });
+        watchThread.start();
+
+        return true;
+    }
+
+    private void startPolling(long initialDelay) {
+        try {
+            scheduler.scheduleAtFixedRate(new Runnable() {
+
+                @Override
+                public void run() {
+                    LOG.debug("Performing watched resources scheduled update: {}", getDiscvoeryURI());
+                    updateWatchedResources();
+                }
+            }, initialDelay, getUpdateInterval(), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Scheduler was shut down while closing.
+        }
+    }
+
+    private void scheduleUpdate(long delay) {
+        // A single write to the file usually produces several events, wait briefly
+        // and then read the file once for all of them.
+        if (updatePending.compareAndSet(false, true)) {
+            try {
+                scheduler.schedule(new Runnable() {
+
+                    @Override
+                    public void run() {
+                        updatePending.set(false);
+                        LOG.debug("Performing watched resources update: {}", getDiscvoeryURI());
+                        updateWatchedResources();
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                // Scheduler was shut down while closing.
+                updatePending.set(false);
+            }
+        }
+    }
+
     private void updateWatchedResources() {
         String fileURL = getDiscvoeryURI().toString();
         if (fileURL != null) {
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.qpid.jms.provider.discovery.file;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.qpid.jms.provider.discovery.DiscoveryListener;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileWatcherDiscoveryAgentTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder(new File("./target"));
+
+    private FileWatcherDiscoveryAgent agent;
+    private ScheduledExecutorService scheduler;
+
+    @After
+    public void tearDown() throws Exception {
+        if (agent != null) {
+            agent.close();
+        }
+
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test(timeout = 20000)
+    public void testLocalFileChangesAreSeenWithoutPolling() throws Exception {
+        File brokerList = folder.newFile("brokers.txt");
+        writeToFile(brokerList, "amqp://host1:5672,amqp://host2:5672");
+
+        RecordingListener listener = new RecordingListener();
+
+        agent = new FileWatcherDiscoveryAgent(brokerList.toURI());
+        agent.setUpdateInterval(600000);
+        agent.setDiscoveryListener(listener);
+        agent.setScheduler(scheduler = Executors.newSingleThreadScheduledExecutor());
+        agent.start();
+
+        assertEquals(new HashSet<>(Arrays.asList("add:amqp://host1:5672", "add:amqp://host2:5672")), listener.poll(2));
+
+        writeToFile(brokerList, "amqp://host2:5672,amqp://host3:5672");
+
+        assertEquals(new HashSet<>(Arrays.asList("remove:amqp://host1:5672", "add:amqp://host3:5672")), listener.poll(2));
+        assertTrue("Unchanged entries should not be reported", listener.events.isEmpty());
+    }
+
+    @Test(timeout = 20000)
+    public void testFallsBackToPollingWhenWatchedDirectoryIsRemoved() throws Exception {
+        File directory = folder.newFolder("watched");
+        File brokerList = new File(directory, "brokers.txt");
+        writeToFile(brokerList, "amqp://host1:5672");
+
+        RecordingListener listener = new RecordingListener();
+
+        agent = new FileWatcherDiscoveryAgent(brokerList.toURI());
+        agent.setUpdateInterval(100);
+        agent.setDiscoveryListener(listener);
+        agent.setScheduler(scheduler = Executors.newSingleThreadScheduledExecutor());
+        agent.start();
+
+        assertEquals(new HashSet<>(Arrays.asList("add:amqp://host1:5672")), listener.poll(1));
+
+        // Removing the directory invalidates the watch, the file is then polled for.
+        assertTrue(brokerList.delete());
+        assertTrue(directory.delete());
+        Thread.sleep(500);
+        assertTrue(directory.mkdir());
+        writeToFile(brokerList, "amqp://host2:5672");
+
+        assertEquals(new HashSet<>(Arrays.asList("remove:amqp://host1:5672", "add:amqp://host2:5672")), listener.poll(2));
+    }
+
+    private void writeToFile(File target, String contents) throws Exception {
+        try (FileOutputStream out = new FileOutputStream(target);) {
+            out.write(contents.getBytes("UTF-8"));
+        }
+    }
+
+    private static class RecordingListener implements DiscoveryListener {
+
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        public Set<String> poll(int count) throws InterruptedException {
+            Set<String> result = new HashSet<>();
+            for (int i = 0; i < count; ++i) {
+                String event = events.poll(5, TimeUnit.SECONDS);
+                if (event != null) {
+                    result.add(event);
+                }
+            }
+
+            return result;
+        }
+
+        @Override
+        public void onServiceAdd(URI remoteURI) {
+            events.add("add:" + remoteURI);
+        }
+
+        @Override
+        public void onServiceRemove(URI remoteURI) {
+            events.add("remove:" + remoteURI);
+        }
+    }
+}